@@ -0,0 +1,194 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.dasein.cloud.Cloud;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.ResponseModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared fixtures of the benchmarks: a connected provider which never leaves the JVM, and large response payloads
+ * made by replicating the single item of a recorded response. DescribeInstanceStatus and DescribeLoadBalancerStatus
+ * are read from the {@link #INSTANCES} and {@link #LOAD_BALANCERS} payloads.
+ *
+ * @since 2016.02.1
+ */
+public final class Fixtures {
+    static public final String INSTANCES = "DescribeInstances";
+    static public final String VOLUMES = "DescribeVolumes";
+    static public final String LOAD_BALANCER_LISTENERS = "DescribeLoadBalancerListeners";
+    static public final String LOAD_BALANCERS = "DescribeLoadBalancers";
+    static public final String SERVER_CERTIFICATES = "DescribeServerCertificates";
+    static public final String KEY_PAIRS = "DescribeKeyPairs";
+    static public final String SNAPSHOTS = "DescribeSnapshots";
+    static public final String IMAGES = "DescribeImages";
+    static public final String VXNETS = "DescribeVxnets";
+    static public final String ROUTER_VXNETS = "DescribeRouterVxnets";
+    static public final String ROUTERS = "DescribeRouters";
+    static public final String ROUTER_STATICS = "DescribeRouterStatics";
+    static public final String EIPS = "DescribeEips";
+    static public final String SECURITY_GROUPS = "DescribeSecurityGroups";
+    static public final String SECURITY_GROUP_RULES = "DescribeSecurityGroupRules";
+
+    static private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /*
+     * Set name and item id name of each recorded response.
+     */
+    static private final Map<String, String[]> itemNames = new HashMap<String, String[]>();
+    static {
+        itemNames.put(INSTANCES, new String[] { "instance_set", "instance_id" });
+        itemNames.put(VOLUMES, new String[] { "volume_set", "volume_id" });
+        itemNames.put(LOAD_BALANCER_LISTENERS, new String[] { "loadbalancer_listener_set", "loadbalancer_listener_id" });
+        itemNames.put(LOAD_BALANCERS, new String[] { "loadbalancer_set", "loadbalancer_id" });
+        itemNames.put(SERVER_CERTIFICATES, new String[] { "server_certificate_set", "server_certificate_id" });
+        itemNames.put(KEY_PAIRS, new String[] { "keypair_set", "keypair_id" });
+        itemNames.put(SNAPSHOTS, new String[] { "snapshot_set", "snapshot_id" });
+        itemNames.put(IMAGES, new String[] { "image_set", "image_id" });
+        itemNames.put(VXNETS, new String[] { "vxnet_set", "vxnet_id" });
+        itemNames.put(ROUTER_VXNETS, new String[] { "router_vxnet_set", "vxnet_id" });
+        itemNames.put(ROUTERS, new String[] { "router_set", "router_id" });
+        itemNames.put(ROUTER_STATICS, new String[] { "router_static_set", "router_static_id" });
+        itemNames.put(EIPS, new String[] { "eip_set", "eip_id" });
+        itemNames.put(SECURITY_GROUPS, new String[] { "security_group_set", "security_group_id" });
+        itemNames.put(SECURITY_GROUP_RULES, new String[] { "security_group_rule_set", "security_group_rule_id" });
+    }
+
+    private Fixtures() {
+    }
+
+    static public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    static public QingCloud connect() throws CloudException, InternalException {
+        Cloud cloud = Cloud.register("Yunify", "QingCloud", "https://api.qingcloud.com/iaas/", OfflineQingCloud.class);
+        ProviderContext context = cloud.createContext("benchmark", "pek2",
+                new ProviderContext.Value<byte[][]>(QingCloud.DSN_ACCESS_KEY,
+                        new byte[][] { "QYACCESSKEYIDEXAMPLE".getBytes(), "SECRETACCESSKEY".getBytes() }));
+        return (QingCloud) context.connect();
+    }
+
+    /**
+     * @param action recorded response, one of the Describe action constants
+     * @param count number of items in the returned response
+     * @return response body with count copies of the recorded item, each with its own id
+     */
+    static public byte[] payload(String action, int count) throws IOException {
+        InputStream inputStream = Fixtures.class.getResourceAsStream("/payloads/" + action + ".json");
+        try {
+            ObjectNode response = (ObjectNode) objectMapper.readTree(inputStream);
+            String setName = itemNames.get(action)[0];
+            String idName = itemNames.get(action)[1];
+
+            JsonNode recordedItem = response.get(setName).get(0);
+            ArrayNode items = objectMapper.createArrayNode();
+            for (int i = 0; i < count; i++) {
+                ObjectNode item = ((ObjectNode) recordedItem).deepCopy();
+                item.put(idName, item.get(idName).asText() + "-" + i);
+                items.add(item);
+            }
+            response.set(setName, items);
+            response.put("total_count", count);
+            return objectMapper.writeValueAsBytes(response);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Creates one of the private mappers of a driver support. The mappers aren't part of the driver API, so they are
+     * looked up by name instead of being opened up for the benchmarks.
+     *
+     * @param supportClass driver support class declaring the mapper
+     * @param support the support instance the mapper belongs to
+     * @param mapperName simple name of the mapper class
+     * @param arguments constructor arguments of the mapper, without the support instance
+     * @return the mapper, map responses with its public mapFrom
+     */
+    @SuppressWarnings("unchecked")
+    static public <T extends ResponseModel, V> QingCloudDriverToCoreMapper<T, V> mapper(Class<?> supportClass,
+            Object support, String mapperName, Object... arguments) {
+        for (Class<?> declaredClass : supportClass.getDeclaredClasses()) {
+            if (!declaredClass.getSimpleName().equals(mapperName)) {
+                continue;
+            }
+            for (Constructor<?> constructor : declaredClass.getDeclaredConstructors()) {
+                Class<?>[] parameterTypes = constructor.getParameterTypes();
+                if (parameterTypes.length != arguments.length + 1 || !accepts(parameterTypes, arguments)) {
+                    continue;
+                }
+                Object[] constructorArguments = new Object[arguments.length + 1];
+                constructorArguments[0] = support;
+                System.arraycopy(arguments, 0, constructorArguments, 1, arguments.length);
+                try {
+                    constructor.setAccessible(true);
+                    return (QingCloudDriverToCoreMapper<T, V>) constructor.newInstance(constructorArguments);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Can't create " + mapperName, e);
+                }
+            }
+        }
+        throw new IllegalArgumentException("No " + mapperName + " in " + supportClass.getName()
+                + " taking " + arguments.length + " arguments");
+    }
+
+    /*
+     * Parameter 0 of an inner class constructor is the enclosing instance.
+     */
+    static private boolean accepts(Class<?>[] parameterTypes, Object[] arguments) {
+        for (int i = 0; i < arguments.length; i++) {
+            Class<?> parameterType = parameterTypes[i + 1];
+            if (parameterType.isPrimitive() ? arguments[i] == null
+                    : arguments[i] != null && !parameterType.isInstance(arguments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Provider using the context region as its zone, so mappers resolving the data center never call DescribeZones.
+     */
+    static public class OfflineQingCloud extends QingCloud {
+        @Override
+        public String getProviderDataCenterId() throws CloudException, InternalException {
+            return getZoneId();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.dasein.cloud.qingcloud.compute.model.DescribeInstancesResponseModel;
+import org.dasein.cloud.qingcloud.compute.model.DescribeVolumesResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerListenersResponseModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization of large Describe* responses into the driver's response models, read from a stream like
+ * the requester does.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JsonMappingBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private ObjectMapper objectMapper;
+    private byte[] instances;
+    private byte[] volumes;
+    private byte[] loadBalancerListeners;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Fixtures.objectMapper();
+        instances = Fixtures.payload(Fixtures.INSTANCES, count);
+        volumes = Fixtures.payload(Fixtures.VOLUMES, count);
+        loadBalancerListeners = Fixtures.payload(Fixtures.LOAD_BALANCER_LISTENERS, count);
+    }
+
+    @Benchmark
+    public DescribeInstancesResponseModel describeInstances() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(instances), DescribeInstancesResponseModel.class);
+    }
+
+    @Benchmark
+    public DescribeVolumesResponseModel describeVolumes() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(volumes), DescribeVolumesResponseModel.class);
+    }
+
+    @Benchmark
+    public DescribeLoadBalancerListenersResponseModel describeLoadBalancerListeners() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(loadBalancerListeners),
+                DescribeLoadBalancerListenersResponseModel.class);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.benchmark;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.NameValuePair;
+import org.dasein.cloud.InternalException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The signing code QingCloudRequestBuilder used before QingCloudSigner, kept as the benchmark baseline.
+ *
+ * @since 2016.02.1
+ */
+final class LegacySigner {
+    static private final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    static private final String ENCODING = "UTF-8";
+
+    private LegacySigner() {
+    }
+
+    static String sign(String method, String path, List<NameValuePair> parameters, byte[] accessKeySecret)
+            throws InternalException {
+        try {
+            Map<String, String> requestParameters = new HashMap<String, String>();
+            for (NameValuePair nameValuePair : parameters) {
+                requestParameters.put(nameValuePair.getName(), nameValuePair.getValue());
+            }
+
+            String[] sortedKeys = requestParameters.keySet().toArray(new String[]{});
+            Arrays.sort(sortedKeys);
+            StringBuilder canonicalStringBuilder = new StringBuilder();
+            for (String key : sortedKeys) {
+                canonicalStringBuilder.append("&").append(urlEncode(key)).append("=")
+                        .append(urlEncode(requestParameters.get(key)));
+            }
+            String canonicalString = canonicalStringBuilder.toString().substring(1);
+
+            StringBuilder stringToSign = new StringBuilder();
+            stringToSign.append(method).append("\n").append(path).append("\n");
+            stringToSign.append(canonicalString);
+
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(accessKeySecret, SIGNATURE_ALGORITHM));
+            byte[] signedData = mac.doFinal(stringToSign.toString().getBytes(ENCODING));
+            return new String(Base64.encodeBase64(signedData));
+        } catch (Exception exception) {
+            throw new InternalException(exception);
+        }
+    }
+
+    static private String urlEncode(String value) throws Exception {
+        if (value == null) {
+            return null;
+        }
+        return URLEncoder.encode(value, ENCODING).replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.benchmark;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and signing a typical request with {@link QingCloudRequestBuilder#build()}.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RequestBuilderBenchmark {
+    private QingCloud qingCloud;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException {
+        qingCloud = Fixtures.connect();
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public HttpUriRequest describeInstances() throws InternalException {
+        return QingCloudRequestBuilder.get(qingCloud)
+                .action("DescribeInstances")
+                .parameter("instances.1", "i-tb4j4bjb")
+                .parameter("verbose", 1)
+                .parameter("offset", 0)
+                .parameter("limit", 100)
+                .parameter("zone", "pek2")
+                .build();
+    }
+
+    @Benchmark
+    public HttpUriRequest runInstances() throws InternalException {
+        return QingCloudRequestBuilder.post(qingCloud)
+                .action("RunInstances")
+                .parameter("image_id", "centos66x64b")
+                .parameter("instance_type", "c1m1")
+                .parameter("instance_name", "web server 01")
+                .parameter("count", 1)
+                .parameter("login_mode", "keypair")
+                .parameter("login_keypair", "kp-bn2n77ow")
+                .parameter("vxnets.1", "vxnet-0")
+                .parameter("security_group", "sg-xs3lxv3g")
+                .parameter("zone", "pek2")
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.benchmark;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing one RunInstances request, the per-request algorithm before {@link QingCloudSigner} against the signer.
+ * Run with "-prof gc" to compare allocations per signed request.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SignerBenchmark {
+    static private final byte[] ACCESS_KEY_ID = "QYACCESSKEYIDEXAMPLE".getBytes();
+    static private final byte[] ACCESS_KEY_SECRET = "SECRETACCESSKEY".getBytes();
+
+    private List<NameValuePair> parameters;
+
+    @Setup
+    public void setUp() {
+        parameters = new ArrayList<NameValuePair>();
+        parameters.add(new BasicNameValuePair("time_stamp", "2013-08-27T14:30:10Z"));
+        parameters.add(new BasicNameValuePair("access_key_id", new String(ACCESS_KEY_ID)));
+        parameters.add(new BasicNameValuePair("version", "1"));
+        parameters.add(new BasicNameValuePair("signature_method", "HmacSHA256"));
+        parameters.add(new BasicNameValuePair("signature_version", "1"));
+        parameters.add(new BasicNameValuePair("action", "RunInstances"));
+        parameters.add(new BasicNameValuePair("count", "1"));
+        parameters.add(new BasicNameValuePair("image_id", "centos64x86a"));
+        parameters.add(new BasicNameValuePair("instance_name", "demo server*1 ~test"));
+        parameters.add(new BasicNameValuePair("instance_type", "small_b"));
+        parameters.add(new BasicNameValuePair("login_mode", "passwd"));
+        parameters.add(new BasicNameValuePair("login_passwd", "QingCloud20130712"));
+        parameters.add(new BasicNameValuePair("vxnets.1", "vxnet-0"));
+        parameters.add(new BasicNameValuePair("zone", "pek1"));
+    }
+
+    @Benchmark
+    public String legacySign() throws InternalException {
+        return LegacySigner.sign("GET", "/iaas/", parameters, ACCESS_KEY_SECRET);
+    }
+
+    @Benchmark
+    public String signerSign() throws InternalException {
+        return QingCloudSigner.getInstance(ACCESS_KEY_ID, ACCESS_KEY_SECRET).sign("GET", "/iaas/", parameters);
+    }
+}
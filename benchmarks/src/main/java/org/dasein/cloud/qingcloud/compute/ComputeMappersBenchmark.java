@@ -0,0 +1,136 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.compute.MachineImage;
+import org.dasein.cloud.compute.Snapshot;
+import org.dasein.cloud.compute.VirtualMachine;
+import org.dasein.cloud.compute.VirtualMachineStatus;
+import org.dasein.cloud.compute.Volume;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.benchmark.Fixtures;
+import org.dasein.cloud.qingcloud.compute.model.DescribeImagesResponseModel;
+import org.dasein.cloud.qingcloud.compute.model.DescribeInstanceStatusResponseModel;
+import org.dasein.cloud.qingcloud.compute.model.DescribeInstancesResponseModel;
+import org.dasein.cloud.qingcloud.compute.model.DescribeSnapshotsResponseModel;
+import org.dasein.cloud.qingcloud.compute.model.DescribeVolumesResponseModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compute mappers mapping already deserialized response models to Dasein objects. Volume hydration of
+ * VirtualMachinesMapper is off, it would call the API.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ComputeMappersBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private QingCloud qingCloud;
+    private QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<VirtualMachine>> virtualMachinesMapper;
+    private QingCloudDriverToCoreMapper<DescribeInstanceStatusResponseModel, List<VirtualMachineStatus>> virtualMachineStatusMapper;
+    private QingCloudDriverToCoreMapper<DescribeVolumesResponseModel, List<Volume>> volumesMapper;
+    private QingCloudDriverToCoreMapper<DescribeSnapshotsResponseModel, List<Snapshot>> snapshotsMapper;
+    private QingCloudDriverToCoreMapper<DescribeImagesResponseModel, List<MachineImage>> imagesMapper;
+    private DescribeInstancesResponseModel instances;
+    private DescribeInstanceStatusResponseModel instanceStatuses;
+    private DescribeVolumesResponseModel volumes;
+    private DescribeSnapshotsResponseModel snapshots;
+    private DescribeImagesResponseModel images;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException, IOException {
+        qingCloud = Fixtures.connect();
+        QingCloudVirtualMachine virtualMachineSupport = new QingCloudVirtualMachine(qingCloud);
+        virtualMachinesMapper = Fixtures.mapper(QingCloudVirtualMachine.class, virtualMachineSupport,
+                "VirtualMachinesMapper", false);
+        virtualMachineStatusMapper = Fixtures.mapper(QingCloudVirtualMachine.class, virtualMachineSupport,
+                "VirtualMachineStatusMapper", (Object) null);
+        volumesMapper = Fixtures.mapper(QingCloudVolume.class, new QingCloudVolume(qingCloud), "VolumesMapper");
+        snapshotsMapper = Fixtures.mapper(QingCloudSnapshot.class, new QingCloudSnapshot(qingCloud), "SnapshotsMapper");
+        imagesMapper = Fixtures.mapper(QingCloudImage.class, new QingCloudImage(qingCloud), "ImagesMapper");
+        instances = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.INSTANCES, count),
+                DescribeInstancesResponseModel.class);
+        instanceStatuses = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.INSTANCES, count),
+                DescribeInstanceStatusResponseModel.class);
+        volumes = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.VOLUMES, count),
+                DescribeVolumesResponseModel.class);
+        snapshots = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.SNAPSHOTS, count),
+                DescribeSnapshotsResponseModel.class);
+        images = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.IMAGES, count),
+                DescribeImagesResponseModel.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public List<VirtualMachine> virtualMachinesMapper() {
+        return virtualMachinesMapper.mapFrom(instances);
+    }
+
+    @Benchmark
+    public List<VirtualMachineStatus> virtualMachineStatusMapper() {
+        return virtualMachineStatusMapper.mapFrom(instanceStatuses);
+    }
+
+    @Benchmark
+    public List<Volume> volumesMapper() {
+        return volumesMapper.mapFrom(volumes);
+    }
+
+    @Benchmark
+    public List<Snapshot> snapshotsMapper() {
+        return snapshotsMapper.mapFrom(snapshots);
+    }
+
+    @Benchmark
+    public List<MachineImage> imagesMapper() {
+        return imagesMapper.mapFrom(images);
+    }
+}
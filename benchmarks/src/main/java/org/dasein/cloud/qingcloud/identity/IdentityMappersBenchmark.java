@@ -0,0 +1,85 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.identity;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.identity.SSHKeypair;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.benchmark.Fixtures;
+import org.dasein.cloud.qingcloud.identity.model.DescribeKeyPairsResponse;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key pair mapping of an already deserialized DescribeKeyPairs response.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IdentityMappersBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private QingCloud qingCloud;
+    private QingCloudDriverToCoreMapper<DescribeKeyPairsResponse, List<SSHKeypair>> sshKeypairsMapper;
+    private DescribeKeyPairsResponse keyPairs;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException, IOException {
+        qingCloud = Fixtures.connect();
+        sshKeypairsMapper = Fixtures.mapper(QingCloudShellKey.class, new QingCloudShellKey(qingCloud),
+                "SSHKeypairsMapper");
+        keyPairs = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.KEY_PAIRS, count),
+                DescribeKeyPairsResponse.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public List<SSHKeypair> sshKeypairsMapper() {
+        return sshKeypairsMapper.mapFrom(keyPairs);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.network;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.network.Firewall;
+import org.dasein.cloud.network.FirewallRule;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.benchmark.Fixtures;
+import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupRulesResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupsResponseModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Security group mappers of the firewall and network firewall support mapping already deserialized response models.
+ * FirewallsMapper fetches the rules of each security group, here they are the mapped rules of a recorded
+ * DescribeSecurityGroupRules response instead of an API call.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class FirewallMappersBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private QingCloud qingCloud;
+    private QingCloudDriverToCoreMapper<DescribeSecurityGroupsResponseModel, List<Firewall>> firewallsMapper;
+    private QingCloudDriverToCoreMapper<DescribeSecurityGroupRulesResponseModel, List<FirewallRule>> firewallRulesMapper;
+    private QingCloudDriverToCoreMapper<DescribeSecurityGroupsResponseModel, List<Firewall>> networkFirewallsMapper;
+    private QingCloudDriverToCoreMapper<DescribeSecurityGroupRulesResponseModel, List<FirewallRule>> networkFirewallRulesMapper;
+    private DescribeSecurityGroupsResponseModel securityGroups;
+    private DescribeSecurityGroupRulesResponseModel securityGroupRules;
+    private List<FirewallRule> groupRules;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException, IOException {
+        qingCloud = Fixtures.connect();
+        QingCloudFirewall firewallSupport = new QingCloudFirewall(qingCloud) {
+            @Override
+            public Iterable<FirewallRule> getRules(String firewallId) {
+                return groupRules;
+            }
+        };
+        QingCloudNetworkFirewall networkFirewallSupport = new QingCloudNetworkFirewall(qingCloud) {
+            @Override
+            public Iterable<FirewallRule> listRules(String firewallId) {
+                return groupRules;
+            }
+        };
+        securityGroups = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.SECURITY_GROUPS, count),
+                DescribeSecurityGroupsResponseModel.class);
+        securityGroupRules = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.SECURITY_GROUP_RULES, count),
+                DescribeSecurityGroupRulesResponseModel.class);
+        firewallsMapper = Fixtures.mapper(QingCloudFirewall.class, firewallSupport, "FirewallsMapper");
+        firewallRulesMapper = Fixtures.mapper(QingCloudFirewall.class, firewallSupport, "FirewallRulesMapper");
+        networkFirewallsMapper = Fixtures.mapper(QingCloudNetworkFirewall.class, networkFirewallSupport,
+                "FirewallsMapper");
+        networkFirewallRulesMapper = Fixtures.mapper(QingCloudNetworkFirewall.class, networkFirewallSupport,
+                "FirewallRulesMapper");
+        groupRules = firewallRulesMapper.mapFrom(Fixtures.objectMapper().readValue(
+                Fixtures.payload(Fixtures.SECURITY_GROUP_RULES, 5), DescribeSecurityGroupRulesResponseModel.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public List<Firewall> firewallsMapper() {
+        return firewallsMapper.mapFrom(securityGroups);
+    }
+
+    @Benchmark
+    public List<FirewallRule> firewallRulesMapper() {
+        return firewallRulesMapper.mapFrom(securityGroupRules);
+    }
+
+    @Benchmark
+    public List<Firewall> networkFirewallsMapper() {
+        return networkFirewallsMapper.mapFrom(securityGroups);
+    }
+
+    @Benchmark
+    public List<FirewallRule> networkFirewallRulesMapper() {
+        return networkFirewallRulesMapper.mapFrom(securityGroupRules);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.network;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ResourceStatus;
+import org.dasein.cloud.network.LoadBalancer;
+import org.dasein.cloud.network.LoadBalancerHealthCheck;
+import org.dasein.cloud.network.SSLCertificate;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.benchmark.Fixtures;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerListenersResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerStatusResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancersResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancersResponseModel.DescribeLoadBalancersResponseItemModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeServerCertificatesResponseModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load balancer mappers mapping already deserialized response models. LoadBalancersMapper is given the listeners of
+ * each load balancer up front, the way a listing shares them between its pages.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LoadBalancerMappersBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private QingCloud qingCloud;
+    private QingCloudDriverToCoreMapper<DescribeLoadBalancerListenersResponseModel, List<?>> loadBalancerListenersMapper;
+    private QingCloudDriverToCoreMapper<DescribeLoadBalancerListenersResponseModel, List<LoadBalancerHealthCheck>> loadBalancerHealthChecksMapper;
+    private QingCloudDriverToCoreMapper<DescribeLoadBalancersResponseModel, List<LoadBalancer>> loadBalancersMapper;
+    private QingCloudDriverToCoreMapper<DescribeLoadBalancerStatusResponseModel, List<ResourceStatus>> loadBalancerStatusMapper;
+    private QingCloudDriverToCoreMapper<DescribeServerCertificatesResponseModel, List<SSLCertificate>> sslCertificatesMapper;
+    private DescribeLoadBalancerListenersResponseModel listeners;
+    private DescribeLoadBalancersResponseModel loadBalancers;
+    private DescribeLoadBalancerStatusResponseModel loadBalancerStatuses;
+    private DescribeServerCertificatesResponseModel serverCertificates;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException, IOException {
+        qingCloud = Fixtures.connect();
+        QingCloudLoadBalancer loadBalancerSupport = new QingCloudLoadBalancer(qingCloud);
+        loadBalancerListenersMapper = Fixtures.mapper(QingCloudLoadBalancer.class, loadBalancerSupport,
+                "LoadBalancerListenersMapper");
+        loadBalancerHealthChecksMapper = Fixtures.mapper(QingCloudLoadBalancer.class, loadBalancerSupport,
+                "LoadBalancerHealthChecksMapper");
+        loadBalancerStatusMapper = Fixtures.mapper(QingCloudLoadBalancer.class, loadBalancerSupport,
+                "LoadBalancerStatusMapper");
+        sslCertificatesMapper = Fixtures.mapper(QingCloudLoadBalancer.class, loadBalancerSupport,
+                "SSLCertificatesMapper");
+        listeners = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.LOAD_BALANCER_LISTENERS, count),
+                DescribeLoadBalancerListenersResponseModel.class);
+        loadBalancers = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.LOAD_BALANCERS, count),
+                DescribeLoadBalancersResponseModel.class);
+        loadBalancerStatuses = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.LOAD_BALANCERS, count),
+                DescribeLoadBalancerStatusResponseModel.class);
+        serverCertificates = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.SERVER_CERTIFICATES, count),
+                DescribeServerCertificatesResponseModel.class);
+
+        DescribeLoadBalancerListenersResponseModel loadBalancerListeners = Fixtures.objectMapper().readValue(
+                Fixtures.payload(Fixtures.LOAD_BALANCER_LISTENERS, 2), DescribeLoadBalancerListenersResponseModel.class);
+        List<?> lbListeners = loadBalancerListenersMapper.mapFrom(loadBalancerListeners);
+        Map<String, List<?>> listenersByLoadBalancer = new HashMap<String, List<?>>();
+        for (DescribeLoadBalancersResponseItemModel item : loadBalancers.getLoadbalancerSet()) {
+            listenersByLoadBalancer.put(item.getLoadbalancerId(), lbListeners);
+        }
+        loadBalancersMapper = Fixtures.mapper(QingCloudLoadBalancer.class, loadBalancerSupport, "LoadBalancersMapper",
+                listenersByLoadBalancer);
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public List<?> loadBalancerListenersMapper() {
+        return loadBalancerListenersMapper.mapFrom(listeners);
+    }
+
+    @Benchmark
+    public List<LoadBalancerHealthCheck> loadBalancerHealthChecksMapper() {
+        return loadBalancerHealthChecksMapper.mapFrom(listeners);
+    }
+
+    @Benchmark
+    public List<LoadBalancer> loadBalancersMapper() {
+        return loadBalancersMapper.mapFrom(loadBalancers);
+    }
+
+    @Benchmark
+    public List<ResourceStatus> loadBalancerStatusMapper() {
+        return loadBalancerStatusMapper.mapFrom(loadBalancerStatuses);
+    }
+
+    @Benchmark
+    public List<SSLCertificate> sslCertificatesMapper() {
+        return sslCertificatesMapper.mapFrom(serverCertificates);
+    }
+}
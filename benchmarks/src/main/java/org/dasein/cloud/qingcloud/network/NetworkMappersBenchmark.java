@@ -0,0 +1,144 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.network;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.network.IPVersion;
+import org.dasein.cloud.network.IpAddress;
+import org.dasein.cloud.network.IpForwardingRule;
+import org.dasein.cloud.network.Subnet;
+import org.dasein.cloud.network.VLAN;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.benchmark.Fixtures;
+import org.dasein.cloud.qingcloud.network.model.DescribeEipsResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeRouterStaticsResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeRouterVxnetsResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeRoutersResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeVxnetsResponseModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VLAN, subnet, IP address and IP forwarding mappers mapping already deserialized response models. The IP pool
+ * RouterStaticsIpForwardingMapper resolves forwarded addresses from is the mapped DescribeEips response instead of
+ * an API call.
+ *
+ * @since 2016.02.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NetworkMappersBenchmark {
+    @Param({"100", "1000"})
+    private int count;
+
+    private QingCloud qingCloud;
+    private QingCloudDriverToCoreMapper<DescribeRoutersResponseModel, List<VLAN>> vlansMapper;
+    private QingCloudDriverToCoreMapper<DescribeVxnetsResponseModel, List<Subnet>> subnetsMapper;
+    private QingCloudDriverToCoreMapper<DescribeRouterVxnetsResponseModel, List<Subnet>> routerSubnetsMapper;
+    private QingCloudDriverToCoreMapper<DescribeEipsResponseModel, List<IpAddress>> ipAddressesMapper;
+    private QingCloudDriverToCoreMapper<DescribeRouterStaticsResponseModel, List<IpForwardingRule>> routerStaticsIpForwardingMapper;
+    private DescribeRoutersResponseModel routers;
+    private DescribeVxnetsResponseModel vxnets;
+    private DescribeRouterVxnetsResponseModel routerVxnets;
+    private DescribeEipsResponseModel eips;
+    private DescribeRouterStaticsResponseModel routerStatics;
+    private List<IpAddress> ipPool;
+
+    @Setup
+    public void setUp() throws CloudException, InternalException, IOException {
+        qingCloud = Fixtures.connect();
+        QingCloudVlan vlanSupport = new QingCloudVlan(qingCloud);
+        QingCloudIpAddress ipAddressSupport = new QingCloudIpAddress(qingCloud) {
+            @Override
+            public Iterable<IpAddress> listIpPool(IPVersion version, boolean unassignedOnly) {
+                return ipPool;
+            }
+        };
+        routers = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.ROUTERS, count),
+                DescribeRoutersResponseModel.class);
+        vxnets = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.VXNETS, count),
+                DescribeVxnetsResponseModel.class);
+        routerVxnets = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.ROUTER_VXNETS, count),
+                DescribeRouterVxnetsResponseModel.class);
+        eips = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.EIPS, count),
+                DescribeEipsResponseModel.class);
+        routerStatics = Fixtures.objectMapper().readValue(Fixtures.payload(Fixtures.ROUTER_STATICS, count),
+                DescribeRouterStaticsResponseModel.class);
+        vlansMapper = Fixtures.mapper(QingCloudVlan.class, vlanSupport, "VlansMapper");
+        subnetsMapper = Fixtures.mapper(QingCloudVlan.class, vlanSupport, "SubnetsMapper");
+        routerSubnetsMapper = Fixtures.mapper(QingCloudVlan.class, vlanSupport, "RouterSubnetsMapper", "rtr-bsdmdmh8");
+        ipAddressesMapper = Fixtures.mapper(QingCloudIpAddress.class, ipAddressSupport, "IpAddressesMapper");
+        ipPool = ipAddressesMapper.mapFrom(eips);
+        routerStaticsIpForwardingMapper = Fixtures.mapper(QingCloudIpAddress.class, ipAddressSupport,
+                "RouterStaticsIpForwardingMapper", ipPool.get(0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        qingCloud.close();
+    }
+
+    @Benchmark
+    public List<VLAN> vlansMapper() {
+        return vlansMapper.mapFrom(routers);
+    }
+
+    @Benchmark
+    public List<Subnet> subnetsMapper() {
+        return subnetsMapper.mapFrom(vxnets);
+    }
+
+    @Benchmark
+    public List<Subnet> routerSubnetsMapper() {
+        return routerSubnetsMapper.mapFrom(routerVxnets);
+    }
+
+    @Benchmark
+    public List<IpAddress> ipAddressesMapper() {
+        return ipAddressesMapper.mapFrom(eips);
+    }
+
+    @Benchmark
+    public List<IpForwardingRule> routerStaticsIpForwardingMapper() {
+        return routerStaticsIpForwardingMapper.mapFrom(routerStatics);
+    }
+}
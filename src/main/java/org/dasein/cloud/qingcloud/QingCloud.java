@@ -23,26 +23,45 @@ package org.dasein.cloud.qingcloud;
 
 import org.apache.log4j.Logger;
 import org.dasein.cloud.AbstractCloud;
+import org.dasein.cloud.Cloud;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.ContextRequirements;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.compute.ComputeServices;
+import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.dc.DataCenterServices;
 import org.dasein.cloud.dc.Region;
 import org.dasein.cloud.identity.IdentityServices;
 import org.dasein.cloud.network.NetworkServices;
 import org.dasein.cloud.qingcloud.compute.QingCloudCompute;
+import org.dasein.cloud.qingcloud.compute.QingCloudPublicImageCatalog;
 import org.dasein.cloud.qingcloud.dc.QingCloudDataCenter;
 import org.dasein.cloud.qingcloud.identity.QingCloudIdentity;
 import org.dasein.cloud.qingcloud.network.QingCloudNetwork;
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudAsyncExecutor;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudHttpConnectionPool;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudJobTracker;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudRateLimiter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudResourceWaiter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudRetryPolicy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.SimpleTimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by Jeffrey Yan on 11/9/2015.
@@ -57,6 +76,37 @@ public class QingCloud extends AbstractCloud {
     static private final String ISO8601_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
 
     static public final String DSN_ACCESS_KEY = "accessKey";
+    static public final String DSN_MAX_CONNECTIONS = "maxConnections";
+    static public final String DSN_MAX_CONNECTIONS_PER_ROUTE = "maxConnectionsPerRoute";
+    static public final String DSN_IDLE_CONNECTION_TIMEOUT = "idleConnectionTimeout";
+    static public final String DSN_MAX_PARALLEL_REQUESTS = "maxParallelRequests";
+    static public final String DSN_ENDPOINT = "endpoint";
+    static public final String DSN_ZONE_ENDPOINTS = "zoneEndpoints";
+    static public final String DSN_PROXY_HOST = "proxyHost";
+    static public final String DSN_PROXY_PORT = "proxyPort";
+    static public final String DSN_MAX_RETRIES = "maxRetries";
+    static public final String DSN_RETRY_BUDGET = "retryBudget";
+    static public final String DSN_READ_REQUESTS_PER_SECOND = "readRequestsPerSecond";
+    static public final String DSN_MUTATE_REQUESTS_PER_SECOND = "mutateRequestsPerSecond";
+    static public final String DSN_ASYNC_IO_THREADS = "asyncIoThreads";
+    static public final String DSN_STREAMING_LISTINGS = "streamingListings";
+    static public final String DSN_TAG_INDEX_MAX_AGE = "tagIndexMaxAge";
+    static public final String DSN_PUBLIC_IMAGE_REFRESH = "publicImageRefresh";
+
+    static public final String DEFAULT_ENDPOINT = "https://api.qingcloud.com/iaas/";
+
+    static public final int DEFAULT_MAX_PARALLEL_REQUESTS = 4;
+
+    private final ConcurrentMap<String, String> providerDataCenterIds = new ConcurrentHashMap<String, String>();
+    private volatile QingCloudHttpConnectionPool connectionPool;
+    private volatile ExecutorService parallelExecutor;
+    private volatile QingCloudAsyncExecutor asyncExecutor;
+    private final Map<Class<?>, QingCloudResourceWaiter<?, ?>> resourceWaiters = new HashMap<Class<?>, QingCloudResourceWaiter<?, ?>>();
+    private volatile QingCloudTagIndex tagIndex;
+    private volatile QingCloudPublicImageCatalog publicImageCatalog;
+    private volatile Map<String, String> zoneEndpoints;
+    private volatile QingCloudRetryPolicy retryPolicy;
+    private volatile QingCloudRateLimiter rateLimiter;
 
     static private @Nonnull String getLastItem(@Nonnull String name) {
         int idx = name.lastIndexOf('.');
@@ -113,8 +163,22 @@ public class QingCloud extends AbstractCloud {
     ContextRequirements getContextRequirements() {
         return new ContextRequirements(
                 new ContextRequirements.Field(DSN_ACCESS_KEY, "QingCloud API access keys", ContextRequirements.FieldType.KEYPAIR, ContextRequirements.Field.ACCESS_KEYS, true),
-                new ContextRequirements.Field("proxyHost", "Proxy host", ContextRequirements.FieldType.TEXT, false),
-                new ContextRequirements.Field("proxyPort", "Proxy port", ContextRequirements.FieldType.TEXT, false));
+                new ContextRequirements.Field(DSN_PROXY_HOST, "Proxy host", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_PROXY_PORT, "Proxy port", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_ENDPOINT, "API endpoint, e.g. https://api.qingcloud.com/iaas/", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_ZONE_ENDPOINTS, "Per zone API endpoints, e.g. pek2=https://host/iaas/,gd1=https://host/iaas/", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_MAX_CONNECTIONS, "Maximum pooled API connections", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_MAX_CONNECTIONS_PER_ROUTE, "Maximum pooled API connections per route", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_IDLE_CONNECTION_TIMEOUT, "Seconds an idle API connection is kept in the pool", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_MAX_PARALLEL_REQUESTS, "Maximum API requests issued in parallel for one call", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_MAX_RETRIES, "Maximum retries of a failed API request", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_RETRY_BUDGET, "Retries available to bursts of failed API requests", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_READ_REQUESTS_PER_SECOND, "Maximum Describe API requests per second of the access key, 0 for no limit", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_MUTATE_REQUESTS_PER_SECOND, "Maximum other API requests per second of the access key, 0 for no limit", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_ASYNC_IO_THREADS, "Threads driving asynchronous API requests", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_STREAMING_LISTINGS, "Parse large listings in constant memory (true/false), pages are then fetched sequentially", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_TAG_INDEX_MAX_AGE, "Seconds the resource tags of a zone are cached before being reloaded", ContextRequirements.FieldType.TEXT, false),
+                new ContextRequirements.Field(DSN_PUBLIC_IMAGE_REFRESH, "Seconds between background refreshes of the public images of a zone", ContextRequirements.FieldType.TEXT, false));
     }
 
     @Override
@@ -161,6 +225,323 @@ public class QingCloud extends AbstractCloud {
         //return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
     }
 
+    /*
+     * The QingCloud Zone ID as reported by DescribeZones for the context region. Each account has one DC in each
+     * region, so it's resolved once per region and kept for the provider lifetime.
+     */
+    public @Nonnull String getProviderDataCenterId() throws CloudException, InternalException {
+        String regionId = getContext().getRegionId();
+        if (regionId == null) {
+            throw new InternalException("No region was set for this request");
+        }
+
+        String dataCenterId = providerDataCenterIds.get(regionId);
+        if (dataCenterId == null) {
+            Iterator<DataCenter> dataCenters = getDataCenterServices().listDataCenters(regionId).iterator();
+            if (!dataCenters.hasNext()) {
+                throw new CloudException("No data center found for region " + regionId);
+            }
+            dataCenterId = dataCenters.next().getProviderDataCenterId();
+            providerDataCenterIds.putIfAbsent(regionId, dataCenterId);
+        }
+        return dataCenterId;
+    }
+
+    /*
+     * All requests of this provider share one connection pool, so keep-alive connections to the API are reused
+     * across calls. The pool is created on first use and shut down when the provider is closed.
+     */
+    public @Nonnull QingCloudHttpConnectionPool getConnectionPool() {
+        QingCloudHttpConnectionPool pool = connectionPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = connectionPool;
+                if (pool == null) {
+                    pool = new QingCloudHttpConnectionPool(
+                            getIntConfigurationValue(DSN_MAX_CONNECTIONS, QingCloudHttpConnectionPool.DEFAULT_MAX_CONNECTIONS),
+                            getIntConfigurationValue(DSN_MAX_CONNECTIONS_PER_ROUTE, QingCloudHttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                            getIntConfigurationValue(DSN_IDLE_CONNECTION_TIMEOUT, QingCloudHttpConnectionPool.DEFAULT_IDLE_TIMEOUT_SECONDS));
+                    connectionPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /*
+     * Bounded executor used to issue independent API requests of one call (e.g. the pages of a listing) in parallel.
+     * Tasks submitted here must not wait on other tasks of this executor.
+     */
+    public @Nonnull ExecutorService getParallelExecutor() {
+        ExecutorService executor = parallelExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = parallelExecutor;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(
+                            getIntConfigurationValue(DSN_MAX_PARALLEL_REQUESTS, DEFAULT_MAX_PARALLEL_REQUESTS),
+                            new ThreadFactory() {
+                                private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                                @Override
+                                public Thread newThread(Runnable runnable) {
+                                    Thread thread = new Thread(runnable,
+                                            "QingCloud parallel request " + threadNumber.getAndIncrement());
+                                    thread.setDaemon(true);
+                                    return thread;
+                                }
+                            });
+                    parallelExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /*
+     * Retries of all requests of this provider are paid from the budget of this policy, so it is kept for the
+     * provider lifetime.
+     */
+    public @Nonnull QingCloudRetryPolicy getRetryPolicy() {
+        QingCloudRetryPolicy policy = retryPolicy;
+        if (policy == null) {
+            synchronized (this) {
+                policy = retryPolicy;
+                if (policy == null) {
+                    policy = new QingCloudRetryPolicy(
+                            getIntConfigurationValue(DSN_MAX_RETRIES, QingCloudRetryPolicy.DEFAULT_MAX_RETRIES),
+                            getIntConfigurationValue(DSN_RETRY_BUDGET, QingCloudRetryPolicy.DEFAULT_RETRY_BUDGET));
+                    retryPolicy = policy;
+                }
+            }
+        }
+        return policy;
+    }
+
+    /*
+     * The API limits requests per account, so the limiter is shared by all providers of the same access key.
+     */
+    public @Nonnull QingCloudRateLimiter getRateLimiter() throws InternalException {
+        QingCloudRateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            ProviderContext context = getContext();
+            if (context == null) {
+                throw new InternalException("No context was set for this request");
+            }
+            byte[][] accessKey = (byte[][]) context.getConfigurationValue(DSN_ACCESS_KEY);
+            limiter = QingCloudRateLimiter.getInstance(accessKey[0],
+                    getDoubleConfigurationValue(DSN_READ_REQUESTS_PER_SECOND, QingCloudRateLimiter.DEFAULT_READ_REQUESTS_PER_SECOND),
+                    getDoubleConfigurationValue(DSN_MUTATE_REQUESTS_PER_SECOND, QingCloudRateLimiter.DEFAULT_MUTATE_REQUESTS_PER_SECOND));
+            rateLimiter = limiter;
+        }
+        return limiter;
+    }
+
+    /*
+     * API endpoint for requests to the given zone: the zone's entry of zoneEndpoints if any, otherwise the endpoint
+     * configuration value, the endpoint the cloud was registered with, and finally the public API.
+     */
+    public @Nonnull String getEndpoint(@Nullable String zoneId) {
+        if (zoneId != null) {
+            String zoneEndpoint = getZoneEndpoints().get(zoneId);
+            if (zoneEndpoint != null) {
+                return zoneEndpoint;
+            }
+        }
+
+        String endpoint = getStringConfigurationValue(DSN_ENDPOINT);
+        if (endpoint != null) {
+            return endpoint;
+        }
+
+        ProviderContext context = getContext();
+        Cloud cloud = ( context == null ? null : context.getCloud() );
+        endpoint = ( cloud == null ? null : cloud.getEndpoint() );
+        if (endpoint != null && !endpoint.trim().isEmpty()) {
+            return endpoint.trim();
+        }
+        return DEFAULT_ENDPOINT;
+    }
+
+    private @Nonnull Map<String, String> getZoneEndpoints() {
+        Map<String, String> endpoints = zoneEndpoints;
+        if (endpoints == null) {
+            endpoints = new HashMap<String, String>();
+            String value = getStringConfigurationValue(DSN_ZONE_ENDPOINTS);
+            if (value != null) {
+                for (String entry : value.split(",")) {
+                    int index = entry.indexOf('=');
+                    String zoneId = ( index < 0 ? "" : entry.substring(0, index).trim() );
+                    String endpoint = ( index < 0 ? "" : entry.substring(index + 1).trim() );
+                    if (zoneId.isEmpty() || endpoint.isEmpty()) {
+                        stdLogger.warn("Invalid entry '" + entry + "' in " + DSN_ZONE_ENDPOINTS + ", ignored");
+                        continue;
+                    }
+                    endpoints.put(zoneId, endpoint);
+                }
+            }
+            zoneEndpoints = endpoints;
+        }
+        return endpoints;
+    }
+
+    public boolean getBooleanConfigurationValue(@Nonnull String name, boolean defaultValue) {
+        String value = getStringConfigurationValue(name);
+        return ( value == null ? defaultValue : Boolean.parseBoolean(value) );
+    }
+
+    public double getDoubleConfigurationValue(@Nonnull String name, double defaultValue) {
+        String value = getStringConfigurationValue(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException numberFormatException) {
+            stdLogger.warn("Invalid value '" + value + "' for " + name + ", using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public @Nullable String getStringConfigurationValue(@Nonnull String name) {
+        ProviderContext context = getContext();
+        Object value = ( context == null ? null : context.getConfigurationValue(name) );
+        if (value == null) {
+            return null;
+        }
+        String string = value.toString().trim();
+        return ( string.isEmpty() ? null : string );
+    }
+
+    /*
+     * Non-blocking client for the asynchronous variants of the service operations, created on first use and shut
+     * down when the provider is closed.
+     */
+    public @Nonnull QingCloudAsyncExecutor getAsyncExecutor() throws InternalException {
+        QingCloudAsyncExecutor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = new QingCloudAsyncExecutor(this,
+                            getIntConfigurationValue(DSN_ASYNC_IO_THREADS, QingCloudAsyncExecutor.DEFAULT_IO_THREADS),
+                            getIntConfigurationValue(DSN_MAX_CONNECTIONS, QingCloudHttpConnectionPool.DEFAULT_MAX_CONNECTIONS),
+                            getIntConfigurationValue(DSN_MAX_CONNECTIONS_PER_ROUTE, QingCloudHttpConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                            getIntConfigurationValue(DSN_IDLE_CONNECTION_TIMEOUT, QingCloudHttpConnectionPool.DEFAULT_IDLE_TIMEOUT_SECONDS));
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /*
+     * Tags are shared by all resources of a zone, the index is kept for the provider lifetime so each zone is
+     * downloaded once instead of once per tagged resource.
+     */
+    public @Nonnull QingCloudTagIndex getTagIndex() {
+        QingCloudTagIndex index = tagIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = tagIndex;
+                if (index == null) {
+                    index = new QingCloudTagIndex(this);
+                    tagIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    public @Nonnull QingCloudPublicImageCatalog getPublicImageCatalog() {
+        QingCloudPublicImageCatalog catalog = publicImageCatalog;
+        if (catalog == null) {
+            synchronized (this) {
+                catalog = publicImageCatalog;
+                if (catalog == null) {
+                    catalog = new QingCloudPublicImageCatalog(this);
+                    publicImageCatalog = catalog;
+                }
+            }
+        }
+        return catalog;
+    }
+
+    public @Nonnull QingCloudJobTracker getJobTracker() throws InternalException {
+        return getResourceWaiter(QingCloudJobTracker.class);
+    }
+
+    /*
+     * Waiters poll on behalf of all callers of this provider, so one of each type is kept for the provider lifetime.
+     */
+    public @Nonnull <W extends QingCloudResourceWaiter<?, ?>> W getResourceWaiter(@Nonnull Class<W> waiterType) throws InternalException {
+        synchronized (resourceWaiters) {
+            QingCloudResourceWaiter<?, ?> waiter = resourceWaiters.get(waiterType);
+            if (waiter == null) {
+                try {
+                    waiter = waiterType.getConstructor(QingCloud.class).newInstance(this);
+                } catch (Exception exception) {
+                    throw new InternalException("Not able to create waiter " + waiterType.getName(), exception);
+                }
+                resourceWaiters.put(waiterType, waiter);
+            }
+            return waiterType.cast(waiter);
+        }
+    }
+
+    public int getIntConfigurationValue(@Nonnull String name, int defaultValue) {
+        ProviderContext context = getContext();
+        Object value = ( context == null ? null : context.getConfigurationValue(name) );
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException numberFormatException) {
+            stdLogger.warn("Invalid value '" + value + "' for " + name + ", using default " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            synchronized (this) {
+                if (connectionPool != null) {
+                    connectionPool.shutdown();
+                    connectionPool = null;
+                }
+                if (parallelExecutor != null) {
+                    parallelExecutor.shutdownNow();
+                    parallelExecutor = null;
+                }
+                synchronized (resourceWaiters) {
+                    for (QingCloudResourceWaiter<?, ?> waiter : resourceWaiters.values()) {
+                        waiter.shutdown();
+                    }
+                    resourceWaiters.clear();
+                }
+                if (asyncExecutor != null) {
+                    asyncExecutor.shutdown();
+                    asyncExecutor = null;
+                }
+                if (tagIndex != null) {
+                    tagIndex.shutdown();
+                    tagIndex = null;
+                }
+                if (publicImageCatalog != null) {
+                    publicImageCatalog.shutdown();
+                    publicImageCatalog = null;
+                }
+            }
+        } finally {
+            super.close();
+        }
+    }
+
     @Nonnull
     @Override
     public DataCenterServices getDataCenterServices() {
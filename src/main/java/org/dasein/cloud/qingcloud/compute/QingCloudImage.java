@@ -22,6 +22,8 @@
 package org.dasein.cloud.qingcloud.compute;
 
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
 import org.dasein.cloud.AsynchronousTask;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
@@ -44,20 +46,31 @@ import org.dasein.cloud.qingcloud.QingCloud;
 import org.dasein.cloud.qingcloud.compute.model.CaptureInstanceResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.DescribeImageUsersResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.DescribeImagesResponseModel;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel.Job;
 import org.dasein.cloud.qingcloud.model.ResponseModel;
 import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
+import org.dasein.cloud.qingcloud.network.QingCloudTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.TagResourceType;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudResourceWaiter;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.requester.fluent.Requester;
-import org.dasein.util.CalendarWrapper;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Jeffrey Yan on 12/9/2015.
@@ -66,6 +79,8 @@ import java.util.List;
  * @since 2016.02.1
  */
 public class QingCloudImage extends AbstractImageSupport<QingCloud> implements MachineImageSupport {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudImage.class);
+    static public final long REMOVE_TIMEOUT_MINUTES = 30;
 
     protected QingCloudImage(QingCloud provider) {
         super(provider);
@@ -111,9 +126,20 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
 
             CaptureInstanceResponseModel responseModel = requester.execute();
 
+            Tag[] tags = QingCloudTags.toTags(options.getMetaData());
+            if (tags.length > 0) {
+                try {
+                    updateTags(responseModel.getImageId(), tags);
+                } catch (CloudException e) {
+                    logger.warn("Captured image " + responseModel.getImageId() + " but failed to tag it", e);
+                } catch (InternalException e) {
+                    logger.warn("Captured image " + responseModel.getImageId() + " but failed to tag it", e);
+                }
+            }
+
             MachineImage image = getImage(responseModel.getImageId());
 
-            //TODO, handle options.getReboot(), and tags
+            //TODO, handle options.getReboot()
             if( task != null ) {
                 task.completeWithResult(image);
             }
@@ -128,36 +154,20 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
         APITrace.begin(getProvider(), "Image.remove");
         try {
             if (checkState) {
-                long timeout = System.currentTimeMillis() + (CalendarWrapper.MINUTE * 30L);
-
-                while (timeout > System.currentTimeMillis()) {
-                    try {
-                        MachineImage img = getMachineImage(providerImageId);
-
-                        if (img == null || MachineImageState.DELETED.equals(img.getCurrentState())) {
-                            return;
-                        }
-                        if (MachineImageState.ACTIVE.equals(img.getCurrentState())) {
-                            break;
-                        }
-                    } catch (Throwable ignore) {
-                        // ignore
-                    }
-                    try {
-                        Thread.sleep(15000L);
-                    } catch (InterruptedException ignore) {
-                    }
+                Future<MachineImageState> state = getProvider().getResourceWaiter(ImageStateWaiter.class).waitFor(
+                        getProvider().getZoneId(), providerImageId, new QingCloudResourceWaiter.Condition<MachineImageState>() {
+                            @Override
+                            public boolean isSatisfied(MachineImageState state) {
+                                return MachineImageState.ACTIVE.equals(state) || MachineImageState.DELETED.equals(state);
+                            }
+                        }, REMOVE_TIMEOUT_MINUTES, TimeUnit.MINUTES, null);
+                if (MachineImageState.DELETED.equals(QingCloudResourceWaiter.await(state, REMOVE_TIMEOUT_MINUTES + 1, TimeUnit.MINUTES))) {
+                    return;
                 }
             }
 
-            HttpUriRequest request = QingCloudRequestBuilder.post(getProvider())
-                    .action("DeleteImages")
-                    .parameter("images.1", providerImageId)
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
-
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
-                    getProvider(), request, SimpleJobResponseModel.class);
+                    getProvider(), newDeleteImageRequest(providerImageId), SimpleJobResponseModel.class);
 
             requester.execute();
         } finally {
@@ -165,6 +175,29 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
         }
     }
 
+    /**
+     * Delete the image and track the DeleteImages job, the image isn't checked to be active first.
+     *
+     * @return future completed when the image has been deleted
+     */
+    public @Nonnull Future<Job> removeAsync(@Nonnull String providerImageId, @Nullable FutureCallback<Job> callback) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Image.removeAsync");
+        try {
+            return getProvider().getJobTracker().submit(getProvider().getZoneId(),
+                    newDeleteImageRequest(providerImageId), callback);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    private HttpUriRequest newDeleteImageRequest(String providerImageId) throws CloudException, InternalException {
+        return QingCloudRequestBuilder.post(getProvider())
+                .action("DeleteImages")
+                .parameter("images.1", providerImageId)
+                .parameter("zone", getProvider().getZoneId())
+                .build();
+    }
+
     @Nullable
     @Override
     public MachineImage getImage(@Nonnull String providerImageId) throws CloudException, InternalException {
@@ -195,55 +228,112 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
     public Iterable<MachineImage> listImages(@Nullable ImageFilterOptions options) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "Image.listImages");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
-                    .action("DescribeImages")
-                    .parameter("visibility", "private")
-                    .parameter("limit", "999")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
-
-            Requester<List<MachineImage>> requester = new QingCloudRequester<DescribeImagesResponseModel, List<MachineImage>>(
-                    getProvider(), request, new ImagesMapper(), DescribeImagesResponseModel.class);
-
-            List<MachineImage> result = new ArrayList<MachineImage>();
-
-            for (MachineImage machineImage : requester.execute()) {
-                if (options.matches(machineImage)) {
-                    result.add(machineImage);
-                }
-            }
-
-            return result;
+            return listImages("private", options);
         } finally {
             APITrace.end();
         }
     }
 
+    /**
+     * Public images are searched in the {@link QingCloudPublicImageCatalog} of the zone, which is downloaded once and
+     * refreshed in background.
+     */
     @Override
     public @Nonnull Iterable<MachineImage> searchPublicImages(@Nonnull ImageFilterOptions options) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "Image.searchPublicImages");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
-                    .action("DescribeImages")
-                    .parameter("visibility", "public")
-                    .parameter("limit", "999")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
+            return getProvider().getPublicImageCatalog().get(getProvider().getZoneId()).search(options);
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            Requester<List<MachineImage>> requester = new QingCloudRequester<DescribeImagesResponseModel, List<MachineImage>>(
-                    getProvider(), request, new ImagesMapper(), DescribeImagesResponseModel.class);
+    /**
+     * Download all public images of the zone, for the {@link QingCloudPublicImageCatalog}.
+     */
+    @Nonnull List<MachineImage> listPublicImages(@Nonnull String zoneId) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Image.listPublicImages");
+        try {
+            return newImagesPaginator(zoneId, "public", new QingCloudFilter(), null).withParallelFetch(true).list();
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            List<MachineImage> result = new ArrayList<MachineImage>();
+    private Iterable<MachineImage> listImages(final String visibility, final ImageFilterOptions options)
+            throws CloudException, InternalException {
+        final String zoneId = getProvider().getZoneId();
+        final QingCloudFilter filter = newImageFilter(zoneId, options);
+        if (filter.isMatchingNothing()) {
+            return Collections.emptyList();
+        }
+        return newImagesPaginator(zoneId, visibility, filter, options).withParallelFetch(true).iterate();
+    }
 
-            for (MachineImage machineImage : requester.execute()) {
-                if (options.matches(machineImage)) {
-                    result.add(machineImage);
-                }
+    private QingCloudPaginator<DescribeImagesResponseModel, MachineImage> newImagesPaginator(final String zoneId,
+            final String visibility, final QingCloudFilter filter, @Nullable final ImageFilterOptions options) {
+        return new QingCloudPaginator<DescribeImagesResponseModel, MachineImage>(getProvider(),
+                DescribeImagesResponseModel.class) {
+            @Override
+            protected QingCloudRequestBuilder newRequestBuilder() {
+                return filter.applyTo(QingCloudRequestBuilder.get(getProvider())
+                        .action("DescribeImages")
+                        .parameter("visibility", visibility)
+                        .parameter("zone", zoneId));
             }
 
-            return result;
-        } finally {
-            APITrace.end();
+            @Override
+            protected QingCloudDriverToCoreMapper<DescribeImagesResponseModel, List<MachineImage>> newMapper() {
+                return new QingCloudDriverToCoreMapper<DescribeImagesResponseModel, List<MachineImage>>() {
+                    @Override
+                    protected List<MachineImage> doMapFrom(DescribeImagesResponseModel responseModel) {
+                        List<MachineImage> result = new ArrayList<MachineImage>();
+                        for (MachineImage machineImage : new ImagesMapper().mapFrom(responseModel)) {
+                            if (options == null || options.matches(machineImage)) {
+                                result.add(machineImage);
+                            }
+                        }
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    /*
+     * 64 bit architecture, linux families and tags are pushed to DescribeImages. Other criteria, and all of them when
+     * any may match, are only matched on the returned images. That includes the regex, Dasein also matches it against
+     * the description, which the search word of QingCloud doesn't search.
+     */
+    QingCloudFilter newImageFilter(String zoneId, ImageFilterOptions options) throws CloudException, InternalException {
+        QingCloudFilter filter = new QingCloudFilter();
+        if (options == null || options.isMatchesAny()) {
+            return filter;
+        }
+        if (Architecture.I64.equals(options.getArchitecture())) {
+            filter.withParameter("processor_type", "64bit");
+        }
+        if (options.getPlatform() != null) {
+            filter.withParameter("os_family", mapOsFamily(options.getPlatform()));
+        }
+        if (options.getTags() != null && !options.getTags().isEmpty()) {
+            filter.withTags(getProvider().getTagIndex(), zoneId, options.getTags());
+        }
+        return filter;
+    }
+
+    static private String mapOsFamily(Platform platform) {
+        switch (platform) {
+            case CENT_OS:
+                return "centos";
+            case UBUNTU:
+                return "ubuntu";
+            case DEBIAN:
+                return "debian";
+            case FEDORA_CORE:
+                return "fedora";
+            default:
+                return null;
         }
     }
 
@@ -347,12 +437,103 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
 
     @Override
     public void updateTags(@Nonnull String imageId, @Nonnull Tag... tags) throws CloudException, InternalException {
-        //TODO
+        updateTags(new String[] { imageId }, tags);
+    }
+
+    @Override
+    public void updateTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Image.updateTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).setResourcesTags(TagResourceType.IMAGE, imageIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
     }
 
     @Override
-    public void removeTags(@Nonnull String imageId, @Nonnull Tag ... tags) throws CloudException, InternalException {
-        //TODO
+    public void removeTags(@Nonnull String imageId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        removeTags(new String[] { imageId }, tags);
+    }
+
+    @Override
+    public void removeTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Image.removeTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).removeResourcesTags(TagResourceType.IMAGE, imageIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void setTags(@Nonnull String imageId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        setTags(new String[] { imageId }, tags);
+    }
+
+    @Override
+    public void setTags(@Nonnull String[] imageIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Image.setTags");
+        try {
+            new QingCloudTags(getProvider()).replaceResourcesTags(TagResourceType.IMAGE, imageIds, tags);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    static private MachineImageState mapImageState(String state, String transitionState) {
+        if (transitionState != null && !transitionState.equals("")) {
+            return MachineImageState.PENDING;
+        }
+
+        if ("pending".equals(state)) {
+            return MachineImageState.PENDING;
+        } else if ("available".equals(state)) {
+            return MachineImageState.ACTIVE;
+        } else if ("deprecated".equals(state) || "suspended".equals(state)) {
+            return MachineImageState.ERROR;
+        } else if ("deleted".equals(state) || "ceased".equals(state)) {
+            return MachineImageState.DELETED;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Polls DescribeImages for the images being waited on, images no longer returned are DELETED.
+     */
+    static public class ImageStateWaiter extends QingCloudResourceWaiter<DescribeImagesResponseModel, MachineImageState> {
+        public ImageStateWaiter(QingCloud qingCloud) {
+            super(qingCloud, DescribeImagesResponseModel.class);
+        }
+
+        @Override
+        protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> imageIds) {
+            QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud).action("DescribeImages");
+            for (int i = 0; i < imageIds.size(); i++) {
+                requestBuilder.parameter("images." + (i + 1), imageIds.get(i));
+            }
+            return requestBuilder.parameter("verbose", "0");
+        }
+
+        @Override
+        protected Map<String, MachineImageState> mapStates(DescribeImagesResponseModel responseModel) {
+            Map<String, MachineImageState> states = new HashMap<String, MachineImageState>();
+            if (responseModel.getImages() != null) {
+                for (DescribeImagesResponseModel.Image image : responseModel.getImages()) {
+                    states.put(image.getImageId(), mapImageState(image.getStatus(), image.getTransitionStatus()));
+                }
+            }
+            return states;
+        }
+
+        @Override
+        protected MachineImageState getAbsentState() {
+            return MachineImageState.DELETED;
+        }
     }
 
     private class ImagesMapper extends QingCloudDriverToCoreMapper<DescribeImagesResponseModel, List<MachineImage>> {
@@ -380,7 +561,9 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
                     machineImage.withStorageFormat(MachineImageFormat.VHD);
                     machineImage.withType(MachineImageType.VOLUME);
                     machineImage.withVisibleScope(VisibleScope.ACCOUNT_DATACENTER);
-                    //TODO, set tags
+                    for (Tag tag : TagModel.toTags(imageModel.getTags())) {
+                        machineImage.setTag(tag.getKey(), tag.getValue());
+                    }
 
                     images.add(machineImage);
                 }
@@ -406,23 +589,5 @@ public class QingCloudImage extends AbstractImageSupport<QingCloud> implements M
                 return owner;
             }
         }
-
-        private MachineImageState mapImageState(String state, String transitionState) {
-            if (transitionState != null && !transitionState.equals("")) {
-                return MachineImageState.PENDING;
-            }
-
-            if ("pending".equals(state)) {
-                return MachineImageState.PENDING;
-            } else if ("available".equals(state)) {
-                return MachineImageState.ACTIVE;
-            } else if ("deprecated".equals(state) || "suspended".equals(state)) {
-                return MachineImageState.ERROR;
-            } else if ("deleted".equals(state) || "ceased".equals(state)) {
-                return MachineImageState.DELETED;
-            } else {
-                return null;
-            }
-        }
     }
 }
@@ -0,0 +1,332 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.compute.Architecture;
+import org.dasein.cloud.compute.ImageFilterOptions;
+import org.dasein.cloud.compute.MachineImage;
+import org.dasein.cloud.compute.Platform;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.util.uom.storage.Gigabyte;
+import org.dasein.util.uom.storage.Storage;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public images of each zone, kept in memory with indexes by platform, architecture and name. The public images
+ * change rarely, so a zone is downloaded on first use only. Once it is older than the refresh interval, searches are
+ * still served from it while a fresh copy is downloaded on a refresher thread of the catalog. The refresher is not
+ * one of the provider's parallel executor threads, so it may wait on the pages it fetches there.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudPublicImageCatalog {
+    static public final int DEFAULT_REFRESH_SECONDS = 3600;
+
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudPublicImageCatalog.class);
+    static private final String REGEX_META_CHARACTERS = "\\[](){}.*+?^$|";
+
+    private QingCloud qingCloud;
+    private final ConcurrentMap<String, ZoneImages> zoneImages = new ConcurrentHashMap<String, ZoneImages>();
+    private final ConcurrentMap<String, Object> zoneLocks = new ConcurrentHashMap<String, Object>();
+    private final ConcurrentMap<String, Boolean> refreshingZones = new ConcurrentHashMap<String, Boolean>();
+    private ExecutorService refresher;
+    private boolean shutdown;
+
+    public QingCloudPublicImageCatalog(QingCloud qingCloud) {
+        this.qingCloud = qingCloud;
+    }
+
+    /**
+     * @return public images of the zone, downloaded only if the zone was never loaded
+     */
+    public @Nonnull ZoneImages get(@Nonnull String zoneId) throws CloudException, InternalException {
+        ZoneImages images = zoneImages.get(zoneId);
+        if (images == null) {
+            //zones load independently, only callers of the same zone wait for its download
+            synchronized (getZoneLock(zoneId)) {
+                images = zoneImages.get(zoneId);
+                if (images == null) {
+                    images = load(zoneId);
+                    zoneImages.put(zoneId, images);
+                }
+            }
+            return images;
+        }
+
+        long refreshMillis = TimeUnit.SECONDS.toMillis(
+                qingCloud.getIntConfigurationValue(QingCloud.DSN_PUBLIC_IMAGE_REFRESH, DEFAULT_REFRESH_SECONDS));
+        if (System.currentTimeMillis() - images.getLoadedAt() > refreshMillis) {
+            refreshInBackground(zoneId);
+        }
+        return images;
+    }
+
+    public void invalidate(@Nonnull String zoneId) {
+        zoneImages.remove(zoneId);
+    }
+
+    private Object getZoneLock(String zoneId) {
+        Object lock = zoneLocks.get(zoneId);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = zoneLocks.putIfAbsent(zoneId, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * Stop the refresher, refreshes still running are interrupted. Stale zones are served without refresh afterwards.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private synchronized ExecutorService getRefresher() {
+        if (shutdown) {
+            throw new RejectedExecutionException("Public image catalog is shut down");
+        }
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "QingCloud public image refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return refresher;
+    }
+
+    private void refreshInBackground(final String zoneId) {
+        if (refreshingZones.putIfAbsent(zoneId, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            getRefresher().submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        zoneImages.put(zoneId, load(zoneId));
+                    } catch (Exception exception) {
+                        logger.warn("Failed to refresh public images of " + zoneId + ": " + exception.getMessage());
+                    } finally {
+                        refreshingZones.remove(zoneId);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException rejectedExecutionException) {
+            refreshingZones.remove(zoneId);
+        }
+    }
+
+    private ZoneImages load(String zoneId) throws CloudException, InternalException {
+        return new ZoneImages(new QingCloudImage(qingCloud).listPublicImages(zoneId));
+    }
+
+    /**
+     * @return the literal every text matched by the regex starts with, like web from ^web-[0-9]+, null if none
+     */
+    static public @Nullable String toPrefix(@Nullable String regex) {
+        if (regex == null || !regex.startsWith("^") || regex.indexOf('|') >= 0) {
+            return null;
+        }
+        int end = 1;
+        while (end < regex.length() && REGEX_META_CHARACTERS.indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < regex.length() && "*?{".indexOf(regex.charAt(end)) >= 0) {
+            end--; //the last literal character is optional
+        }
+        return ( end > 1 ? regex.substring(1, end) : null );
+    }
+
+    /**
+     * Immutable snapshot of the public images of a zone. The indexed images are shared by all searches, so searches
+     * return copies callers are free to change.
+     */
+    static public class ZoneImages {
+        private final long loadedAt;
+        private final List<MachineImage> images;
+        private final Map<Platform, List<MachineImage>> imagesByPlatform = new HashMap<Platform, List<MachineImage>>();
+        private final Map<Architecture, List<MachineImage>> imagesByArchitecture = new HashMap<Architecture, List<MachineImage>>();
+        private final TreeMap<String, List<MachineImage>> imagesByText = new TreeMap<String, List<MachineImage>>();
+
+        ZoneImages(List<MachineImage> images) {
+            this.loadedAt = System.currentTimeMillis();
+            this.images = Collections.unmodifiableList(images);
+            for (MachineImage image : images) {
+                add(imagesByPlatform, image.getPlatform(), image);
+                add(imagesByArchitecture, image.getArchitecture(), image);
+                //Dasein matches the regex against the name, the description and the id
+                Set<String> texts = new LinkedHashSet<String>();
+                texts.add(image.getName());
+                texts.add(image.getDescription());
+                texts.add(image.getProviderMachineImageId());
+                for (String text : texts) {
+                    add(imagesByText, text, image);
+                }
+            }
+        }
+
+        static private <K> void add(Map<K, List<MachineImage>> index, K key, MachineImage image) {
+            if (key == null) {
+                return;
+            }
+            List<MachineImage> images = index.get(key);
+            if (images == null) {
+                images = new ArrayList<MachineImage>();
+                index.put(key, images);
+            }
+            images.add(image);
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+
+        @Nonnull List<MachineImage> getImages() {
+            return images;
+        }
+
+        @Nonnull List<MachineImage> getImages(@Nonnull Platform platform) {
+            return unmodifiable(imagesByPlatform.get(platform));
+        }
+
+        @Nonnull List<MachineImage> getImages(@Nonnull Architecture architecture) {
+            return unmodifiable(imagesByArchitecture.get(architecture));
+        }
+
+        /**
+         * @return images whose name, description or id starts with the prefix
+         */
+        @Nonnull List<MachineImage> getImagesByPrefix(@Nonnull String prefix) {
+            List<MachineImage> result = new ArrayList<MachineImage>();
+            Set<MachineImage> added = Collections.newSetFromMap(new IdentityHashMap<MachineImage, Boolean>());
+            for (List<MachineImage> images : imagesByText.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                for (MachineImage image : images) {
+                    if (added.add(image)) {
+                        result.add(image);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Match the options on the smallest index the options select from, all images when no index applies.
+         */
+        public @Nonnull List<MachineImage> search(@Nullable ImageFilterOptions options) {
+            return copy(select(options), options);
+        }
+
+        /**
+         * @return the smallest index the options select from, all images when no index applies
+         */
+        @Nonnull Collection<MachineImage> select(@Nullable ImageFilterOptions options) {
+            Collection<MachineImage> candidates = images;
+            if (options != null && !options.isMatchesAny()) {
+                if (options.getArchitecture() != null) {
+                    candidates = smaller(candidates, getImages(options.getArchitecture()));
+                }
+                //UNIX and UNKNOWN match images of several platforms
+                Platform platform = options.getPlatform();
+                if (platform != null && !Platform.UNIX.equals(platform) && !Platform.UNKNOWN.equals(platform)) {
+                    candidates = smaller(candidates, getImages(platform));
+                }
+                String prefix = toPrefix(options.getRegex());
+                if (prefix != null) {
+                    candidates = smaller(candidates, getImagesByPrefix(prefix));
+                }
+            }
+            return candidates;
+        }
+
+        static private List<MachineImage> copy(Collection<MachineImage> candidates, ImageFilterOptions options) {
+            List<MachineImage> result = new ArrayList<MachineImage>();
+            for (MachineImage image : candidates) {
+                if (options == null || options.matches(image)) {
+                    result.add(copy(image));
+                }
+            }
+            return result;
+        }
+
+        static private MachineImage copy(MachineImage image) {
+            MachineImage copy = MachineImage.getInstance(image.getProviderOwnerId(), image.getProviderRegionId(),
+                    image.getProviderMachineImageId(), image.getImageClass(), image.getCurrentState(), image.getName(),
+                    image.getDescription(), image.getArchitecture(), image.getPlatform());
+            if (image.getProviderDataCenterId() != null) {
+                copy.constrainedTo(image.getProviderDataCenterId());
+            }
+            copy.createdAt(image.getCreationTimestamp());
+            Storage<Gigabyte> minimumDiskSize = image.getMinimumDiskSizeGb();
+            if (minimumDiskSize != null) {
+                copy.setMinimumDiskSizeGb(minimumDiskSize.getQuantity().longValue());
+            }
+            copy.withStorageFormat(image.getStorageFormat());
+            copy.withType(image.getType());
+            copy.withVisibleScope(image.getVisibleScope());
+            for (Map.Entry<String, String> tag : image.getTags().entrySet()) {
+                copy.setTag(tag.getKey(), tag.getValue());
+            }
+            return copy;
+        }
+
+        static private Collection<MachineImage> smaller(Collection<MachineImage> left, Collection<MachineImage> right) {
+            return ( right.size() < left.size() ? right : left );
+        }
+
+        static private List<MachineImage> unmodifiable(List<MachineImage> images) {
+            return ( images == null ? Collections.<MachineImage>emptyList() : Collections.unmodifiableList(images) );
+        }
+    }
+}
@@ -22,6 +22,8 @@
 package org.dasein.cloud.qingcloud.compute;
 
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.Tag;
@@ -36,9 +38,16 @@ import org.dasein.cloud.qingcloud.QingCloud;
 import org.dasein.cloud.qingcloud.compute.model.CreateSnapshotsResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.DescribeSnapshotsResponseModel;
 import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
+import org.dasein.cloud.qingcloud.network.QingCloudTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.TagResourceType;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudBatchRequester;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudResourceWaiter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudStreamingMapper;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.requester.fluent.Requester;
 import org.dasein.util.uom.storage.Megabyte;
@@ -47,7 +56,12 @@ import org.dasein.util.uom.storage.Storage;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Jeffrey Yan on 12/11/2015.
@@ -56,6 +70,8 @@ import java.util.List;
  * @since 2016.02.1
  */
 public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implements SnapshotSupport {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudSnapshot.class);
+    static public final int MAX_SNAPSHOTS_PER_REQUEST = 100;
 
     protected QingCloudSnapshot(QingCloud provider) {
         super(provider);
@@ -86,8 +102,19 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
 
             Requester<CreateSnapshotsResponseModel> requester = new QingCloudRequester<CreateSnapshotsResponseModel, CreateSnapshotsResponseModel>(
                     getProvider(), request, CreateSnapshotsResponseModel.class);
-            //TODO, handle tags
-            return requester.execute().getSnapshots().get(0);
+            String snapshotId = requester.execute().getSnapshots().get(0);
+
+            Tag[] tags = QingCloudTags.toTags(options.getMetaData());
+            if (tags.length > 0) {
+                try {
+                    updateTags(snapshotId, tags);
+                } catch (CloudException e) {
+                    logger.warn("Created snapshot " + snapshotId + " but failed to tag it", e);
+                } catch (InternalException e) {
+                    logger.warn("Created snapshot " + snapshotId + " but failed to tag it", e);
+                }
+            }
+            return snapshotId;
         } finally {
             APITrace.end();
         }
@@ -112,6 +139,28 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
         }
     }
 
+    /**
+     * Remove many snapshots with one DeleteSnapshots request per {@link #MAX_SNAPSHOTS_PER_REQUEST} snapshots.
+     *
+     * @return id of the job started for each snapshot, snapshots of the same request share the job
+     */
+    public @Nonnull Map<String, String> removeSnapshots(@Nonnull Collection<String> snapshotIds) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Snapshot.removeSnapshots");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "snapshots") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("DeleteSnapshots")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_SNAPSHOTS_PER_REQUEST).execute(snapshotIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
     @Override
     public @Nullable Snapshot getSnapshot(@Nonnull String snapshotId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Snapshot.getSnapshot");
@@ -141,16 +190,52 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
     public Iterable<Snapshot> listSnapshots() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.listVolumes");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
-                    .action("DescribeSnapshots")
-                    .parameter("limit", "999")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
+            final String zoneId = getProvider().getZoneId();
+            return new QingCloudPaginator<DescribeSnapshotsResponseModel, Snapshot>(getProvider(), DescribeSnapshotsResponseModel.class) {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.get(getProvider())
+                            .action("DescribeSnapshots")
+                            .parameter("zone", zoneId);
+                }
 
-            Requester<List<Snapshot>> requester = new QingCloudRequester<DescribeSnapshotsResponseModel, List<Snapshot>>(
-                    getProvider(), request, new SnapshotsMapper(), DescribeSnapshotsResponseModel.class);
+                @Override
+                protected QingCloudDriverToCoreMapper<DescribeSnapshotsResponseModel, List<Snapshot>> newMapper() {
+                    return new SnapshotsMapper();
+                }
 
-            return requester.execute();
+                @Override
+                protected QingCloudStreamingMapper<?, Snapshot> newStreamingMapper() {
+                    return new QingCloudStreamingMapper<DescribeSnapshotsResponseModel.Snapshot, Snapshot>(
+                            "snapshot_set", DescribeSnapshotsResponseModel.Snapshot.class) {
+                        @Override
+                        protected List<Snapshot> mapItems(List<DescribeSnapshotsResponseModel.Snapshot> snapshots) {
+                            DescribeSnapshotsResponseModel responseModel = new DescribeSnapshotsResponseModel();
+                            responseModel.setSnapshots(snapshots);
+                            return new SnapshotsMapper().mapFrom(responseModel);
+                        }
+                    };
+                }
+            }.withParallelFetch(true)
+                    .withStreaming(getProvider().getBooleanConfigurationValue(QingCloud.DSN_STREAMING_LISTINGS, false))
+                    .iterate();
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void updateTags(@Nonnull String snapshotId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        updateTags(new String[] { snapshotId }, tags);
+    }
+
+    @Override
+    public void updateTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Snapshot.updateTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).setResourcesTags(TagResourceType.SNAPSHOT, snapshotIds, tags);
+            }
         } finally {
             APITrace.end();
         }
@@ -158,12 +243,109 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
 
     @Override
     public void removeTags(@Nonnull String snapshotId, @Nonnull Tag... tags) throws CloudException, InternalException {
-        //TODO, set tags
+        removeTags(new String[] { snapshotId }, tags);
     }
 
     @Override
-    public void updateTags(@Nonnull String snapshotId, @Nonnull Tag... tags) throws CloudException, InternalException {
-        //TODO, set tags
+    public void removeTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Snapshot.removeTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).removeResourcesTags(TagResourceType.SNAPSHOT, snapshotIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void setTags(@Nonnull String snapshotId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        setTags(new String[] { snapshotId }, tags);
+    }
+
+    @Override
+    public void setTags(@Nonnull String[] snapshotIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Snapshot.setTags");
+        try {
+            new QingCloudTags(getProvider()).replaceResourcesTags(TagResourceType.SNAPSHOT, snapshotIds, tags);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Wait for the snapshot to reach the state without blocking, the waiter polls for all snapshots of the provider at once.
+     *
+     * @param timeout how long to wait at most, 0 to wait forever
+     * @return future completed with the state once it is reached or the snapshot is DELETED, failed with a
+     *         {@link java.util.concurrent.TimeoutException} on timeout
+     */
+    public @Nonnull Future<SnapshotState> waitForState(@Nonnull String snapshotId, @Nonnull final SnapshotState state, long timeout,
+            @Nonnull TimeUnit unit, @Nullable FutureCallback<SnapshotState> callback) throws InternalException {
+        APITrace.begin(getProvider(), "Snapshot.waitForState");
+        try {
+            return getProvider().getResourceWaiter(SnapshotStateWaiter.class).waitFor(getProvider().getZoneId(), snapshotId,
+                    new QingCloudResourceWaiter.Condition<SnapshotState>() {
+                        @Override
+                        public boolean isSatisfied(SnapshotState currentState) {
+                            return state.equals(currentState) || SnapshotState.DELETED.equals(currentState);
+                        }
+                    }, timeout, unit, callback);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    static private SnapshotState mapSnapshotState(String state, String transitionState) {
+        if (transitionState != null && !transitionState.equals("")) {
+            return SnapshotState.PENDING;
+        }
+
+        if ("pending".equals(state)) {
+            return SnapshotState.PENDING;
+        } else if ("available".equals(state)) {
+            return SnapshotState.AVAILABLE;
+        } else if ("deleted".equals(state) || "ceased".equals(state)) {
+            return SnapshotState.DELETED;
+        } else if ("suspended".equals(state)) {
+            return SnapshotState.ERROR;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Polls DescribeSnapshots for the snapshots being waited on, snapshots no longer returned are DELETED.
+     */
+    static public class SnapshotStateWaiter extends QingCloudResourceWaiter<DescribeSnapshotsResponseModel, SnapshotState> {
+        public SnapshotStateWaiter(QingCloud qingCloud) {
+            super(qingCloud, DescribeSnapshotsResponseModel.class);
+        }
+
+        @Override
+        protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> snapshotIds) {
+            QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud).action("DescribeSnapshots");
+            for (int i = 0; i < snapshotIds.size(); i++) {
+                requestBuilder.parameter("snapshots." + (i + 1), snapshotIds.get(i));
+            }
+            return requestBuilder.parameter("verbose", "0");
+        }
+
+        @Override
+        protected Map<String, SnapshotState> mapStates(DescribeSnapshotsResponseModel responseModel) {
+            Map<String, SnapshotState> states = new HashMap<String, SnapshotState>();
+            if (responseModel.getSnapshots() != null) {
+                for (DescribeSnapshotsResponseModel.Snapshot snapshot : responseModel.getSnapshots()) {
+                    states.put(snapshot.getSnapshotId(), mapSnapshotState(snapshot.getStatus(), snapshot.getTransitionStatus()));
+                }
+            }
+            return states;
+        }
+
+        @Override
+        protected SnapshotState getAbsentState() {
+            return SnapshotState.DELETED;
+        }
     }
 
     private class SnapshotsMapper extends QingCloudDriverToCoreMapper<DescribeSnapshotsResponseModel, List<Snapshot>> {
@@ -195,7 +377,9 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
                     }
 
                     snapshot.setVisibleScope(VisibleScope.ACCOUNT_DATACENTER);
-                    //TODO, set tags
+                    for (Tag tag : TagModel.toTags(snapshotModel.getTags())) {
+                        snapshot.setTag(tag.getKey(), tag.getValue());
+                    }
                     snapshots.add(snapshot);
                 }
 
@@ -204,23 +388,5 @@ public class QingCloudSnapshot extends AbstractSnapshotSupport<QingCloud> implem
                 throw new RuntimeException(exception);
             }
         }
-
-        private SnapshotState mapSnapshotState(String state, String transitionState) {
-            if (transitionState != null && !transitionState.equals("")) {
-                return SnapshotState.PENDING;
-            }
-
-            if ("pending".equals(state)) {
-                return SnapshotState.PENDING;
-            } else if ("available".equals(state)) {
-                return SnapshotState.AVAILABLE;
-            } else if ("deleted".equals(state) || "ceased".equals(state)) {
-                return SnapshotState.DELETED;
-            } else if ("suspended".equals(state)) {
-                return SnapshotState.ERROR;
-            } else {
-                return null;
-            }
-        }
     }
 }
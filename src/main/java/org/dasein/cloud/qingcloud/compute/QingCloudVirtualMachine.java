@@ -24,6 +24,9 @@ package org.dasein.cloud.qingcloud.compute;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
@@ -32,6 +35,7 @@ import org.dasein.cloud.VisibleScope;
 import org.dasein.cloud.compute.AbstractVMSupport;
 import org.dasein.cloud.compute.Architecture;
 import org.dasein.cloud.compute.Platform;
+import org.dasein.cloud.compute.VMFilterOptions;
 import org.dasein.cloud.compute.VMLaunchOptions;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.compute.VirtualMachineCapabilities;
@@ -49,12 +53,26 @@ import org.dasein.cloud.network.IPVersion;
 import org.dasein.cloud.network.NICCreateOptions;
 import org.dasein.cloud.network.RawAddress;
 import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.compute.model.DescribeInstanceStatusResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.DescribeInstancesResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.RunInstancesResponseModel;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel.Job;
 import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
+import org.dasein.cloud.qingcloud.network.QingCloudTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.TagResourceType;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudAsyncRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudBatchRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudChainedCallback;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudJobTracker;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudMultiZoneLister;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudResourceWaiter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudStreamingMapper;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.Cache;
 import org.dasein.cloud.util.CacheLevel;
@@ -71,10 +89,18 @@ import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Jeffrey Yan on 11/24/2015.
@@ -83,6 +109,9 @@ import java.util.Map;
  * @since 2016.02.1
  */
 public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implements VirtualMachineSupport {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudVirtualMachine.class);
+    static public final int MAX_INSTANCES_PER_REQUEST = 100;
+    static public final long RESIZE_TIMEOUT_MINUTES = 10;
 
     protected QingCloudVirtualMachine(QingCloud provider) {
         super(provider);
@@ -104,72 +133,134 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
     public VirtualMachine launch(@Nonnull VMLaunchOptions withLaunchOptions) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VirtualMachine.launch");
         try {
-            QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.put(getProvider()).action("RunInstances");
+            RunInstancesResponseModel runInstancesResponseModel = runInstances(withLaunchOptions, 1);
+            return getVirtualMachine(runInstancesResponseModel.getInstances().get(0));
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            requestBuilder.parameter("zone", withLaunchOptions.getDataCenterId());
-            requestBuilder.parameter("image_id", withLaunchOptions.getMachineImageId());
-            requestBuilder.parameter("instance_type", withLaunchOptions.getStandardProductId());
-            requestBuilder.parameter("count", "1");
-            requestBuilder.parameterIfNotNull("instance_name", withLaunchOptions.getHostName());
+    /**
+     * Launch all VMs with a single RunInstances request.
+     */
+    @Override
+    public @Nonnull Iterable<String> launchMany(@Nonnull VMLaunchOptions withLaunchOptions, int count) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.launchMany");
+        try {
+            return runInstances(withLaunchOptions, count).getInstances();
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            if (withLaunchOptions.getBootstrapKey() != null) {
-                requestBuilder.parameter("login_mode", "login_keypair");
-                requestBuilder.parameter("login_keypair", withLaunchOptions.getBootstrapKey());
-            } else if (withLaunchOptions.getBootstrapPassword() != null) {
-                requestBuilder.parameter("login_mode", "login_passwd");
-                requestBuilder.parameter("login_passwd", withLaunchOptions.getBootstrapPassword());
-            }
+    /**
+     * Launch identical VMs with a single RunInstances request, and describe them with as few DescribeInstances requests
+     * as possible.
+     */
+    public @Nonnull List<VirtualMachine> launchVirtualMachines(@Nonnull VMLaunchOptions withLaunchOptions, int count) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.launchVirtualMachines");
+        try {
+            return getVirtualMachines(runInstances(withLaunchOptions, count).getInstances());
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            if (withLaunchOptions.getSubnetId() != null) {
-                if (withLaunchOptions.getPrivateIp() != null) {
-                    requestBuilder.parameter("vxnets.1", withLaunchOptions.getSubnetId() + "|" + withLaunchOptions.getPrivateIp());
-                } else {
-                    requestBuilder.parameter("vxnets.1", withLaunchOptions.getSubnetId());
+    private RunInstancesResponseModel runInstances(VMLaunchOptions withLaunchOptions, int count) throws CloudException, InternalException {
+        if (count < 1) {
+            throw new InternalException("At least one VM must be launched");
+        }
+        if (count > 1 && withLaunchOptions.getNetworkInterfaces() != null) {
+            for (VMLaunchOptions.NICConfig nicConfig : withLaunchOptions.getNetworkInterfaces()) {
+                if (nicConfig.nicToCreate != null && nicConfig.nicToCreate.getIpAddress() != null) {
+                    throw new InternalException("A NIC IP address can only be assigned when launching one VM");
                 }
-            } else if(withLaunchOptions.getNetworkInterfaces() != null && withLaunchOptions.getNetworkInterfaces().length > 0 ) {
-                int index = 1;
-                for (VMLaunchOptions.NICConfig nicConfig : withLaunchOptions.getNetworkInterfaces()) {
-                    NICCreateOptions nicCreateOptions = nicConfig.nicToCreate;
-                    if(nicCreateOptions.getIpAddress() != null) {
-                        requestBuilder.parameter("vxnets." + index, nicCreateOptions.getSubnetId() + "|" + nicCreateOptions.getIpAddress());
-                    } else {
-                        requestBuilder.parameter("vxnets." + index, nicCreateOptions.getSubnetId());
-                    }
-
-                    index++;
+            }
+        }
+        if (count > 1) {
+            for (VolumeAttachment volumeAttachment : withLaunchOptions.getVolumes()) {
+                if (volumeAttachment.getExistingVolumeId() != null) {
+                    throw new InternalException("An existing volume can only be attached when launching one VM");
                 }
             }
+        }
 
-            //actually, security is needed only when subnet is vxnet-0
-            requestBuilder.parameterIfNotNull("security_group", withLaunchOptions.getFirewallIds()[0]);
+        QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.put(getProvider()).action("RunInstances");
 
-            int volumeIndex = 1;
-            for (VolumeAttachment volumeAttachment : withLaunchOptions.getVolumes()) {
-                requestBuilder.parameter("volumes." + volumeIndex, volumeAttachment.getExistingVolumeId());
-                volumeIndex++;
-            }
+        requestBuilder.parameter("zone", withLaunchOptions.getDataCenterId());
+        requestBuilder.parameter("image_id", withLaunchOptions.getMachineImageId());
+        requestBuilder.parameter("instance_type", withLaunchOptions.getStandardProductId());
+        requestBuilder.parameter("count", count);
+        requestBuilder.parameterIfNotNull("instance_name", withLaunchOptions.getHostName());
 
-            if (withLaunchOptions.getUserData() != null) {
-                requestBuilder.parameter("need_userdata", 1);
-                requestBuilder.parameter("userdata_type", "plain");
-                requestBuilder.parameter("userdata_value", Base64.encodeBase64String(withLaunchOptions.getUserData().getBytes()));
+        if (withLaunchOptions.getBootstrapKey() != null) {
+            requestBuilder.parameter("login_mode", "login_keypair");
+            requestBuilder.parameter("login_keypair", withLaunchOptions.getBootstrapKey());
+        } else if (withLaunchOptions.getBootstrapPassword() != null) {
+            requestBuilder.parameter("login_mode", "login_passwd");
+            requestBuilder.parameter("login_passwd", withLaunchOptions.getBootstrapPassword());
+        }
+
+        if (withLaunchOptions.getSubnetId() != null) {
+            if (withLaunchOptions.getPrivateIp() != null) {
+                if (count > 1) {
+                    throw new InternalException("A private IP can only be assigned when launching one VM");
+                }
+                requestBuilder.parameter("vxnets.1", withLaunchOptions.getSubnetId() + "|" + withLaunchOptions.getPrivateIp());
             } else {
-                requestBuilder.parameter("need_userdata", 0);
+                requestBuilder.parameter("vxnets.1", withLaunchOptions.getSubnetId());
             }
+        } else if(withLaunchOptions.getNetworkInterfaces() != null && withLaunchOptions.getNetworkInterfaces().length > 0 ) {
+            int index = 1;
+            for (VMLaunchOptions.NICConfig nicConfig : withLaunchOptions.getNetworkInterfaces()) {
+                NICCreateOptions nicCreateOptions = nicConfig.nicToCreate;
+                if(nicCreateOptions.getIpAddress() != null) {
+                    requestBuilder.parameter("vxnets." + index, nicCreateOptions.getSubnetId() + "|" + nicCreateOptions.getIpAddress());
+                } else {
+                    requestBuilder.parameter("vxnets." + index, nicCreateOptions.getSubnetId());
+                }
 
-            requestBuilder.parameter("instance_class", 1);//use high performance type, although no doc found
+                index++;
+            }
+        }
 
-            HttpUriRequest request = requestBuilder.build();
+        //actually, security is needed only when subnet is vxnet-0
+        requestBuilder.parameterIfNotNull("security_group", withLaunchOptions.getFirewallIds()[0]);
 
-            Requester<RunInstancesResponseModel> requester = new QingCloudRequester<RunInstancesResponseModel, RunInstancesResponseModel>(
-                    getProvider(), request, RunInstancesResponseModel.class);
+        int volumeIndex = 1;
+        for (VolumeAttachment volumeAttachment : withLaunchOptions.getVolumes()) {
+            requestBuilder.parameter("volumes." + volumeIndex, volumeAttachment.getExistingVolumeId());
+            volumeIndex++;
+        }
 
-            RunInstancesResponseModel runInstancesResponseModel = requester.execute();
-            //TODO, handle tags
-            return getVirtualMachine(runInstancesResponseModel.getInstances().get(0));
-        } finally {
-            APITrace.end();
+        if (withLaunchOptions.getUserData() != null) {
+            requestBuilder.parameter("need_userdata", 1);
+            requestBuilder.parameter("userdata_type", "plain");
+            requestBuilder.parameter("userdata_value", Base64.encodeBase64String(withLaunchOptions.getUserData().getBytes()));
+        } else {
+            requestBuilder.parameter("need_userdata", 0);
         }
+
+        requestBuilder.parameter("instance_class", 1);//use high performance type, although no doc found
+
+        HttpUriRequest request = requestBuilder.build();
+
+        Requester<RunInstancesResponseModel> requester = new QingCloudRequester<RunInstancesResponseModel, RunInstancesResponseModel>(
+                getProvider(), request, RunInstancesResponseModel.class);
+
+        RunInstancesResponseModel runInstancesResponseModel = requester.execute();
+        Tag[] tags = QingCloudTags.toTags(withLaunchOptions.getMetaData());
+        if (tags.length > 0) {
+            List<String> vmIds = runInstancesResponseModel.getInstances();
+            try {
+                updateTags(vmIds.toArray(new String[vmIds.size()]), tags);
+            } catch (CloudException e) {
+                logger.warn("Launched VMs " + vmIds + " but failed to tag them", e);
+            } catch (InternalException e) {
+                logger.warn("Launched VMs " + vmIds + " but failed to tag them", e);
+            }
+        }
+        return runInstancesResponseModel;
     }
 
     @Override
@@ -195,14 +286,8 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
     public void start( @Nonnull String vmId ) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VirtualMachine.start");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.post(getProvider())
-                    .action("StartInstances")
-                    .parameter("instances.1", vmId)
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
-
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
-                    getProvider(), request, SimpleJobResponseModel.class);
+                    getProvider(), newStartRequest(vmId), SimpleJobResponseModel.class);
 
             requester.execute();
         } finally {
@@ -210,19 +295,34 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
         }
     }
 
+    /**
+     * Start the VM and track the StartInstances job.
+     *
+     * @return future completed when the VM has started
+     */
+    public @Nonnull Future<Job> startAsync( @Nonnull String vmId, @Nullable FutureCallback<Job> callback ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.startAsync");
+        try {
+            return getProvider().getJobTracker().submit(getProvider().getZoneId(), newStartRequest(vmId), callback);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    private HttpUriRequest newStartRequest( String vmId ) throws InternalException, CloudException {
+        return QingCloudRequestBuilder.post(getProvider())
+                .action("StartInstances")
+                .parameter("instances.1", vmId)
+                .parameter("zone", getProvider().getZoneId())
+                .build();
+    }
+
     @Override
     public void stop( @Nonnull String vmId, boolean force ) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VirtualMachine.stop");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.post(getProvider())
-                    .action("StopInstances")
-                    .parameter("instances.1", vmId)
-                    .parameter("force", force ? "1" : "0")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
-
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
-                    getProvider(), request, SimpleJobResponseModel.class);
+                    getProvider(), newStopRequest(vmId, force), SimpleJobResponseModel.class);
 
             requester.execute();
         } finally {
@@ -230,6 +330,29 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
         }
     }
 
+    /**
+     * Stop the VM and track the StopInstances job.
+     *
+     * @return future completed when the VM has stopped
+     */
+    public @Nonnull Future<Job> stopAsync( @Nonnull String vmId, boolean force, @Nullable FutureCallback<Job> callback ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.stopAsync");
+        try {
+            return getProvider().getJobTracker().submit(getProvider().getZoneId(), newStopRequest(vmId, force), callback);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    private HttpUriRequest newStopRequest( String vmId, boolean force ) throws InternalException, CloudException {
+        return QingCloudRequestBuilder.post(getProvider())
+                .action("StopInstances")
+                .parameter("instances.1", vmId)
+                .parameter("force", force ? "1" : "0")
+                .parameter("zone", getProvider().getZoneId())
+                .build();
+    }
+
     @Override
     public void terminate(@Nonnull String vmId, @Nullable String explanation) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VirtualMachine.terminate");
@@ -249,6 +372,95 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
         }
     }
 
+    /**
+     * Start many VMs with one StartInstances request per {@link #MAX_INSTANCES_PER_REQUEST} VMs.
+     *
+     * @return id of the job started for each VM, VMs of the same request share the job
+     */
+    public @Nonnull Map<String, String> startVirtualMachines( @Nonnull Collection<String> vmIds ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.startVirtualMachines");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "instances") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("StartInstances")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_INSTANCES_PER_REQUEST).execute(vmIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Stop many VMs with one StopInstances request per {@link #MAX_INSTANCES_PER_REQUEST} VMs.
+     *
+     * @return id of the job started for each VM, VMs of the same request share the job
+     */
+    public @Nonnull Map<String, String> stopVirtualMachines( @Nonnull Collection<String> vmIds, final boolean force ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.stopVirtualMachines");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "instances") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("StopInstances")
+                            .parameter("force", force ? "1" : "0")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_INSTANCES_PER_REQUEST).execute(vmIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Reboot many VMs with one RestartInstances request per {@link #MAX_INSTANCES_PER_REQUEST} VMs.
+     *
+     * @return id of the job started for each VM, VMs of the same request share the job
+     */
+    public @Nonnull Map<String, String> rebootVirtualMachines( @Nonnull Collection<String> vmIds ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.rebootVirtualMachines");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "instances") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("RestartInstances")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_INSTANCES_PER_REQUEST).execute(vmIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Terminate many VMs with one TerminateInstances request per {@link #MAX_INSTANCES_PER_REQUEST} VMs.
+     *
+     * @return id of the job started for each VM, VMs of the same request share the job
+     */
+    public @Nonnull Map<String, String> terminateVirtualMachines( @Nonnull Collection<String> vmIds ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.terminateVirtualMachines");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "instances") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("TerminateInstances")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_INSTANCES_PER_REQUEST).execute(vmIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
     @Override
     public @Nullable VirtualMachineProduct getProduct( @Nonnull String productId ) throws InternalException, CloudException {
         Iterator<VirtualMachineProduct> virtualMachineProductIterator = listAllProducts().iterator();
@@ -339,10 +551,8 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
                     .parameter("instance_type", productId)
                     .build();
 
-            Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
-                    getProvider(), request, SimpleJobResponseModel.class);
-
-            requester.execute();
+            Future<Job> job = getProvider().getJobTracker().submit(getProvider().getZoneId(), request, null);
+            QingCloudJobTracker.await(job, RESIZE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
 
             return getVirtualMachine(virtualMachineId);
         } finally {
@@ -362,10 +572,8 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
                     .parameter("memory", ramInMB)
                     .build();
 
-            Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
-                    getProvider(), request, SimpleJobResponseModel.class);
-
-            requester.execute();
+            Future<Job> job = getProvider().getJobTracker().submit(getProvider().getZoneId(), request, null);
+            QingCloudJobTracker.await(job, RESIZE_TIMEOUT_MINUTES, TimeUnit.MINUTES);
 
             return getVirtualMachine(virtualMachineId);
         } finally {
@@ -449,20 +657,207 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
         }
     }
 
-    @Override
-    public @Nonnull Iterable<VirtualMachine> listVirtualMachines() throws InternalException, CloudException {
-        APITrace.begin(getProvider(), "VirtualMachine.listVirtualMachines");
+    /**
+     * Look up many VMs with one DescribeInstances request per {@link #MAX_INSTANCES_PER_REQUEST} VMs, the volumes
+     * attached to the VMs of a request are looked up together as well.
+     *
+     * @return the found VMs in the order of the ids, VMs which don't exist are absent
+     */
+    public @Nonnull List<VirtualMachine> getVirtualMachines( @Nonnull Collection<String> vmIds ) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.getVirtualMachines");
+        try {
+            Map<String, VirtualMachine> virtualMachines = new HashMap<String, VirtualMachine>();
+            List<String> distinctVmIds = new ArrayList<String>(new LinkedHashSet<String>(vmIds));
+            for (int from = 0; from < distinctVmIds.size(); from += MAX_INSTANCES_PER_REQUEST) {
+                List<String> chunk = distinctVmIds.subList(from,
+                        Math.min(from + MAX_INSTANCES_PER_REQUEST, distinctVmIds.size()));
+
+                QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider())
+                        .action("DescribeInstances");
+                for (int i = 0; i < chunk.size(); i++) {
+                    requestBuilder.parameter("instances." + (i + 1), chunk.get(i));
+                }
+                HttpUriRequest request = requestBuilder
+                        .parameter("limit", chunk.size())
+                        .parameter("zone", getProvider().getZoneId())
+                        .build();
+
+                Requester<List<VirtualMachine>> requester = new QingCloudRequester<DescribeInstancesResponseModel, List<VirtualMachine>>(
+                        getProvider(), request, new VirtualMachinesMapper(), DescribeInstancesResponseModel.class);
+
+                for (VirtualMachine virtualMachine : requester.execute()) {
+                    virtualMachines.put(virtualMachine.getProviderVirtualMachineId(), virtualMachine);
+                }
+            }
+
+            List<VirtualMachine> result = new ArrayList<VirtualMachine>();
+            for (String vmId : distinctVmIds) {
+                if (virtualMachines.containsKey(vmId)) {
+                    result.add(virtualMachines.get(vmId));
+                }
+            }
+            return result;
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Asynchronous {@link #getVirtualMachine(String)}, the future completes with null if the virtual machine doesn't
+     * exist. The attached volumes are looked up by a second request once the instance is known.
+     */
+    public @Nonnull Future<VirtualMachine> getVirtualMachineAsync(@Nonnull String vmId, @Nullable FutureCallback<VirtualMachine> callback) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.getVirtualMachineAsync");
         try {
             HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
                     .action("DescribeInstances")
-                    .parameter("limit", "999")
+                    .parameter("instances.1", vmId)
                     .parameter("zone", getProvider().getZoneId())
                     .build();
 
-            Requester<List<VirtualMachine>> requester = new QingCloudRequester<DescribeInstancesResponseModel, List<VirtualMachine>>(
-                    getProvider(), request, new VirtualMachinesMapper(), DescribeInstancesResponseModel.class);
+            final BasicFuture<VirtualMachine> future = new BasicFuture<VirtualMachine>(callback);
+            new QingCloudAsyncRequester<DescribeInstancesResponseModel, List<VirtualMachine>>(getProvider(), request,
+                    new VirtualMachinesMapper(false), DescribeInstancesResponseModel.class).execute(
+                    new QingCloudChainedCallback<List<VirtualMachine>, VirtualMachine>(future) {
+                        @Override
+                        protected void onCompleted(List<VirtualMachine> virtualMachines) throws Exception {
+                            if (virtualMachines.isEmpty()) {
+                                future.completed(null);
+                                return;
+                            }
+                            final VirtualMachine virtualMachine = virtualMachines.get(0);
+                            final List<String> volumeIds = Arrays.asList(virtualMachine.getProviderVolumeIds());
+                            if (volumeIds.isEmpty()) {
+                                virtualMachine.setVolumes(new Volume[0]);
+                                future.completed(virtualMachine);
+                                return;
+                            }
+                            new QingCloudVolume(getProvider()).getVolumesAsync(volumeIds,
+                                    new QingCloudChainedCallback<List<Volume>, VirtualMachine>(future) {
+                                        @Override
+                                        protected void onCompleted(List<Volume> volumes) {
+                                            Map<String, Volume> volumesById = new HashMap<String, Volume>();
+                                            for (Volume volume : volumes) {
+                                                volumesById.put(volume.getProviderVolumeId(), volume);
+                                            }
+                                            List<Volume> attachedVolumes = new ArrayList<Volume>();
+                                            for (String volumeId : volumeIds) {
+                                                if (volumesById.containsKey(volumeId)) {
+                                                    attachedVolumes.add(volumesById.get(volumeId));
+                                                }
+                                            }
+                                            virtualMachine.setVolumes(attachedVolumes.toArray(new Volume[attachedVolumes.size()]));
+                                            future.completed(virtualMachine);
+                                        }
+                                    });
+                        }
+                    });
+            return future;
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public @Nonnull Iterable<VirtualMachine> listVirtualMachines() throws InternalException, CloudException {
+        return listVirtualMachines(true);
+    }
 
-            return requester.execute();
+    /**
+     * List virtual machines of current zone.
+     *
+     * @param hydrateVolumes when false, the attached volumes are not looked up, only their ids are set, which saves
+     *                       the DescribeVolumes calls for callers only interested in VM state
+     */
+    public @Nonnull Iterable<VirtualMachine> listVirtualMachines(final boolean hydrateVolumes) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.listVirtualMachines");
+        try {
+            return listVirtualMachines(getProvider().getZoneId(), hydrateVolumes, new QingCloudFilter(), null);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public @Nonnull Iterable<VirtualMachine> listVirtualMachines(@Nullable VMFilterOptions options) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.listVirtualMachines");
+        try {
+            String zoneId = getProvider().getZoneId();
+            QingCloudFilter filter = newVMFilter(zoneId, options);
+            if (filter.isMatchingNothing()) {
+                return Collections.emptyList();
+            }
+            return listVirtualMachines(zoneId, true, filter, options);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    private Iterable<VirtualMachine> listVirtualMachines(final String zoneId, final boolean hydrateVolumes,
+            final QingCloudFilter filter, @Nullable final VMFilterOptions options) {
+        return new QingCloudPaginator<DescribeInstancesResponseModel, VirtualMachine>(getProvider(), DescribeInstancesResponseModel.class) {
+            @Override
+            protected QingCloudRequestBuilder newRequestBuilder() {
+                return filter.applyTo(QingCloudRequestBuilder.get(getProvider())
+                        .action("DescribeInstances")
+                        .parameter("zone", zoneId));
+            }
+
+            @Override
+            protected QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<VirtualMachine>> newMapper() {
+                return new QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<VirtualMachine>>() {
+                    @Override
+                    protected List<VirtualMachine> doMapFrom(DescribeInstancesResponseModel responseModel) {
+                        return matching(new VirtualMachinesMapper(hydrateVolumes).mapFrom(responseModel), options);
+                    }
+                };
+            }
+
+            @Override
+            protected QingCloudStreamingMapper<?, VirtualMachine> newStreamingMapper() {
+                return new QingCloudStreamingMapper<DescribeInstancesResponseModel.Instance, VirtualMachine>(
+                        "instance_set", DescribeInstancesResponseModel.Instance.class) {
+                    @Override
+                    protected List<VirtualMachine> mapItems(List<DescribeInstancesResponseModel.Instance> instances) {
+                        DescribeInstancesResponseModel responseModel = new DescribeInstancesResponseModel();
+                        responseModel.setInstances(instances);
+                        return matching(new VirtualMachinesMapper(hydrateVolumes).mapFrom(responseModel), options);
+                    }
+                };
+            }
+        }.withParallelFetch(true)
+                .withStreaming(getProvider().getBooleanConfigurationValue(QingCloud.DSN_STREAMING_LISTINGS, false))
+                .iterate();
+    }
+
+    static private List<VirtualMachine> matching(List<VirtualMachine> virtualMachines, @Nullable VMFilterOptions options) {
+        if (options == null) {
+            return virtualMachines;
+        }
+        List<VirtualMachine> result = new ArrayList<VirtualMachine>();
+        for (VirtualMachine virtualMachine : virtualMachines) {
+            if (options.matches(virtualMachine)) {
+                result.add(virtualMachine);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * List virtual machines of several zones concurrently, merged into one stream.
+     *
+     * @param zoneIds zones to list, all zones when null
+     * @param hydrateVolumes see {@link #listVirtualMachines(boolean)}
+     */
+    public @Nonnull Iterable<VirtualMachine> listVirtualMachinesInZones(@Nullable Collection<String> zoneIds, final boolean hydrateVolumes) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "VirtualMachine.listVirtualMachinesInZones");
+        try {
+            return new QingCloudMultiZoneLister<VirtualMachine>(getProvider()) {
+                @Override
+                protected Iterable<VirtualMachine> list(QingCloud zoneProvider) throws CloudException, InternalException {
+                    return new QingCloudVirtualMachine(zoneProvider).listVirtualMachines(hydrateVolumes);
+                }
+            }.withZones(zoneIds).iterate();
         } finally {
             APITrace.end();
         }
@@ -479,33 +874,68 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
     public @Nullable Iterable<VirtualMachineStatus> getVMStatus( @Nullable final VmStatusFilterOptions filterOptions ) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VirtualMachine.getVMStatus");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
-                    .action("DescribeInstances")
-                    .parameter("limit", "999")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
+            final String zone = getProvider().getZoneId();
+            if (newVMStatusFilter(filterOptions).isMatchingNothing()) {
+                return Collections.emptyList();
+            }
+            //matching any criterion, a VM not in vmIds may still match, so all VMs are described
+            String[] vmIds = ( filterOptions == null || filterOptions.isMatchesAny() ? null : filterOptions.getVmIds() );
+            if (vmIds == null || vmIds.length == 0) {
+                return newVMStatusPaginator(zone, null, filterOptions).withParallelFetch(true).list();
+            }
 
-            Requester<List<VirtualMachineStatus>> requester = new QingCloudRequester<DescribeInstancesResponseModel, List<VirtualMachineStatus>>(
-                    getProvider(), request,
-                    new QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<VirtualMachineStatus>>() {
+            List<String> distinctVmIds = new ArrayList<String>(new LinkedHashSet<String>(Arrays.asList(vmIds)));
+            if (distinctVmIds.size() <= MAX_INSTANCES_PER_REQUEST) {
+                return newVMStatusPaginator(zone, distinctVmIds, filterOptions).list();
+            }
+
+            ExecutorService executor = getProvider().getParallelExecutor();
+            List<Future<List<VirtualMachineStatus>>> futures = new ArrayList<Future<List<VirtualMachineStatus>>>();
+            try {
+                for (int from = 0; from < distinctVmIds.size(); from += MAX_INSTANCES_PER_REQUEST) {
+                    final List<String> chunk = distinctVmIds.subList(from,
+                            Math.min(from + MAX_INSTANCES_PER_REQUEST, distinctVmIds.size()));
+                    futures.add(executor.submit(new Callable<List<VirtualMachineStatus>>() {
                         @Override
-                        protected List<VirtualMachineStatus> doMapFrom(DescribeInstancesResponseModel responseModel) {
-                            List<VirtualMachineStatus> result = new ArrayList<VirtualMachineStatus>();
-                            for (DescribeInstancesResponseModel.Instance instance : responseModel.getInstances()) {
-                                VirtualMachineStatus virtualMachineStatus = new VirtualMachineStatus();
-                                virtualMachineStatus.setProviderHostStatus(getHostStatus());
-                                virtualMachineStatus.setProviderVmStatus(getVmStatus());
-                                virtualMachineStatus.setProviderVirtualMachineId(instance.getInstanceId());
-
-                                if (filterOptions.matches(virtualMachineStatus)) {
-                                    result.add(virtualMachineStatus);
-                                }
-                            }
-                            return result;
+                        public List<VirtualMachineStatus> call() throws Exception {
+                            return newVMStatusPaginator(zone, chunk, filterOptions).list();
                         }
-                    }, DescribeInstancesResponseModel.class);
+                    }));
+                }
+
+                List<VirtualMachineStatus> result = new ArrayList<VirtualMachineStatus>();
+                for (Future<List<VirtualMachineStatus>> future : futures) {
+                    result.addAll(getChunk(future));
+                }
+                return result;
+            } finally {
+                for (Future<List<VirtualMachineStatus>> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            return requester.execute();
+    /**
+     * Wait for the VM to reach the state without blocking, the waiter polls for all VMs of the provider at once.
+     *
+     * @param timeout how long to wait at most, 0 to wait forever
+     * @return future completed with the state once it is reached or the VM is TERMINATED, failed with a
+     *         {@link java.util.concurrent.TimeoutException} on timeout
+     */
+    public @Nonnull Future<VmState> waitForState(@Nonnull String vmId, @Nonnull final VmState state, long timeout,
+            @Nonnull TimeUnit unit, @Nullable FutureCallback<VmState> callback) throws InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.waitForState");
+        try {
+            return getProvider().getResourceWaiter(InstanceStateWaiter.class).waitFor(getProvider().getZoneId(), vmId,
+                    new QingCloudResourceWaiter.Condition<VmState>() {
+                        @Override
+                        public boolean isSatisfied(VmState currentState) {
+                            return state.equals(currentState) || VmState.TERMINATED.equals(currentState);
+                        }
+                    }, timeout, unit, callback);
         } finally {
             APITrace.end();
         }
@@ -513,34 +943,286 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
 
     @Override
     public void updateTags( @Nonnull String vmId, @Nonnull Tag... tags ) throws CloudException, InternalException {
-        // TODO, tags
+        updateTags(new String[] { vmId }, tags);
+    }
+
+    /**
+     * Tag all VMs with the same batched AttachTags requests, an existing tag with the same key and value is reused.
+     */
+    @Override
+    public void updateTags( @Nonnull String[] vmIds, @Nonnull Tag... tags ) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.updateTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).setResourcesTags(TagResourceType.INSTANCE, vmIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
     }
 
     @Override
     public void removeTags( @Nonnull String vmId, @Nonnull Tag... tags ) throws CloudException, InternalException {
-        // TODO, tags
+        removeTags(new String[] { vmId }, tags);
+    }
+
+    @Override
+    public void removeTags( @Nonnull String[] vmIds, @Nonnull Tag... tags ) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.removeTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).removeResourcesTags(TagResourceType.INSTANCE, vmIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void setTags( @Nonnull String vmId, @Nonnull Tag... tags ) throws CloudException, InternalException {
+        setTags(new String[] { vmId }, tags);
+    }
+
+    @Override
+    public void setTags( @Nonnull String[] vmIds, @Nonnull Tag... tags ) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VirtualMachine.setTags");
+        try {
+            new QingCloudTags(getProvider()).replaceResourcesTags(TagResourceType.INSTANCE, vmIds, tags);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /*
+     * With vmIds, the ids are sent as instances.N so only those instances are described, a chunk of ids always fits
+     * into one page. Callers pass no vmIds when the options match any criterion.
+     */
+    private QingCloudPaginator<DescribeInstanceStatusResponseModel, VirtualMachineStatus> newVMStatusPaginator(
+            final String zone, @Nullable final List<String> vmIds, @Nullable final VmStatusFilterOptions filterOptions) {
+        return new QingCloudPaginator<DescribeInstanceStatusResponseModel, VirtualMachineStatus>(getProvider(), DescribeInstanceStatusResponseModel.class) {
+            @Override
+            protected QingCloudRequestBuilder newRequestBuilder() {
+                QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider())
+                        .action("DescribeInstances")
+                        .parameter("verbose", "0")
+                        .parameter("zone", zone);
+                return newVMStatusFilter(filterOptions).withIds("instances", vmIds).applyTo(requestBuilder);
+            }
+
+            @Override
+            protected QingCloudDriverToCoreMapper<DescribeInstanceStatusResponseModel, List<VirtualMachineStatus>> newMapper() {
+                return new VirtualMachineStatusMapper(filterOptions);
+            }
+        };
+    }
+
+    /*
+     * Only OK and NOT_APPLICABLE come from known instance statuses, an impaired or initializing VM may be in any status.
+     */
+    static private QingCloudFilter newVMStatusFilter(@Nullable VmStatusFilterOptions filterOptions) {
+        QingCloudFilter filter = new QingCloudFilter();
+        if (filterOptions == null || filterOptions.isMatchesAny() || filterOptions.getVmStatuses() == null
+                || filterOptions.getVmStatuses().isEmpty()) {
+            return filter;
+        }
+        List<String> statuses = new ArrayList<String>();
+        for (VmStatus vmStatus : filterOptions.getVmStatuses()) {
+            if (VmStatus.OK.equals(vmStatus)) {
+                statuses.add("running");
+            } else if (VmStatus.NOT_APPLICABLE.equals(vmStatus)) {
+                statuses.addAll(Arrays.asList("stopped", "suspended", "terminated", "ceased"));
+            } else {
+                return filter;
+            }
+        }
+        return filter.withStatuses(statuses);
+    }
+
+    /*
+     * States and tags are pushed to DescribeInstances, a PENDING VM may be in any status because of its transition
+     * status. The regex is only matched on the returned VMs: Dasein also matches it against the description and the
+     * addresses, which the search word of QingCloud doesn't search.
+     */
+    QingCloudFilter newVMFilter(String zoneId, @Nullable VMFilterOptions options) throws CloudException, InternalException {
+        QingCloudFilter filter = new QingCloudFilter();
+        if (options == null || options.isMatchesAny()) {
+            return filter;
+        }
+        if (options.getVmStates() != null && !options.getVmStates().isEmpty()) {
+            List<String> statuses = new ArrayList<String>();
+            for (VmState vmState : options.getVmStates()) {
+                if (VmState.RUNNING.equals(vmState)) {
+                    statuses.add("running");
+                } else if (VmState.STOPPED.equals(vmState)) {
+                    statuses.add("stopped");
+                } else if (VmState.SUSPENDED.equals(vmState)) {
+                    statuses.add("suspended");
+                } else if (VmState.TERMINATED.equals(vmState)) {
+                    statuses.addAll(Arrays.asList("terminated", "ceased"));
+                } else {
+                    statuses = null;
+                    break;
+                }
+            }
+            filter.withStatuses(statuses);
+        }
+        if (options.getTags() != null && !options.getTags().isEmpty()) {
+            filter.withTags(getProvider().getTagIndex(), zoneId, options.getTags());
+        }
+        return filter;
+    }
+
+    private <T> T getChunk(Future<T> future) throws InternalException, CloudException {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof InternalException) {
+                throw (InternalException) cause;
+            } else {
+                throw new InternalException(cause);
+            }
+        }
+    }
+
+    private VmStatus getVmStatus(String status, String transitionStatus, int subCode) {
+        if (subCode != 0) {
+            return VmStatus.IMPAIRED;
+        } else if ("pending".equals(status) || (transitionStatus != null && !transitionStatus.equals(""))) {
+            return VmStatus.INITIALIZING;
+        } else if ("running".equals(status)) {
+            return VmStatus.OK;
+        } else if ("stopped".equals(status) || "suspended".equals(status) || "terminated".equals(status)
+                || "ceased".equals(status)) {
+            return VmStatus.NOT_APPLICABLE;
+        } else {
+            return VmStatus.INSUFFICIENT_DATA;
+        }
     }
 
-    private VmStatus getVmStatus() {
-        return VmStatus.OK;
+    /*
+     * QingCloud doesn't expose the health of the physical host, it is assumed fine as long as the instance runs on it.
+     */
+    private VmStatus getHostStatus(String status) {
+        if ("running".equals(status)) {
+            return VmStatus.OK;
+        } else if ("stopped".equals(status) || "suspended".equals(status) || "terminated".equals(status)
+                || "ceased".equals(status)) {
+            return VmStatus.NOT_APPLICABLE;
+        } else {
+            return VmStatus.INSUFFICIENT_DATA;
+        }
+    }
+
+    static private VmState mapVmState(String state, String transitionState) {
+        if (transitionState != null && !transitionState.equals("")) {
+            return VmState.PENDING;
+        }
+
+        if ("pending".equals(state)) {
+            return VmState.PENDING;
+        } else if ("running".equals(state)) {
+            return VmState.RUNNING;
+        } else if ("stopped".equals(state)) {
+            return VmState.STOPPED;
+        } else if ("suspended".equals(state)) {
+            return VmState.SUSPENDED;
+        } else if ("terminated".equals(state) || "ceased".equals(state)) {
+            return VmState.TERMINATED;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Polls DescribeInstances for the instances being waited on, instances no longer returned are TERMINATED.
+     */
+    static public class InstanceStateWaiter extends QingCloudResourceWaiter<DescribeInstanceStatusResponseModel, VmState> {
+        public InstanceStateWaiter(QingCloud qingCloud) {
+            super(qingCloud, DescribeInstanceStatusResponseModel.class);
+        }
+
+        @Override
+        protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> instanceIds) {
+            QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud).action("DescribeInstances");
+            for (int i = 0; i < instanceIds.size(); i++) {
+                requestBuilder.parameter("instances." + (i + 1), instanceIds.get(i));
+            }
+            return requestBuilder.parameter("verbose", "0");
+        }
+
+        @Override
+        protected Map<String, VmState> mapStates(DescribeInstanceStatusResponseModel responseModel) {
+            Map<String, VmState> states = new HashMap<String, VmState>();
+            if (responseModel.getInstances() != null) {
+                for (DescribeInstanceStatusResponseModel.Instance instance : responseModel.getInstances()) {
+                    states.put(instance.getInstanceId(), mapVmState(instance.getStatus(), instance.getTransitionStatus()));
+                }
+            }
+            return states;
+        }
+
+        @Override
+        protected VmState getAbsentState() {
+            return VmState.TERMINATED;
+        }
     }
 
-    private VmStatus getHostStatus() {
-        return VmStatus.OK;
+    private class VirtualMachineStatusMapper extends QingCloudDriverToCoreMapper<DescribeInstanceStatusResponseModel, List<VirtualMachineStatus>> {
+        private VmStatusFilterOptions filterOptions;
+
+        VirtualMachineStatusMapper(VmStatusFilterOptions filterOptions) {
+            this.filterOptions = filterOptions;
+        }
+
+        @Override
+        protected List<VirtualMachineStatus> doMapFrom(DescribeInstanceStatusResponseModel responseModel) {
+            List<VirtualMachineStatus> result = new ArrayList<VirtualMachineStatus>();
+            for (DescribeInstanceStatusResponseModel.Instance instance : responseModel.getInstances()) {
+                VirtualMachineStatus virtualMachineStatus = new VirtualMachineStatus();
+                virtualMachineStatus.setProviderHostStatus(getHostStatus(instance.getStatus()));
+                virtualMachineStatus.setProviderVmStatus(
+                        getVmStatus(instance.getStatus(), instance.getTransitionStatus(), instance.getSubCode()));
+                virtualMachineStatus.setProviderVirtualMachineId(instance.getInstanceId());
+
+                if (filterOptions == null || filterOptions.matches(virtualMachineStatus)) {
+                    result.add(virtualMachineStatus);
+                }
+            }
+            return result;
+        }
     }
 
     private class VirtualMachinesMapper extends QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<VirtualMachine>>{
+        private boolean hydrateVolumes;
+
+        private VirtualMachinesMapper() {
+            this(true);
+        }
+
+        private VirtualMachinesMapper(boolean hydrateVolumes) {
+            this.hydrateVolumes = hydrateVolumes;
+        }
+
         @Override
         protected List<VirtualMachine> doMapFrom(DescribeInstancesResponseModel responseModel) {
             try {
                 List<VirtualMachine> virtualMachines = new ArrayList<VirtualMachine>();
+                Map<String, Volume> volumes = hydrateVolumes ? getVolumes(responseModel.getInstances()) : null;
 
                 for(DescribeInstancesResponseModel.Instance instance : responseModel.getInstances()) {
                     VirtualMachine virtualMachine = new VirtualMachine();
                     virtualMachine.setProviderVirtualMachineId(instance.getInstanceId());
                     virtualMachine.setProductId(instance.getInstanceType());
                     virtualMachine.setProviderVolumeIds(instance.getVolumeIds().toArray(new String[0]));
-                    virtualMachine.setVolumes(listVolumes(instance.getVolumeIds()));
+                    if (volumes != null) {
+                        virtualMachine.setVolumes(collectVolumes(instance.getVolumeIds(), volumes));
+                    }
                     virtualMachine.setProviderNetworkInterfaceIds(collectNetworkInterfaceIds(instance.getVxnets()));
                     virtualMachine.setPrivateAddresses(collectPrivateIpAddresses(instance.getVxnets()));
                     //TODO, private subnet ids not set, because only one allowed for dasein model
@@ -561,17 +1243,21 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
                     virtualMachine.setProviderRegionId(getContext().getRegionId());
                     virtualMachine.setProviderDataCenterId(getProvider().getZoneId());
                     virtualMachine.setProviderOwnerId(getContext().getAccountNumber());
-                    //TODO, set tags
+                    for (Tag tag : TagModel.toTags(instance.getTags())) {
+                        virtualMachine.setTag(tag.getKey(), tag.getValue());
+                    }
                     virtualMachine.setImagable(getCapabilities().canStop(virtualMachine.getCurrentState()));
                     virtualMachine.setRebootable(getCapabilities().canReboot(virtualMachine.getCurrentState()));
 
                     virtualMachine.setClonable(false);
                     virtualMachine.setPausable(false);
                     virtualMachine.setPersistent(true);
-                    virtualMachine.setProviderVmStatus(getVmStatus());
-                    virtualMachine.setProviderHostStatus(getHostStatus());
+                    virtualMachine.setProviderVmStatus(
+                            getVmStatus(instance.getStatus(), instance.getTransitionStatus(), instance.getSubCode()));
+                    virtualMachine.setProviderHostStatus(getHostStatus(instance.getStatus()));
                     virtualMachine.setLifecycle(VirtualMachineLifecycle.NORMAL);
                     virtualMachine.setVisibleScope(VisibleScope.ACCOUNT_DATACENTER);
+                    virtualMachines.add(virtualMachine);
                 }
 
                 return virtualMachines;
@@ -588,26 +1274,6 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
             }
         }
 
-        private VmState mapVmState(String state, String transitionState) {
-            if (transitionState != null && !transitionState.equals("")) {
-                return VmState.PENDING;
-            }
-
-            if ("pending".equals(state)) {
-                return VmState.PENDING;
-            } else if ("running".equals(state)) {
-                return VmState.RUNNING;
-            } else if ("stopped".equals(state)) {
-                return VmState.STOPPED;
-            } else if ("suspended".equals(state)) {
-                return VmState.SUSPENDED;
-            } else if ("terminated".equals(state) || "ceased".equals(state)) {
-                return VmState.TERMINATED;
-            } else {
-                return null;
-            }
-        }
-
         private RawAddress[] collectPrivateIpAddresses(List<DescribeInstancesResponseModel.Instance.Vxnet> vxnets) {
             RawAddress[] result = new RawAddress[vxnets.size()];
             for (int i = 0; i < vxnets.size(); i++) {
@@ -626,17 +1292,26 @@ public class QingCloudVirtualMachine extends AbstractVMSupport<QingCloud> implem
             return result;
         }
 
-        private Volume[] listVolumes(List<String> volumeIds) {
-            try {
-                Volume[] result = new Volume[volumeIds.size()];
-                for (int i = 0; i < volumeIds.size(); i++) {
-                    String volumeId = volumeIds.get(i);
-                    result[i] = getProvider().getComputeServices().getVolumeSupport().getVolume(volumeId);
+        private Map<String, Volume> getVolumes(List<DescribeInstancesResponseModel.Instance> instances) throws InternalException, CloudException {
+            List<String> volumeIds = new ArrayList<String>();
+            for (DescribeInstancesResponseModel.Instance instance : instances) {
+                volumeIds.addAll(instance.getVolumeIds());
+            }
+            if (volumeIds.isEmpty()) {
+                return new HashMap<String, Volume>();
+            }
+            return new QingCloudVolume(getProvider()).getVolumes(volumeIds);
+        }
+
+        private Volume[] collectVolumes(List<String> volumeIds, Map<String, Volume> volumes) {
+            List<Volume> result = new ArrayList<Volume>();
+            for (String volumeId : volumeIds) {
+                Volume volume = volumes.get(volumeId);
+                if (volume != null) {
+                    result.add(volume);
                 }
-                return result;
-            } catch (Exception exception) {
-                throw new RuntimeException(exception);
             }
+            return result.toArray(new Volume[result.size()]);
         }
     }
 }
@@ -23,6 +23,9 @@ package org.dasein.cloud.qingcloud.compute;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ProviderContext;
@@ -40,9 +43,19 @@ import org.dasein.cloud.qingcloud.compute.model.CreateVolumeFromSnapshotResponse
 import org.dasein.cloud.qingcloud.compute.model.CreateVolumesResponseModel;
 import org.dasein.cloud.qingcloud.compute.model.DescribeVolumesResponseModel;
 import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
+import org.dasein.cloud.qingcloud.network.QingCloudTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.TagResourceType;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudAsyncRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudChainedCallback;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudBatchRequester;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudMultiZoneLister;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudResourceWaiter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudStreamingMapper;
 import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.Cache;
 import org.dasein.cloud.util.CacheLevel;
@@ -55,11 +68,17 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Jeffrey Yan on 12/8/2015.
@@ -69,6 +88,10 @@ import java.util.Map;
  */
 public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements VolumeSupport {
 
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudVolume.class);
+
+    static public final int MAX_VOLUMES_PER_REQUEST = 100;
+
     protected QingCloudVolume(QingCloud provider) {
         super(provider);
     }
@@ -87,6 +110,7 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
     public @Nonnull String createVolume(@Nonnull VolumeCreateOptions options) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.createVolume");
         try {
+            String volumeId;
             if (options.getSnapshotId() != null && !options.getSnapshotId().isEmpty()) {
                 HttpUriRequest request = QingCloudRequestBuilder.put(getProvider())
                         .action("CreateVolumeFromSnapshot")
@@ -97,8 +121,7 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
 
                 Requester<CreateVolumeFromSnapshotResponseModel> requester = new QingCloudRequester<CreateVolumeFromSnapshotResponseModel, CreateVolumeFromSnapshotResponseModel>(
                         getProvider(), request, CreateVolumeFromSnapshotResponseModel.class);
-                //TODO, handle tags
-                return requester.execute().getVolumeId();
+                volumeId = requester.execute().getVolumeId();
             } else {
                 HttpUriRequest request = QingCloudRequestBuilder.put(getProvider())
                         .action("CreateVolumes")
@@ -111,9 +134,20 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
 
                 Requester<CreateVolumesResponseModel> requester = new QingCloudRequester<CreateVolumesResponseModel, CreateVolumesResponseModel>(
                         getProvider(), request, CreateVolumesResponseModel.class);
-                //TODO, handle tags
-                return requester.execute().getVolumeIds().get(0);
+                volumeId = requester.execute().getVolumeIds().get(0);
+            }
+
+            Tag[] tags = QingCloudTags.toTags(options.getMetaData());
+            if (tags.length > 0) {
+                try {
+                    updateTags(volumeId, tags);
+                } catch (CloudException e) {
+                    logger.warn("Created volume " + volumeId + " but failed to tag it", e);
+                } catch (InternalException e) {
+                    logger.warn("Created volume " + volumeId + " but failed to tag it", e);
+                }
             }
+            return volumeId;
         } finally {
             APITrace.end();
         }
@@ -138,6 +172,28 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
         }
     }
 
+    /**
+     * Remove many volumes with one DeleteVolumes request per {@link #MAX_VOLUMES_PER_REQUEST} volumes.
+     *
+     * @return id of the job started for each volume, volumes of the same request share the job
+     */
+    public @Nonnull Map<String, String> removeVolumes(@Nonnull Collection<String> volumeIds) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.removeVolumes");
+        try {
+            final String zone = getProvider().getZoneId();
+            return new QingCloudBatchRequester(getProvider(), "volumes") {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.post(getProvider())
+                            .action("DeleteVolumes")
+                            .parameter("zone", zone);
+                }
+            }.withMaxIdsPerRequest(MAX_VOLUMES_PER_REQUEST).execute(volumeIds);
+        } finally {
+            APITrace.end();
+        }
+    }
+
     @Override
     public void attach(@Nonnull String volumeId, @Nonnull String toServer, @Nonnull String deviceId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.attach");
@@ -204,21 +260,139 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
         }
     }
 
+    /**
+     * Asynchronous {@link #getVolume(String)}, the future completes with null if the volume doesn't exist.
+     */
+    public @Nonnull Future<Volume> getVolumeAsync(@Nonnull String volumeId, @Nullable FutureCallback<Volume> callback) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.getVolumeAsync");
+        try {
+            final BasicFuture<Volume> future = new BasicFuture<Volume>(callback);
+            getVolumesAsync(Collections.singletonList(volumeId), new QingCloudChainedCallback<List<Volume>, Volume>(future) {
+                @Override
+                protected void onCompleted(List<Volume> volumes) {
+                    future.completed(volumes.size() > 0 ? volumes.get(0) : null);
+                }
+            });
+            return future;
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    /*
+     * One DescribeVolumes request for at most MAX_VOLUMES_PER_REQUEST volumes, as getVolumes does per chunk.
+     */
+    @Nonnull Future<List<Volume>> getVolumesAsync(@Nonnull List<String> volumeIds, @Nullable FutureCallback<List<Volume>> callback) throws InternalException, CloudException {
+        if (volumeIds.size() > MAX_VOLUMES_PER_REQUEST) {
+            throw new InternalException("At most " + MAX_VOLUMES_PER_REQUEST + " volumes can be looked up in one request");
+        }
+        QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider())
+                .action("DescribeVolumes");
+        for (int i = 0; i < volumeIds.size(); i++) {
+            requestBuilder.parameter("volumes." + (i + 1), volumeIds.get(i));
+        }
+        HttpUriRequest request = requestBuilder
+                .parameter("limit", volumeIds.size())
+                .parameter("zone", getProvider().getZoneId())
+                .build();
+
+        return new QingCloudAsyncRequester<DescribeVolumesResponseModel, List<Volume>>(
+                getProvider(), request, new VolumesMapper(), DescribeVolumesResponseModel.class).execute(callback);
+    }
+
+    /**
+     * Look up many volumes with as few DescribeVolumes calls as possible, at most {@link #MAX_VOLUMES_PER_REQUEST} ids
+     * are sent in one request.
+     *
+     * @param volumeIds ids of the volumes
+     * @return the found volumes keyed by id, volumes which don't exist are absent
+     */
+    public @Nonnull Map<String, Volume> getVolumes(@Nonnull Collection<String> volumeIds) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.getVolumes");
+        try {
+            Map<String, Volume> result = new HashMap<String, Volume>();
+            List<String> distinctVolumeIds = new ArrayList<String>(new LinkedHashSet<String>(volumeIds));
+            for (int from = 0; from < distinctVolumeIds.size(); from += MAX_VOLUMES_PER_REQUEST) {
+                List<String> chunk = distinctVolumeIds.subList(from,
+                        Math.min(from + MAX_VOLUMES_PER_REQUEST, distinctVolumeIds.size()));
+
+                QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider())
+                        .action("DescribeVolumes");
+                for (int i = 0; i < chunk.size(); i++) {
+                    requestBuilder.parameter("volumes." + (i + 1), chunk.get(i));
+                }
+                HttpUriRequest request = requestBuilder
+                        .parameter("limit", chunk.size())
+                        .parameter("zone", getProvider().getZoneId())
+                        .build();
+
+                Requester<List<Volume>> requester = new QingCloudRequester<DescribeVolumesResponseModel, List<Volume>>(
+                        getProvider(), request, new VolumesMapper(), DescribeVolumesResponseModel.class);
+
+                for (Volume volume : requester.execute()) {
+                    result.put(volume.getProviderVolumeId(), volume);
+                }
+            }
+            return result;
+        } finally {
+            APITrace.end();
+        }
+    }
+
     @Nonnull
     @Override
     public Iterable<Volume> listVolumes() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "Volume.listVolumes");
         try {
-            HttpUriRequest request = QingCloudRequestBuilder.get(getProvider())
-                    .action("DescribeVolumes")
-                    .parameter("limit", "999")
-                    .parameter("zone", getProvider().getZoneId())
-                    .build();
+            final String zoneId = getProvider().getZoneId();
+            return new QingCloudPaginator<DescribeVolumesResponseModel, Volume>(getProvider(),
+                    DescribeVolumesResponseModel.class) {
+                @Override
+                protected QingCloudRequestBuilder newRequestBuilder() {
+                    return QingCloudRequestBuilder.get(getProvider())
+                            .action("DescribeVolumes")
+                            .parameter("zone", zoneId);
+                }
 
-            Requester<List<Volume>> requester = new QingCloudRequester<DescribeVolumesResponseModel, List<Volume>>(
-                    getProvider(), request, new VolumesMapper(), DescribeVolumesResponseModel.class);
+                @Override
+                protected QingCloudDriverToCoreMapper<DescribeVolumesResponseModel, List<Volume>> newMapper() {
+                    return new VolumesMapper();
+                }
+
+                @Override
+                protected QingCloudStreamingMapper<?, Volume> newStreamingMapper() {
+                    return new QingCloudStreamingMapper<DescribeVolumesResponseModel.Volume, Volume>(
+                            "volume_set", DescribeVolumesResponseModel.Volume.class) {
+                        @Override
+                        protected List<Volume> mapItems(List<DescribeVolumesResponseModel.Volume> volumes) {
+                            DescribeVolumesResponseModel responseModel = new DescribeVolumesResponseModel();
+                            responseModel.setVolumes(volumes);
+                            return new VolumesMapper().mapFrom(responseModel);
+                        }
+                    };
+                }
+            }.withParallelFetch(true)
+                    .withStreaming(getProvider().getBooleanConfigurationValue(QingCloud.DSN_STREAMING_LISTINGS, false))
+                    .iterate();
+        } finally {
+            APITrace.end();
+        }
+    }
 
-            return requester.execute();
+    /**
+     * List volumes of several zones concurrently, merged into one stream.
+     *
+     * @param zoneIds zones to list, all zones when null
+     */
+    public @Nonnull Iterable<Volume> listVolumesInZones(@Nullable Collection<String> zoneIds) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "Volume.listVolumesInZones");
+        try {
+            return new QingCloudMultiZoneLister<Volume>(getProvider()) {
+                @Override
+                protected Iterable<Volume> list(QingCloud zoneProvider) throws CloudException, InternalException {
+                    return new QingCloudVolume(zoneProvider).listVolumes();
+                }
+            }.withZones(zoneIds).iterate();
         } finally {
             APITrace.end();
         }
@@ -277,14 +451,128 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
         }
     }
 
+    /**
+     * Wait for the volume to reach the state without blocking, the waiter polls for all volumes of the provider at once.
+     *
+     * @param timeout how long to wait at most, 0 to wait forever
+     * @return future completed with the state once it is reached or the volume is DELETED, failed with a
+     *         {@link java.util.concurrent.TimeoutException} on timeout
+     */
+    public @Nonnull Future<VolumeState> waitForState(@Nonnull String volumeId, @Nonnull final VolumeState state, long timeout,
+            @Nonnull TimeUnit unit, @Nullable FutureCallback<VolumeState> callback) throws InternalException {
+        APITrace.begin(getProvider(), "Volume.waitForState");
+        try {
+            return getProvider().getResourceWaiter(VolumeStateWaiter.class).waitFor(getProvider().getZoneId(), volumeId,
+                    new QingCloudResourceWaiter.Condition<VolumeState>() {
+                        @Override
+                        public boolean isSatisfied(VolumeState currentState) {
+                            return state.equals(currentState) || VolumeState.DELETED.equals(currentState);
+                        }
+                    }, timeout, unit, callback);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void updateTags(@Nonnull String volumeId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        updateTags(new String[] { volumeId }, tags);
+    }
+
+    @Override
+    public void updateTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Volume.updateTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).setResourcesTags(TagResourceType.VOLUME, volumeIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
+
     @Override
     public void removeTags(@Nonnull String volumeId, @Nonnull Tag... tags) throws CloudException, InternalException {
-        //TODO
+        removeTags(new String[] { volumeId }, tags);
     }
 
     @Override
-    public void updateTags(@Nonnull String volumeId, @Nonnull Tag... tags) throws CloudException, InternalException {
-        //TODO
+    public void removeTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Volume.removeTags");
+        try {
+            if (tags.length > 0) {
+                new QingCloudTags(getProvider()).removeResourcesTags(TagResourceType.VOLUME, volumeIds, tags);
+            }
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    @Override
+    public void setTags(@Nonnull String volumeId, @Nonnull Tag... tags) throws CloudException, InternalException {
+        setTags(new String[] { volumeId }, tags);
+    }
+
+    @Override
+    public void setTags(@Nonnull String[] volumeIds, @Nonnull Tag... tags) throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "Volume.setTags");
+        try {
+            new QingCloudTags(getProvider()).replaceResourcesTags(TagResourceType.VOLUME, volumeIds, tags);
+        } finally {
+            APITrace.end();
+        }
+    }
+
+    static private VolumeState mapVolumeState(String state, String transitionState) {
+        if (transitionState != null && !transitionState.equals("")) {
+            return VolumeState.PENDING;
+        }
+
+        if ("pending".equals(state)) {
+            return VolumeState.PENDING;
+        } else if ("available".equals(state) || "in-use".equals(state)) {
+            return VolumeState.AVAILABLE;
+        } else if ("deleted".equals(state) || "ceased".equals(state)) {
+            return VolumeState.DELETED;
+        } else if ("suspended".equals(state)) {
+            return VolumeState.ERROR;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Polls DescribeVolumes for the volumes being waited on, volumes no longer returned are DELETED.
+     */
+    static public class VolumeStateWaiter extends QingCloudResourceWaiter<DescribeVolumesResponseModel, VolumeState> {
+        public VolumeStateWaiter(QingCloud qingCloud) {
+            super(qingCloud, DescribeVolumesResponseModel.class);
+        }
+
+        @Override
+        protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> volumeIds) {
+            QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud).action("DescribeVolumes");
+            for (int i = 0; i < volumeIds.size(); i++) {
+                requestBuilder.parameter("volumes." + (i + 1), volumeIds.get(i));
+            }
+            return requestBuilder;
+        }
+
+        @Override
+        protected Map<String, VolumeState> mapStates(DescribeVolumesResponseModel responseModel) {
+            Map<String, VolumeState> states = new HashMap<String, VolumeState>();
+            if (responseModel.getVolumes() != null) {
+                for (DescribeVolumesResponseModel.Volume volume : responseModel.getVolumes()) {
+                    states.put(volume.getVolumeId(), mapVolumeState(volume.getStatus(), volume.getTransitionStatus()));
+                }
+            }
+            return states;
+        }
+
+        @Override
+        protected VolumeState getAbsentState() {
+            return VolumeState.DELETED;
+        }
     }
 
     private class VolumesMapper extends QingCloudDriverToCoreMapper<DescribeVolumesResponseModel, List<Volume>> {
@@ -306,7 +594,9 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
                     volume.setProviderRegionId(getContext().getRegionId());
                     volume.setProviderDataCenterId(getProvider().getZoneId());
                     volume.setFormat(VolumeFormat.BLOCK);
-                    //TODO, set tags
+                    for (Tag tag : TagModel.toTags(volumeModel.getTags())) {
+                        volume.setTag(tag.getKey(), tag.getValue());
+                    }
                     volumes.add(volume);
                 }
 
@@ -315,23 +605,5 @@ public class QingCloudVolume extends AbstractVolumeSupport<QingCloud> implements
                 throw new RuntimeException(exception);
             }
         }
-
-        private VolumeState mapVolumeState(String state, String transitionState) {
-            if (transitionState != null && !transitionState.equals("")) {
-                return VolumeState.PENDING;
-            }
-
-            if ("pending".equals(state)) {
-                return VolumeState.PENDING;
-            } else if ("available".equals(state) || "in-use".equals(state)) {
-                return VolumeState.AVAILABLE;
-            } else if ("deleted".equals(state) || "ceased".equals(state)) {
-                return VolumeState.DELETED;
-            } else if ("suspended".equals(state)) {
-                return VolumeState.ERROR;
-            } else {
-                return null;
-            }
-        }
     }
 }
@@ -24,6 +24,7 @@ package org.dasein.cloud.qingcloud.compute.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
 
 import java.util.List;
 
@@ -96,6 +97,9 @@ public class DescribeImagesResponseModel extends DescribeResponseModel {
         @JsonProperty("description")
         private String description;
 
+        @JsonProperty("tags")
+        private List<TagModel> tags;
+
         public String getStatus() {
             return status;
         }
@@ -223,5 +227,13 @@ public class DescribeImagesResponseModel extends DescribeResponseModel {
         public void setDescription(String description) {
             this.description = description;
         }
+
+        public List<TagModel> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<TagModel> tags) {
+            this.tags = tags;
+        }
     }
 }
@@ -0,0 +1,96 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+
+import java.util.List;
+
+/**
+ * Projection of DescribeInstances for status polling. Only id, status, transition status and sub code are bound, everything
+ * else of an instance (vxnets, image, eip, security group...) is skipped by the parser without building objects.
+ *
+ * @since 2016.02.1
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DescribeInstanceStatusResponseModel extends DescribeResponseModel {
+
+    @JsonProperty("instance_set")
+    private List<Instance> instances;
+
+    public List<Instance> getInstances() {
+        return instances;
+    }
+
+    public void setInstances(List<Instance> instances) {
+        this.instances = instances;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Instance {
+        @JsonProperty("instance_id")
+        private String instanceId;
+
+        @JsonProperty("status")
+        private String status;
+
+        @JsonProperty("transition_status")
+        private String transitionStatus;
+
+        @JsonProperty("sub_code")
+        private int subCode;
+
+        public String getInstanceId() {
+            return instanceId;
+        }
+
+        public void setInstanceId(String instanceId) {
+            this.instanceId = instanceId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getTransitionStatus() {
+            return transitionStatus;
+        }
+
+        public void setTransitionStatus(String transitionStatus) {
+            this.transitionStatus = transitionStatus;
+        }
+
+        public int getSubCode() {
+            return subCode;
+        }
+
+        public void setSubCode(int subCode) {
+            this.subCode = subCode;
+        }
+    }
+}
@@ -24,6 +24,7 @@ package org.dasein.cloud.qingcloud.compute.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
 
 import java.util.List;
 
@@ -99,6 +100,9 @@ public class DescribeInstancesResponseModel extends DescribeResponseModel {
         @JsonProperty("keypair_ids")
         private List<String> keypairIds;
 
+        @JsonProperty("tags")
+        private List<TagModel> tags;
+
         public String getInstanceId() {
             return instanceId;
         }
@@ -235,6 +239,14 @@ public class DescribeInstancesResponseModel extends DescribeResponseModel {
             this.keypairIds = keypairIds;
         }
 
+        public List<TagModel> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<TagModel> tags) {
+            this.tags = tags;
+        }
+
         public static class Vxnet {
             @JsonProperty("vxnet_name")
             private String vxnetName;
@@ -24,6 +24,7 @@ package org.dasein.cloud.qingcloud.compute.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
 
 import java.util.List;
 
@@ -105,6 +106,9 @@ public class DescribeSnapshotsResponseModel extends DescribeResponseModel {
         @JsonProperty("resource")
         private Resource resource;
 
+        @JsonProperty("tags")
+        private List<TagModel> tags;
+
         public String getSnapshotId() {
             return snapshotId;
         }
@@ -257,6 +261,14 @@ public class DescribeSnapshotsResponseModel extends DescribeResponseModel {
             this.resource = resource;
         }
 
+        public List<TagModel> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<TagModel> tags) {
+            this.tags = tags;
+        }
+
         public static class Resource {
             @JsonProperty("resource_name")
             private String resourceName;
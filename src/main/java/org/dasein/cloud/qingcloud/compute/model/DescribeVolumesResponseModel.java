@@ -24,6 +24,7 @@ package org.dasein.cloud.qingcloud.compute.model;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+import org.dasein.cloud.qingcloud.model.TagModel;
 
 import java.util.List;
 
@@ -78,6 +79,9 @@ public class DescribeVolumesResponseModel extends DescribeResponseModel {
         @JsonProperty("size")
         private int size;
 
+        @JsonProperty("tags")
+        private List<TagModel> tags;
+
         public String getStatus() {
             return status;
         }
@@ -158,6 +162,14 @@ public class DescribeVolumesResponseModel extends DescribeResponseModel {
             this.size = size;
         }
 
+        public List<TagModel> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<TagModel> tags) {
+            this.tags = tags;
+        }
+
         public static class Instance {
             @JsonProperty("instance_id")
             private String instanceId;
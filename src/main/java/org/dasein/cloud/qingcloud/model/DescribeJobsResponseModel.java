@@ -0,0 +1,114 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * @since 2016.02.1
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DescribeJobsResponseModel extends DescribeResponseModel {
+
+    @JsonProperty("job_set")
+    private List<Job> jobs;
+
+    public List<Job> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<Job> jobs) {
+        this.jobs = jobs;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Job {
+        @JsonProperty("job_id")
+        private String jobId;
+
+        @JsonProperty("job_action")
+        private String jobAction;
+
+        @JsonProperty("status")
+        private String status;
+
+        @JsonProperty("resource_ids")
+        private String resourceIds;
+
+        @JsonProperty("create_time")
+        private String createTime;
+
+        @JsonProperty("status_time")
+        private String statusTime;
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public void setJobId(String jobId) {
+            this.jobId = jobId;
+        }
+
+        public String getJobAction() {
+            return jobAction;
+        }
+
+        public void setJobAction(String jobAction) {
+            this.jobAction = jobAction;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getResourceIds() {
+            return resourceIds;
+        }
+
+        public void setResourceIds(String resourceIds) {
+            this.resourceIds = resourceIds;
+        }
+
+        public String getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(String createTime) {
+            this.createTime = createTime;
+        }
+
+        public String getStatusTime() {
+            return statusTime;
+        }
+
+        public void setStatusTime(String statusTime) {
+            this.statusTime = statusTime;
+        }
+    }
+}
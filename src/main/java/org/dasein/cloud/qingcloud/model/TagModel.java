@@ -0,0 +1,83 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.dasein.cloud.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tag of a resource, as returned in the tags of Describe* items. The tag name is the key and the description is the
+ * value.
+ *
+ * @since 2016.02.1
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TagModel {
+    @JsonProperty("tag_id")
+    private String tagId;
+
+    @JsonProperty("tag_name")
+    private String tagName;
+
+    @JsonProperty("description")
+    private String description;
+
+    public String getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(String tagId) {
+        this.tagId = tagId;
+    }
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public void setTagName(String tagName) {
+        this.tagName = tagName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    static public Tag[] toTags(List<TagModel> tagModels) {
+        List<Tag> tags = new ArrayList<Tag>();
+        if (tagModels != null) {
+            for (TagModel tagModel : tagModels) {
+                if (tagModel.getTagName() != null) {
+                    tags.add(new Tag(tagModel.getTagName(), ( tagModel.getDescription() == null ? "" : tagModel.getDescription() )));
+                }
+            }
+        }
+        return tags.toArray(new Tag[tags.size()]);
+    }
+}
@@ -27,7 +27,6 @@ import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.VisibleScope;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.network.AbstractFirewallSupport;
 import org.dasein.cloud.network.Direction;
 import org.dasein.cloud.network.Firewall;
@@ -50,6 +49,7 @@ import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupRulesRespon
 import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupsResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupsResponseModel.DescribeSecurityGroupsResponseItemModel;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
 import org.dasein.cloud.util.APITrace;
@@ -115,7 +115,7 @@ public class QingCloudFirewall extends
 	
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AddSecurityGroupRules");
 			requestBuilder.parameter("security_group", firewallId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("rules.1.protocol", protocol.name().toLowerCase());
 			requestBuilder.parameter("rules.1.priority", precedence);
 			requestBuilder.parameter("rules.1.action", permission.equals(Permission.ALLOW) ? "accept" : "drop");
@@ -154,7 +154,7 @@ public class QingCloudFirewall extends
 			if (options.getName() != null) {
 				requestBuilder.parameter("security_group_name", options.getName());
 			}
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 	        Requester<CreateSecurityGroupResponseModel> requester = new QingCloudRequester<CreateSecurityGroupResponseModel, CreateSecurityGroupResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -189,7 +189,7 @@ public class QingCloudFirewall extends
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteSecurityGroups");
 			requestBuilder.parameter("security_groups.1", firewallId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<DeleteSecurityGroupsResponseModel> requester = new QingCloudRequester<DeleteSecurityGroupsResponseModel, DeleteSecurityGroupsResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -219,7 +219,7 @@ public class QingCloudFirewall extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
 			requestBuilder.parameter("verbose", 1);
 			requestBuilder.parameter("security_groups.1", firewallId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<Firewall>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupsResponseModel, List<Firewall>>(
 	                getProvider(), 
 	                requestBuilder.build(), 
@@ -243,7 +243,7 @@ public class QingCloudFirewall extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroupRules");
 			requestBuilder.parameter("security_group", firewallId);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<FirewallRule>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupRulesResponseModel, List<FirewallRule>>(
 	                getProvider(), 
 	                requestBuilder.build(), 
@@ -264,16 +264,21 @@ public class QingCloudFirewall extends
 	public Iterable<Firewall> list() throws InternalException, CloudException {
 		APITrace.begin(getProvider(), "QingCloudFirewall.list");
 		try {
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
-			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
-			Requester<List<Firewall>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupsResponseModel, List<Firewall>>(
-	                getProvider(), 
-	                requestBuilder.build(), 
-	                new FirewallsMapper(), 
-	                DescribeSecurityGroupsResponseModel.class);
-			return subnetRequester.execute();
+			final String zone = getProvider().getProviderDataCenterId();
+			return new QingCloudPaginator<DescribeSecurityGroupsResponseModel, Firewall>(getProvider(), DescribeSecurityGroupsResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
+					requestBuilder.parameter("verbose", 1);
+					requestBuilder.parameter("zone", zone);
+					return requestBuilder;
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeSecurityGroupsResponseModel, List<Firewall>> newMapper() {
+					return new FirewallsMapper();
+				}
+			}.withParallelFetch(true).iterate();
 		} finally {
 			APITrace.end();
 		}
@@ -308,7 +313,7 @@ public class QingCloudFirewall extends
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteSecurityGroupRules");
 			requestBuilder.parameter("security_group_rules.1", generator.getFirewallRuleId());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<DeleteSecurityGroupRulesResponseModel> requester = new QingCloudRequester<DeleteSecurityGroupRulesResponseModel, DeleteSecurityGroupRulesResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -325,20 +330,11 @@ public class QingCloudFirewall extends
 		}
 	}
 
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-        Iterable<DataCenter> dataCenters = getProvider().getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
-	}
-	
 	private void applySecurityGroup(String securityGroupId, List<String> instanceIds) 
 			throws InternalException, CloudException {
 		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ApplySecurityGroup");
 		requestBuilder.parameter("security_group", securityGroupId);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		if (instanceIds != null && instanceIds.size() > 0) {
 			for (int i = 0; i < instanceIds.size(); i++) {
 				requestBuilder.parameter("instances." + (i + 1), instanceIds.get(i));
@@ -21,6 +21,7 @@
 package org.dasein.cloud.qingcloud.network;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -33,7 +34,6 @@ import org.dasein.cloud.InternalException;
 import org.dasein.cloud.OperationNotSupportedException;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.compute.VirtualMachine;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.network.AbstractIpAddressSupport;
 import org.dasein.cloud.network.AddressType;
 import org.dasein.cloud.network.IPAddressCapabilities;
@@ -46,6 +46,9 @@ import org.dasein.cloud.network.RawAddress;
 import org.dasein.cloud.qingcloud.QingCloud;
 import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudMultiZoneLister;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
 import org.dasein.cloud.util.APITrace;
@@ -106,7 +109,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AssociateEip");
 			requestBuilder.parameter("eip", addressId);
 			requestBuilder.parameter("instance", serverId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(getProvider(), request, SimpleJobResponseModel.class);
             requester.execute();
@@ -131,7 +134,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 				throw new InternalException("Invalid address id!");
 			}
 			
-			final String zone = getProviderDataCenterId();
+			final String zone = getProvider().getProviderDataCenterId();
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
 			requestBuilder.parameter("eips.1", addressId);
 			requestBuilder.parameter("verbose", 1);
@@ -169,32 +172,57 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 				return Collections.emptyList();
 			}
 			
-			final String zone = getProviderDataCenterId();
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
-			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", zone);
-			HttpUriRequest request = requestBuilder.build();
-            Requester<List<IpAddress>> requester = new QingCloudRequester<DescribeEipsResponseModel, List<IpAddress>>(
-                    getProvider(), 
-                    request, 
-                    new IpAddressesMapper(), 
-                    DescribeEipsResponseModel.class);
-            
-            if (unassignedOnly) {
-	            List<IpAddress> ipAddresses = new ArrayList<IpAddress>();
-	            for (IpAddress ipAddress : requester.execute()) {
-	            	if (ipAddress.getServerId() == null && 
-	            			ipAddress.getProviderLoadBalancerId() == null && 
-	            			ipAddress.getProviderVlanId() == null) {
-	            		ipAddresses.add(ipAddress);
-	            	}
-	            }
-	            return ipAddresses;
-            } else {
-            	return requester.execute();
-            }
-            
+			final String zone = getProvider().getProviderDataCenterId();
+			return new QingCloudPaginator<DescribeEipsResponseModel, IpAddress>(getProvider(), DescribeEipsResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
+					requestBuilder.parameter("verbose", 1);
+					requestBuilder.parameter("zone", zone);
+					if (unassignedOnly) { //an eip not associated to any resource is available
+						new QingCloudFilter().withStatuses(Collections.singletonList("available")).applyTo(requestBuilder);
+					}
+					return requestBuilder;
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeEipsResponseModel, List<IpAddress>> newMapper() {
+					return new QingCloudDriverToCoreMapper<DescribeEipsResponseModel, List<IpAddress>>() {
+						@Override
+						protected List<IpAddress> doMapFrom(DescribeEipsResponseModel responseModel) {
+							List<IpAddress> ipAddresses = new ArrayList<IpAddress>();
+							for (IpAddress ipAddress : new IpAddressesMapper().mapFrom(responseModel)) {
+								if (!unassignedOnly || (ipAddress.getServerId() == null &&
+										ipAddress.getProviderLoadBalancerId() == null &&
+										ipAddress.getProviderVlanId() == null)) {
+									ipAddresses.add(ipAddress);
+								}
+							}
+							return ipAddresses;
+						}
+					};
+				}
+			}.withParallelFetch(true).iterate();
+		} finally {
+			APITrace.end();
+		}
+	}
+
+	/**
+	 * List the IP pool of several zones concurrently, merged into one stream.
+	 * 
+	 * @param zoneIds zones to list, all zones when null
+	 */
+	public Iterable<IpAddress> listIpPoolInZones(Collection<String> zoneIds, final IPVersion version,
+			final boolean unassignedOnly) throws InternalException, CloudException {
+		APITrace.begin(getProvider(), "QingCloudIpAddress.listIpPoolInZones");
+		try {
+			return new QingCloudMultiZoneLister<IpAddress>(getProvider()) {
+				@Override
+				protected Iterable<IpAddress> list(QingCloud zoneProvider) throws CloudException, InternalException {
+					return new QingCloudIpAddress(zoneProvider).listIpPool(version, unassignedOnly);
+				}
+			}.withZones(zoneIds).iterate();
 		} finally {
 			APITrace.end();
 		}
@@ -210,7 +238,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 				return Collections.emptyList();
 			}
 			
-			final String zone = getProviderDataCenterId();
+			final String zone = getProvider().getProviderDataCenterId();
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
 			requestBuilder.parameter("zone", zone);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
@@ -248,7 +276,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			//release from pool
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ReleaseEips");
 			requestBuilder.parameter("eips.1", addressId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(getProvider(), request, SimpleJobResponseModel.class);
             requester.execute();
@@ -297,7 +325,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AllocateEips");
 			requestBuilder.parameter("bandwidth", DefaultIpAddressBandwidth);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
             Requester<AllocateEipsResponseModel> requester = new QingCloudRequester<AllocateEipsResponseModel, AllocateEipsResponseModel>(
                     getProvider(), request, AllocateEipsResponseModel.class);
@@ -350,7 +378,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
 			requestBuilder.parameter("eips.1", addressId);
 			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
 			IpAddressesMapper mapper = new IpAddressesMapper();
 			Requester<List<IpAddress>> requester = new QingCloudRequester<DescribeEipsResponseModel, List<IpAddress>>(
@@ -371,7 +399,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 					requestBuilder.parameter("statics.1.val1", publicPort);
 					requestBuilder.parameter("statics.1.val2", onServerIpAddress);
 					requestBuilder.parameter("statics.1.val3", privatePort);
-					requestBuilder.parameter("zone", getProviderDataCenterId());
+					requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 					Requester<AddRouterStaticsResponseModel> addRouterStaticsRequester = new QingCloudRequester<AddRouterStaticsResponseModel, AddRouterStaticsResponseModel>(
 			                getProvider(), requestBuilder.build(), AddRouterStaticsResponseModel.class);
 					AddRouterStaticsResponseModel model = addRouterStaticsRequester.execute();
@@ -398,7 +426,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeEips");
 			requestBuilder.parameter("verbose", 1);
 			requestBuilder.parameter("eips.1", addressId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
 			IpAddressesMapper mapper = new IpAddressesMapper();
 			Requester<List<IpAddress>> requester = new QingCloudRequester<DescribeEipsResponseModel, List<IpAddress>>(
@@ -420,7 +448,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 			}
 			
 			requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouterStatics");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("router", resource.getId());
 			requestBuilder.parameter("static_type", 1);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
@@ -442,7 +470,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 		try {
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteRouterStatics");
 			requestBuilder.parameter("router_statics.1", ruleId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<DeleteRouterStaticsResponseModel> addRouterStaticsRequester = new QingCloudRequester<DeleteRouterStaticsResponseModel, DeleteRouterStaticsResponseModel>(
 	                getProvider(), requestBuilder.build(), DeleteRouterStaticsResponseModel.class);
 			DeleteRouterStaticsResponseModel model = addRouterStaticsRequester.execute();
@@ -462,16 +490,6 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 		stopForward(ruleId);
 	}
 
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-
-        Iterable<DataCenter> dataCenters = getProvider().getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
-	}
-	
 	private IpAddress getIpAddressByAddress(String address) throws InternalException, CloudException {
 		for(IpAddress ipAddress : listIpPool(IPVersion.IPV4, false)) {
 			if (ipAddress.getRawAddress().getIpAddress().equals(address)) {
@@ -484,7 +502,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 	private String getVlanCidrByRouterId(String routerId) throws InternalException, CloudException {
 		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouters");
 		requestBuilder.parameter("routers.1", routerId);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		Requester<String> requester = new QingCloudRequester<DescribeRoutersResponseModel, String>(
                 getProvider(), 
                 requestBuilder.build(), 
@@ -510,7 +528,7 @@ public class QingCloudIpAddress extends AbstractIpAddressSupport<QingCloud>
 		if (ipAddress.getServerId() != null || ipAddress.getProviderLoadBalancerId() != null || ipAddress.getProviderVlanId() != null) { 
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DissociateEips");
 			requestBuilder.parameter("eips.1", addressId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			HttpUriRequest request = requestBuilder.build();
             Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(getProvider(), request, SimpleJobResponseModel.class);
             requester.execute();
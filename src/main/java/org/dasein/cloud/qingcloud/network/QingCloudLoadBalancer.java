@@ -24,12 +24,20 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.OperationNotSupportedException;
 import org.dasein.cloud.ResourceStatus;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.network.AbstractLoadBalancerSupport;
 import org.dasein.cloud.network.HealthCheckFilterOptions;
 import org.dasein.cloud.network.HealthCheckOptions;
@@ -61,11 +69,17 @@ import org.dasein.cloud.qingcloud.network.model.DeleteLoadBalancerListenersRespo
 import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerListenersResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerListenersResponseModel.DescribeLoadBalancerListenersResponseItemModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerListenersResponseModel.DescribeLoadBalancerListenersResponseItemModel.DescribeLoadBalancerListenerBackends;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerStatusResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancerStatusResponseModel.DescribeLoadBalancerStatusResponseItemModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancersResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeLoadBalancersResponseModel.DescribeLoadBalancersResponseItemModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeServerCertificatesResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeServerCertificatesResponseModel.DescribeServerCertificatesResponseItemModel;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudAsyncRequester;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudChainedCallback;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
 import org.dasein.cloud.util.APITrace;
@@ -90,6 +104,7 @@ public class QingCloudLoadBalancer extends
 	
 	private static final String HealthCheckMethodHttp = "http|%s|%s";
 	private static final String HealthCheckOption = "%d|%d|%d|%d";
+	private static final String OptionSeparator = "\\|";
 	
 	private static final Integer DefaultLoadBalancerHealthCheckInterval = 10;
 	private static final Integer DefaultLoadBalancerHealthCheckTimeout = 5;
@@ -117,7 +132,7 @@ public class QingCloudLoadBalancer extends
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AddLoadBalancerListeners");
 			requestBuilder.parameter("loadbalancer", toLoadBalancerId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			for (int i = 0; i < listeners.length; i++) {
 				
 				LbListener listener = listeners[i];
@@ -193,7 +208,7 @@ public class QingCloudLoadBalancer extends
 			
 			//search public port mapping listener, one listener for one public port
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteLoadBalancerListeners");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			List<QingCloudLbListener> lbListeners = listListeners(toLoadBalancerId);
 			if (lbListeners != null && lbListeners.size() > 0) {
 				for (int i = 0; i < listeners.length; i++) {
@@ -233,7 +248,7 @@ public class QingCloudLoadBalancer extends
 			List<QingCloudLbListener> listeners = listListeners(toLoadBalancerId);
 			for (QingCloudLbListener listener : listeners) {
 				QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AddLoadBalancerBackends");
-				requestBuilder.parameter("zone", getProviderDataCenterId());
+				requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 				requestBuilder.parameter("loadbalancer_listener", listener.getListenerId());
 				for (int i = 0; i < serverIdsToAdd.length; i++) {
 					String serverIdToAdd = serverIdsToAdd[i];
@@ -260,7 +275,7 @@ public class QingCloudLoadBalancer extends
 		try {
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("CreateLoadBalancer");
 			requestBuilder.parameter("loadbalancer_name", options.getName());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			if (options.getFirewallIds() != null && options.getFirewallIds().length > 0) {
 				requestBuilder.parameter("security_group", options.getFirewallIds()[0]);
 			}
@@ -284,7 +299,7 @@ public class QingCloudLoadBalancer extends
 				requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ModifyLoadBalancerAttributes");
 				requestBuilder.parameter("loadbalancer", response.getLoadbalancerId());
 				requestBuilder.parameter("description", options.getDescription());
-				requestBuilder.parameter("zone", getProviderDataCenterId());
+				requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 				Requester<ResponseModel> modifyLoadBalancerAttributeResponse = new QingCloudRequester<ResponseModel, ResponseModel>(
 	                    getProvider(), 
 	                    requestBuilder.build(), 
@@ -314,13 +329,9 @@ public class QingCloudLoadBalancer extends
 				throw new InternalException("Load balancer id cannot be null!");
 			}
 			
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancers");
-			requestBuilder.parameter("loadbalancers.1", loadBalancerId);
-			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
 			Requester<List<LoadBalancer>> requester = new QingCloudRequester<DescribeLoadBalancersResponseModel, List<LoadBalancer>>(
                     getProvider(), 
-                    requestBuilder.build(), 
+                    newDescribeLoadBalancerRequest(loadBalancerId), 
                     new LoadBalancersMapper(), 
                     DescribeLoadBalancersResponseModel.class);
             List<LoadBalancer> loadBalancers = requester.execute();
@@ -332,6 +343,76 @@ public class QingCloudLoadBalancer extends
 			APITrace.end();
 		}
 	}
+	
+	/**
+	 * Asynchronous {@link #getLoadBalancer(String)}. The load balancer and its listeners are requested concurrently.
+	 */
+	public Future<LoadBalancer> getLoadBalancerAsync(final String loadBalancerId, FutureCallback<LoadBalancer> callback)
+			throws CloudException, InternalException {
+		APITrace.begin(getProvider(), "QingCloudLoadBalancer.getLoadBalancerAsync");
+		try {
+			
+			if (loadBalancerId == null) {
+				throw new InternalException("Load balancer id cannot be null!");
+			}
+			
+			final BasicFuture<LoadBalancer> future = new BasicFuture<LoadBalancer>(callback);
+			final AtomicReference<DescribeLoadBalancersResponseModel> loadBalancers = new AtomicReference<DescribeLoadBalancersResponseModel>();
+			final AtomicReference<List<QingCloudLbListener>> listeners = new AtomicReference<List<QingCloudLbListener>>();
+			final AtomicInteger pending = new AtomicInteger(2);
+			
+			//whichever response comes last maps the load balancer
+			new QingCloudAsyncRequester<ResponseModel, DescribeLoadBalancersResponseModel>(
+					getProvider(), 
+					newDescribeLoadBalancerRequest(loadBalancerId), 
+					DescribeLoadBalancersResponseModel.class).execute(
+					new QingCloudChainedCallback<DescribeLoadBalancersResponseModel, LoadBalancer>(future) {
+						@Override
+						protected void onCompleted(DescribeLoadBalancersResponseModel responseModel) throws Exception {
+							loadBalancers.set(responseModel);
+							if (pending.decrementAndGet() == 0) {
+								completeLoadBalancer(future, loadBalancerId, loadBalancers.get(), listeners.get());
+							}
+						}
+					});
+			new QingCloudAsyncRequester<DescribeLoadBalancerListenersResponseModel, List<QingCloudLbListener>>(
+					getProvider(), 
+					newDescribeListenersRequest(loadBalancerId), 
+					new LoadBalancerListenersMapper(), 
+					DescribeLoadBalancerListenersResponseModel.class).execute(
+					new QingCloudChainedCallback<List<QingCloudLbListener>, LoadBalancer>(future) {
+						@Override
+						protected void onCompleted(List<QingCloudLbListener> result) throws Exception {
+							listeners.set(result);
+							if (pending.decrementAndGet() == 0) {
+								completeLoadBalancer(future, loadBalancerId, loadBalancers.get(), listeners.get());
+							}
+						}
+					});
+			return future;
+		} finally {
+			APITrace.end();
+		}
+	}
+	
+	private void completeLoadBalancer(BasicFuture<LoadBalancer> future, String loadBalancerId, 
+			DescribeLoadBalancersResponseModel responseModel, List<QingCloudLbListener> listeners) throws InternalException {
+		Map<String, List<QingCloudLbListener>> listenersByLoadBalancer = new HashMap<String, List<QingCloudLbListener>>();
+		listenersByLoadBalancer.put(loadBalancerId, listeners);
+		List<LoadBalancer> loadBalancers = new LoadBalancersMapper(listenersByLoadBalancer).mapFrom(responseModel);
+		if (loadBalancers == null || loadBalancers.size() == 0) {
+			throw new InternalException("Get load balancer " + loadBalancerId + " failed!");
+		}
+		future.completed(loadBalancers.get(0));
+	}
+	
+	private HttpUriRequest newDescribeLoadBalancerRequest(String loadBalancerId) throws CloudException, InternalException {
+		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancers");
+		requestBuilder.parameter("loadbalancers.1", loadBalancerId);
+		requestBuilder.parameter("verbose", 1);
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
+		return requestBuilder.build();
+	}
 
 	@Override
 	public boolean isSubscribed() throws CloudException, InternalException {
@@ -341,18 +422,29 @@ public class QingCloudLoadBalancer extends
 	@Override
 	public Iterable<LoadBalancer> listLoadBalancers() throws CloudException,
 			InternalException {
+		return listLoadBalancers(true, new QingCloudFilter());
+	}
+	
+	private Iterable<LoadBalancer> listLoadBalancers(final boolean withListeners, final QingCloudFilter filter) throws CloudException,
+			InternalException {
 		APITrace.begin(getProvider(), "QingCloudLoadBalancer.listLoadBalancers");
 		try {
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancers");
-			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
-			Requester<List<LoadBalancer>> requester = new QingCloudRequester<DescribeLoadBalancersResponseModel, List<LoadBalancer>>(
-                    getProvider(), 
-                    requestBuilder.build(), 
-                    new LoadBalancersMapper(), 
-                    DescribeLoadBalancersResponseModel.class);
-            return requester.execute();
+			final String zone = getProvider().getProviderDataCenterId();
+			final ListingListeners listingListeners = ( withListeners ? new ListingListeners() : null );
+			return new QingCloudPaginator<DescribeLoadBalancersResponseModel, LoadBalancer>(getProvider(), DescribeLoadBalancersResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancers");
+					requestBuilder.parameter("verbose", 1);
+					requestBuilder.parameter("zone", zone);
+					return filter.applyTo(requestBuilder);
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeLoadBalancersResponseModel, List<LoadBalancer>> newMapper() {
+					return new LoadBalancersMapper(listingListeners);
+				}
+			}.withParallelFetch(true).iterate();
 		} finally {
 			APITrace.end();
 		}
@@ -363,11 +455,21 @@ public class QingCloudLoadBalancer extends
 			throws CloudException, InternalException {
 		APITrace.begin(getProvider(), "QingCloudLoadBalancer.listLoadBalancerStatus");
 		try {
-			List<ResourceStatus> statuses = new ArrayList<ResourceStatus>();
-			for(LoadBalancer loadBalancer : listLoadBalancers()) {
-				statuses.add(new ResourceStatus(loadBalancer.getProviderLoadBalancerId(), loadBalancer.getCurrentState()));
-			}
-			return statuses;
+			final String zone = getProvider().getProviderDataCenterId();
+			return new QingCloudPaginator<DescribeLoadBalancerStatusResponseModel, ResourceStatus>(getProvider(), DescribeLoadBalancerStatusResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancers");
+					requestBuilder.parameter("verbose", 0);
+					requestBuilder.parameter("zone", zone);
+					return requestBuilder;
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeLoadBalancerStatusResponseModel, List<ResourceStatus>> newMapper() {
+					return new LoadBalancerStatusMapper();
+				}
+			}.withParallelFetch(true).list();
 		} finally {
 			APITrace.end();
 		}
@@ -385,7 +487,7 @@ public class QingCloudLoadBalancer extends
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteLoadBalancers");
 			requestBuilder.parameter("loadbalancers.1", loadBalancerId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -411,7 +513,7 @@ public class QingCloudLoadBalancer extends
 			}
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteLoadBalancerBackends");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			
 			List<QingCloudLbListener> listeners = listListeners(fromLoadBalancerId);
 			int backendCount = 0;
@@ -489,7 +591,7 @@ public class QingCloudLoadBalancer extends
 				healthyCount = options.getHealthyCount();
 			}
 			requestBuilder.parameter("healthy_check_option", String.format(HealthCheckOption, interval, timeout, unhealthyCount, healthyCount));
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -613,7 +715,7 @@ public class QingCloudLoadBalancer extends
 			}
 			requestBuilder.parameter("healthy_check_option", 
 					String.format(HealthCheckOption, interval, timeout, unhealthyCount, healthyCount));			
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			
 			Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
                     getProvider(), 
@@ -651,7 +753,7 @@ public class QingCloudLoadBalancer extends
 								DefaultLoadBalancerHealthCheckTimeout, 
 								DefaultLoadBalancerHealthCheckUnhealthyCount, 
 								DefaultLoadBalancerHealthCheckHealthyCount));
-				requestBuilder.parameter("zone", getProviderDataCenterId());
+				requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 				Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
 	                    getProvider(), 
 	                    requestBuilder.build(), 
@@ -674,7 +776,7 @@ public class QingCloudLoadBalancer extends
 			requestBuilder.parameter("server_certificate_name", options.getCertificateName());
 			requestBuilder.parameter("certificate_content", options.getCertificateBody());
 			requestBuilder.parameter("private_key", options.getPrivateKey());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<CreateServerCertificateResponseModel> requester = new QingCloudRequester<CreateServerCertificateResponseModel, CreateServerCertificateResponseModel>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -698,7 +800,7 @@ public class QingCloudLoadBalancer extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeServerCertificates");
 			requestBuilder.parameter("verbose", 1);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<SSLCertificate>> requester = new QingCloudRequester<DescribeServerCertificatesResponseModel, List<SSLCertificate>>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -724,7 +826,7 @@ public class QingCloudLoadBalancer extends
 				if (sslCertificate.getCertificateName().equals(certificateName)) {
 					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteServerCertificates");
 					requestBuilder.parameter("server_certificates.1", sslCertificate.getProviderCertificateId());
-					requestBuilder.parameter("zone", getProviderDataCenterId());
+					requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 					Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
 		                    getProvider(), 
 		                    requestBuilder.build(), 
@@ -759,7 +861,7 @@ public class QingCloudLoadBalancer extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ModifyLoadBalancerListenerAttributes");
 			requestBuilder.parameter("loadbalancer_listener", listener.getListenerId());
 			requestBuilder.parameter("server_certificate_id", sslCertificate.getProviderCertificateId());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -824,7 +926,7 @@ public class QingCloudLoadBalancer extends
 		}
 		requestBuilder.parameter("verbose", 1);
 		requestBuilder.parameter("limit", DefaultResponseDataLimit);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		
 		Requester<List<LoadBalancerHealthCheck>> requester = new QingCloudRequester<DescribeLoadBalancerListenersResponseModel, List<LoadBalancerHealthCheck>>(
                 getProvider(), 
@@ -839,7 +941,7 @@ public class QingCloudLoadBalancer extends
 		for (int i = 0; i < ids.length; i++) {
 			requestBuilder.parameter("loadbalancers." + (i + 1), ids[i]);
 		}
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
                 getProvider(), 
                 requestBuilder.build(), 
@@ -848,9 +950,11 @@ public class QingCloudLoadBalancer extends
 	}
 	
 	private LoadBalancer getLoadBalancerByName(String name) throws CloudException, InternalException {
-		for(LoadBalancer loadBalancer : listLoadBalancers()) {
+		//search word also matches other names containing it, so the name is still compared. Only the listeners of the
+		//matched load balancer are fetched, with the load balancer itself
+		for(LoadBalancer loadBalancer : listLoadBalancers(false, new QingCloudFilter().withSearchWord(name))) {
 			if (loadBalancer.getName().equals(name)) {
-				return loadBalancer;
+				return getLoadBalancer(loadBalancer.getProviderLoadBalancerId());
 			}
 		}
 		return null;
@@ -871,30 +975,92 @@ public class QingCloudLoadBalancer extends
 	
 	private List<QingCloudLbListener> listListeners(String toLoadBalancerId) 
 			throws InternalException, CloudException {
+		Requester<List<QingCloudLbListener>> requester = new QingCloudRequester<DescribeLoadBalancerListenersResponseModel, List<QingCloudLbListener>>(
+                getProvider(), 
+                newDescribeListenersRequest(toLoadBalancerId), 
+                new LoadBalancerListenersMapper(), 
+                DescribeLoadBalancerListenersResponseModel.class);
+        return requester.execute();
+	}
+	
+	private HttpUriRequest newDescribeListenersRequest(String toLoadBalancerId) throws InternalException, CloudException {
 		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancerListeners");
 		if (toLoadBalancerId != null) {
 			requestBuilder.parameter("loadbalancer", toLoadBalancerId);
 		}
 		requestBuilder.parameter("verbose", 1);
 		requestBuilder.parameter("limit", DefaultResponseDataLimit);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
-		
-		Requester<List<QingCloudLbListener>> requester = new QingCloudRequester<DescribeLoadBalancerListenersResponseModel, List<QingCloudLbListener>>(
-                getProvider(), 
-                requestBuilder.build(), 
-                new LoadBalancerListenersMapper(), 
-                DescribeLoadBalancerListenersResponseModel.class);
-        return requester.execute();
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
+		return requestBuilder.build();
 	}
 	
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-
-        Iterable<DataCenter> dataCenters = getProvider().getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
+	/**
+	 * Listeners of the load balancers mapped by one listing, grouped by load balancer id. A page of one load balancer
+	 * fetches the listeners of that load balancer only. Otherwise the listeners of the whole zone are paged through once
+	 * and shared by all pages of the listing, instead of once per page.
+	 */
+	private class ListingListeners {
+		
+		private Map<String, List<QingCloudLbListener>> zoneListeners;
+		
+		public Map<String, List<QingCloudLbListener>> get(Collection<String> loadBalancerIds) 
+				throws InternalException, CloudException {
+			Map<String, List<QingCloudLbListener>> listenersByLoadBalancer = new HashMap<String, List<QingCloudLbListener>>();
+			if (loadBalancerIds.size() == 1 && !isZoneLoaded()) {
+				String loadBalancerId = loadBalancerIds.iterator().next();
+				listenersByLoadBalancer.put(loadBalancerId, listListeners(loadBalancerId));
+				return listenersByLoadBalancer;
+			}
+			
+			Map<String, List<QingCloudLbListener>> zoneListeners = getZoneListeners();
+			for (String loadBalancerId : loadBalancerIds) {
+				List<QingCloudLbListener> listeners = zoneListeners.get(loadBalancerId);
+				listenersByLoadBalancer.put(loadBalancerId, 
+						listeners != null ? listeners : new ArrayList<QingCloudLbListener>());
+			}
+			return listenersByLoadBalancer;
+		}
+		
+		private synchronized boolean isZoneLoaded() {
+			return zoneListeners != null;
+		}
+		
+		/*
+		 * Called while mapping pages, which may run on the parallel executor, so the listener pages are fetched 
+		 * sequentially. Pages mapped meanwhile wait for this single download.
+		 */
+		private synchronized Map<String, List<QingCloudLbListener>> getZoneListeners() 
+				throws InternalException, CloudException {
+			if (zoneListeners == null) {
+				final String zone = getProvider().getProviderDataCenterId();
+				List<QingCloudLbListener> listeners = new QingCloudPaginator<DescribeLoadBalancerListenersResponseModel, QingCloudLbListener>(getProvider(), DescribeLoadBalancerListenersResponseModel.class) {
+					@Override
+					protected QingCloudRequestBuilder newRequestBuilder() {
+						QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeLoadBalancerListeners");
+						requestBuilder.parameter("verbose", 1);
+						requestBuilder.parameter("zone", zone);
+						return requestBuilder;
+					}
+	
+					@Override
+					protected QingCloudDriverToCoreMapper<DescribeLoadBalancerListenersResponseModel, List<QingCloudLbListener>> newMapper() {
+						return new LoadBalancerListenersMapper();
+					}
+				}.list();
+				
+				Map<String, List<QingCloudLbListener>> listenersByLoadBalancer = new HashMap<String, List<QingCloudLbListener>>();
+				for (QingCloudLbListener listener : listeners) {
+					List<QingCloudLbListener> listenersOfLoadBalancer = listenersByLoadBalancer.get(listener.getLoadBalancerId());
+					if (listenersOfLoadBalancer == null) {
+						listenersOfLoadBalancer = new ArrayList<QingCloudLbListener>();
+						listenersByLoadBalancer.put(listener.getLoadBalancerId(), listenersOfLoadBalancer);
+					}
+					listenersOfLoadBalancer.add(listener);
+				}
+				zoneListeners = listenersByLoadBalancer;
+			}
+			return zoneListeners;
+		}
 	}
 	
 	private class SSLCertificatesMapper extends QingCloudDriverToCoreMapper<DescribeServerCertificatesResponseModel, List<SSLCertificate>> {
@@ -995,6 +1161,24 @@ public class QingCloudLoadBalancer extends
 		}
 	}
 	
+	/**
+	 * Splits a "|" separated listener option such as "http|/health|host" or "10|5|2|5". Empty segments are kept, so
+	 * the segment indexes of an option never shift.
+	 */
+	private static String[] splitOption(String option) {
+		if (option == null) {
+			return new String[] {""};
+		}
+		return option.split(OptionSeparator, -1);
+	}
+	
+	private static String optionSegment(String[] segments, int index) {
+		if (index < segments.length && segments[index].length() > 0) {
+			return segments[index];
+		}
+		return null;
+	}
+	
 	private class LoadBalancerHealthChecksMapper extends QingCloudDriverToCoreMapper<DescribeLoadBalancerListenersResponseModel, List<LoadBalancerHealthCheck>> {
 		@Override
 		protected List<LoadBalancerHealthCheck> doMapFrom(
@@ -1003,7 +1187,10 @@ public class QingCloudLoadBalancer extends
 				List<LoadBalancerHealthCheck> healthChecks = new ArrayList<LoadBalancerHealthCheck>();
 				if (responseModel != null && responseModel.getLoadbalancerListenerSet() != null) {
 					for (DescribeLoadBalancerListenersResponseItemModel listener : responseModel.getLoadbalancerListenerSet()) {
-						String[] healthcheckOptionSegments = listener.getHealthyCheckOption().split("|");
+						String[] healthcheckOptionSegments = splitOption(listener.getHealthyCheckOption());
+						if (healthcheckOptionSegments.length < 4) {
+							continue;
+						}
 						LoadBalancerHealthCheck healthCheck = LoadBalancerHealthCheck.getInstance(listener.getLoadBalancerListenerId(), 
 								null, 
 								null, 
@@ -1035,26 +1222,27 @@ public class QingCloudLoadBalancer extends
 		}
 		
 		private String mapHostFromMethod(String method) {
-			if (method.split("|")[0].equals("http")) {
-				return method.split("|")[2];
+			String[] methodSegments = splitOption(method);
+			if (methodSegments[0].equals("http")) {
+				return optionSegment(methodSegments, 2);
 			}
 			return null;
 		}
 		
 		private String mapPathFromMethod(String method) {
-			if (method.split("|")[0].equals("http")) {
-				return method.split("|")[1];
+			String[] methodSegments = splitOption(method);
+			if (methodSegments[0].equals("http")) {
+				return optionSegment(methodSegments, 1);
 			}
 			return null;
 		}
 		
 		private HCProtocol mapProtocolFromMethod(String method) {
-			if (method != null) {
-				if (method.split("|")[0].equals("tcp")) {
-					return HCProtocol.TCP;
-				} else if (method.split("|")[0].equals("http")) {
-					return HCProtocol.HTTP;
-				} 
+			String[] methodSegments = splitOption(method);
+			if (methodSegments[0].equals("tcp")) {
+				return HCProtocol.TCP;
+			} else if (methodSegments[0].equals("http")) {
+				return HCProtocol.HTTP;
 			}
 			return null;
 		}
@@ -1076,7 +1264,7 @@ public class QingCloudLoadBalancer extends
 							mapProtocolFromListenerProtocol(item.getListenerProtocol()), 
 							item.getListenerPort(), 
 							item.getListenerPort());
-						String loadBalancerId = null;
+						String loadBalancerId = item.getLoadbalancerId();
 						if (item.getBackends() != null && item.getBackends().size() > 0) {
 							for (DescribeLoadBalancerListenerBackends backend : item.getBackends()) {
 								listener.addBackends(new QingCloudLbListenerBackend(
@@ -1092,6 +1280,7 @@ public class QingCloudLoadBalancer extends
 							}
 						}
 						listener.withLoadBalancer(loadBalancerId);
+						listeners.add(listener);
 					}
 				}
 				return listeners;
@@ -1114,10 +1303,9 @@ public class QingCloudLoadBalancer extends
 		}
 		
 		private String mapCookieFromSessionSticky(String sessionSticky) {
-			if (sessionSticky != null) {
-				if (sessionSticky.split("|")[0].equals("prefix")) {
-					return sessionSticky.split("|")[1];
-				}
+			String[] sessionStickySegments = splitOption(sessionSticky);
+			if (sessionStickySegments[0].equals("prefix")) {
+				return optionSegment(sessionStickySegments, 1);
 			}
 			return null;
 		}
@@ -1136,20 +1324,78 @@ public class QingCloudLoadBalancer extends
 		}
 	}
 	
+	private LoadBalancerState mapFromStatus(String status, String transitionStatus) {
+		if (status.equals("pending")) {
+			return LoadBalancerState.PENDING;
+		} else if (status.equals("active")) {
+			return LoadBalancerState.ACTIVE;
+		} else if (status.equals("stopped") || status.equals("suspended") || status.equals("deleted") || status.equals("ceased")) {
+			return LoadBalancerState.TERMINATED;
+		}
+		return null;
+	}
+	
+	private class LoadBalancerStatusMapper extends QingCloudDriverToCoreMapper<DescribeLoadBalancerStatusResponseModel, List<ResourceStatus>> {
+		
+		@Override
+		protected List<ResourceStatus> doMapFrom(DescribeLoadBalancerStatusResponseModel responseModel) {
+			List<ResourceStatus> statuses = new ArrayList<ResourceStatus>();
+			if (responseModel != null && responseModel.getLoadbalancerSet() != null) {
+				for (DescribeLoadBalancerStatusResponseItemModel item : responseModel.getLoadbalancerSet()) {
+					statuses.add(new ResourceStatus(item.getLoadbalancerId(), mapFromStatus(item.getStatus(), item.getTransitionStatus())));
+				}
+			}
+			return statuses;
+		}
+	}
+	
 	private class LoadBalancersMapper extends QingCloudDriverToCoreMapper<DescribeLoadBalancersResponseModel, List<LoadBalancer>> {
+		
+		private ListingListeners listingListeners;
+		private Map<String, List<QingCloudLbListener>> listenersByLoadBalancer;
+		
+		public LoadBalancersMapper() {
+			this(new ListingListeners());
+		}
+		
+		/**
+		 * Map with listeners fetched through the listeners shared by the pages of a listing, no listeners if null.
+		 */
+		public LoadBalancersMapper(ListingListeners listingListeners) {
+			this.listingListeners = listingListeners;
+		}
+		
+		/**
+		 * Map with listeners already fetched, keyed by load balancer id.
+		 */
+		public LoadBalancersMapper(Map<String, List<QingCloudLbListener>> listenersByLoadBalancer) {
+			this.listenersByLoadBalancer = listenersByLoadBalancer;
+		}
+		
 		@Override
 		protected List<LoadBalancer> doMapFrom(
 				DescribeLoadBalancersResponseModel responseModel) {
 			try {
 				List<LoadBalancer> loadBalancers = new ArrayList<LoadBalancer>();
 				if (responseModel != null && responseModel.getLoadbalancerSet() != null && responseModel.getLoadbalancerSet().size() > 0) {
+					Map<String, List<QingCloudLbListener>> listenersByLoadBalancer = this.listenersByLoadBalancer;
+					if (listingListeners != null) {
+						List<String> loadBalancerIds = new ArrayList<String>();
+						for (DescribeLoadBalancersResponseItemModel item : responseModel.getLoadbalancerSet()) {
+							loadBalancerIds.add(item.getLoadbalancerId());
+						}
+						listenersByLoadBalancer = listingListeners.get(loadBalancerIds);
+					}
 					for (DescribeLoadBalancersResponseItemModel item : responseModel.getLoadbalancerSet()) {
 						
-						List<QingCloudLbListener> response = listListeners(item.getLoadbalancerId());
-						int[] ports = new int[response.size()];
-						for (int i = 0; i < response.size(); i++) {
-							QingCloudLbListener listenerItem = response.get(i);
-							ports[i] = listenerItem.getLbListener().getPublicPort();
+						int[] ports = new int[0];
+						if (listenersByLoadBalancer != null && listenersByLoadBalancer.containsKey(item.getLoadbalancerId())) {
+							List<QingCloudLbListener> response = listenersByLoadBalancer.get(item.getLoadbalancerId());
+							ports = new int[response.size()];
+							for (int i = 0; i < response.size(); i++) {
+								QingCloudLbListener listenerItem = response.get(i);
+								ports[i] = listenerItem.getLbListener().getPublicPort();
+							}
 						}
 						loadBalancers.add(LoadBalancer.getInstance(
 								getContext().getAccountNumber(), 
@@ -1170,17 +1416,6 @@ public class QingCloudLoadBalancer extends
 			}
 		}
 		
-		private LoadBalancerState mapFromStatus(String status, String transitionStatus) {
-			if (status.equals("pending")) {
-				return LoadBalancerState.PENDING;
-			} else if (status.equals("active")) {
-				return LoadBalancerState.ACTIVE;
-			} else if (status.equals("stopped") || status.equals("suspended") || status.equals("deleted") || status.equals("ceased")) {
-				return LoadBalancerState.TERMINATED;
-			}
-			return null;
-		}
-		
 	}
 
 }
@@ -27,7 +27,6 @@ import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.VisibleScope;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.network.AbstractNetworkFirewallSupport;
 import org.dasein.cloud.network.Direction;
 import org.dasein.cloud.network.Firewall;
@@ -51,6 +50,7 @@ import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupsResponseMo
 import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupRulesResponseModel.DescribeSecurityGroupRulesResponseItemModel;
 import org.dasein.cloud.qingcloud.network.model.DescribeSecurityGroupsResponseModel.DescribeSecurityGroupsResponseItemModel;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
 import org.dasein.cloud.util.APITrace;
@@ -116,7 +116,7 @@ public class QingCloudNetworkFirewall extends
 	
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("AddSecurityGroupRules");
 			requestBuilder.parameter("security_group", firewallId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("rules.1.protocol", protocol.name().toLowerCase());
 			requestBuilder.parameter("rules.1.priority", precedence);
 			requestBuilder.parameter("rules.1.action", permission.equals(Permission.ALLOW) ? "accept" : "drop");
@@ -155,7 +155,7 @@ public class QingCloudNetworkFirewall extends
 			if (options.getName() != null) {
 				requestBuilder.parameter("security_group_name", options.getName());
 			}
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 	        Requester<CreateSecurityGroupResponseModel> requester = new QingCloudRequester<CreateSecurityGroupResponseModel, CreateSecurityGroupResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -176,7 +176,7 @@ public class QingCloudNetworkFirewall extends
 				requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ModifyRouterAttributes");
 				requestBuilder.parameter("router", options.getProviderVlanId());
 				requestBuilder.parameter("security_group", response.getSecurityGroupId());
-				requestBuilder.parameter("zone", getProviderDataCenterId());
+				requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 				Requester<ResponseModel> modifyRouterAttributesRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
 		        		getProvider(), 
 		        		requestBuilder.build(), 
@@ -206,7 +206,7 @@ public class QingCloudNetworkFirewall extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
 			requestBuilder.parameter("verbose", 1);
 			requestBuilder.parameter("security_groups.1", firewallId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<Firewall>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupsResponseModel, List<Firewall>>(
 	                getProvider(), 
 	                requestBuilder.build(), 
@@ -247,16 +247,21 @@ public class QingCloudNetworkFirewall extends
 			CloudException {
 		APITrace.begin(getProvider(), "QingCloudNetworkFirewall.listFirewalls");
 		try {
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
-			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
-			Requester<List<Firewall>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupsResponseModel, List<Firewall>>(
-	                getProvider(), 
-	                requestBuilder.build(), 
-	                new FirewallsMapper(), 
-	                DescribeSecurityGroupsResponseModel.class);
-			return subnetRequester.execute();
+			final String zone = getProvider().getProviderDataCenterId();
+			return new QingCloudPaginator<DescribeSecurityGroupsResponseModel, Firewall>(getProvider(), DescribeSecurityGroupsResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroups");
+					requestBuilder.parameter("verbose", 1);
+					requestBuilder.parameter("zone", zone);
+					return requestBuilder;
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeSecurityGroupsResponseModel, List<Firewall>> newMapper() {
+					return new FirewallsMapper();
+				}
+			}.withParallelFetch(true).iterate();
 		} finally {
 			APITrace.end();
 		}
@@ -270,7 +275,7 @@ public class QingCloudNetworkFirewall extends
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeSecurityGroupRules");
 			requestBuilder.parameter("security_group", firewallId);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<FirewallRule>> subnetRequester = new QingCloudRequester<DescribeSecurityGroupRulesResponseModel, List<FirewallRule>>(
 	                getProvider(), 
 	                requestBuilder.build(), 
@@ -296,7 +301,7 @@ public class QingCloudNetworkFirewall extends
 			for (int i = 0; i < firewallIds.length; i++) {
 				requestBuilder.parameter("security_groups." + (i + 1), firewallIds[i]);
 			}
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<DeleteSecurityGroupsResponseModel> requester = new QingCloudRequester<DeleteSecurityGroupsResponseModel, DeleteSecurityGroupsResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -320,7 +325,7 @@ public class QingCloudNetworkFirewall extends
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteSecurityGroupRules");
 			requestBuilder.parameter("security_group_rules.1", generator.getFirewallRuleId());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<DeleteSecurityGroupRulesResponseModel> requester = new QingCloudRequester<DeleteSecurityGroupRulesResponseModel, DeleteSecurityGroupRulesResponseModel>(
 	        		getProvider(), 
 	        		requestBuilder.build(), 
@@ -346,20 +351,11 @@ public class QingCloudNetworkFirewall extends
 		}
 	}
 	
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-        Iterable<DataCenter> dataCenters = getProvider().getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
-	}
-	
 	private void applySecurityGroup(String firewallId) 
 			throws InternalException, CloudException {
 		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ApplySecurityGroup");
 		requestBuilder.parameter("security_group", firewallId);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
         		getProvider(), 
         		requestBuilder.build(), 
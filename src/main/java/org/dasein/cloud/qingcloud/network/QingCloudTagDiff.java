@@ -0,0 +1,276 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+package org.dasein.cloud.qingcloud.network;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex.ZoneTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.DescribeTag;
+
+/**
+ * Minimal set of tag changes to bring a set of resources to the wanted tags. A QingCloud tag is a zone object with a
+ * name (the key) and a description (the value) which any number of resources can be attached to, so one tag with the
+ * wanted key and value is reused by all resources instead of creating a tag per resource.
+ *
+ * <ul>
+ * <li>tags to create, for key and value pairs no tag in the zone has yet</li>
+ * <li>attribute changes, when a tag with the key is only attached to resources of the batch its value is changed in
+ * place</li>
+ * <li>attaches and detaches of existing or created tags</li>
+ * <li>tags to delete, tags detached from all of their resources</li>
+ * </ul>
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudTagDiff {
+
+	public static class TagValue {
+		
+		private final String name;
+		private final String description;
+		
+		public TagValue(@Nonnull String name, @Nullable String description) {
+			this.name = name;
+			this.description = normalize(description);
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public String getDescription() {
+			return description;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof TagValue)) {
+				return false;
+			}
+			TagValue that = (TagValue) other;
+			return name.equals(that.name) && description.equals(that.description);
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + description.hashCode();
+		}
+		
+		@Override
+		public String toString() {
+			return name + "=" + description;
+		}
+	}
+	
+	private final ZoneTags zoneTags;
+	private final Set<TagValue> tagsToCreate = new LinkedHashSet<TagValue>();
+	private final Map<TagValue, String> reusedTagIds = new LinkedHashMap<TagValue, String>();
+	private final Map<String, String> attributeChanges = new LinkedHashMap<String, String>();
+	private final Map<TagValue, Set<String>> attaches = new LinkedHashMap<TagValue, Set<String>>();
+	private final Map<String, Set<String>> detaches = new LinkedHashMap<String, Set<String>>();
+	private final Set<String> tagsToDelete = new LinkedHashSet<String>();
+	
+	private QingCloudTagDiff(ZoneTags zoneTags) {
+		this.zoneTags = zoneTags;
+	}
+	
+	/**
+	 * @param tags wanted value of each key
+	 * @param replace true to also detach the tags whose key is not wanted
+	 */
+	public static @Nonnull QingCloudTagDiff update(@Nonnull ZoneTags zoneTags, @Nonnull Collection<String> resourceIds, 
+			@Nonnull Map<String, String> tags, boolean replace) {
+		QingCloudTagDiff diff = new QingCloudTagDiff(zoneTags);
+		Set<String> batch = new LinkedHashSet<String>(resourceIds);
+		
+		Map<TagValue, String> tagIdsByValue = new LinkedHashMap<TagValue, String>();
+		for (DescribeTag tag : zoneTags.getTags()) {
+			TagValue value = new TagValue(tag.getTagName(), tag.getTagDescription());
+			if (!tagIdsByValue.containsKey(value)) {
+				tagIdsByValue.put(value, tag.getTagId());
+			}
+		}
+		
+		for (Map.Entry<String, String> entry : tags.entrySet()) {
+			TagValue target = new TagValue(entry.getKey(), entry.getValue());
+			String targetTagId = tagIdsByValue.get(target);
+			
+			Set<String> missing = new LinkedHashSet<String>();
+			Map<String, Set<String>> staleTags = new LinkedHashMap<String, Set<String>>();
+			for (String resourceId : batch) {
+				boolean found = false;
+				for (DescribeTag tag : zoneTags.getResourceTags(resourceId)) {
+					if (!target.getName().equals(tag.getTagName())) {
+						continue;
+					}
+					if (target.getDescription().equals(normalize(tag.getTagDescription()))) {
+						found = true;
+					} else {
+						add(staleTags, tag.getTagId(), resourceId);
+					}
+				}
+				if (!found) {
+					missing.add(resourceId);
+				}
+			}
+			
+			for (Map.Entry<String, Set<String>> stale : staleTags.entrySet()) {
+				String staleTagId = stale.getKey();
+				if (targetTagId == null && batch.containsAll(zoneTags.getTagResources(staleTagId))) {
+					//only used by this batch, change the value in place instead of detach, create and attach
+					diff.attributeChanges.put(staleTagId, target.getDescription());
+					targetTagId = staleTagId;
+					missing.removeAll(stale.getValue());
+				} else {
+					for (String resourceId : stale.getValue()) {
+						add(diff.detaches, staleTagId, resourceId);
+					}
+				}
+			}
+			
+			if (!missing.isEmpty()) {
+				if (targetTagId == null) {
+					diff.tagsToCreate.add(target);
+				} else {
+					diff.reusedTagIds.put(target, targetTagId);
+				}
+				diff.attaches.put(target, missing);
+			}
+		}
+		
+		if (replace) {
+			for (String resourceId : batch) {
+				for (DescribeTag tag : zoneTags.getResourceTags(resourceId)) {
+					if (!tags.containsKey(tag.getTagName())) {
+						add(diff.detaches, tag.getTagId(), resourceId);
+					}
+				}
+			}
+		}
+		
+		diff.collectTagsToDelete();
+		return diff;
+	}
+	
+	/**
+	 * @param keys keys of the tags to detach
+	 */
+	public static @Nonnull QingCloudTagDiff remove(@Nonnull ZoneTags zoneTags, @Nonnull Collection<String> resourceIds, 
+			@Nonnull Collection<String> keys) {
+		QingCloudTagDiff diff = new QingCloudTagDiff(zoneTags);
+		for (String resourceId : new LinkedHashSet<String>(resourceIds)) {
+			for (DescribeTag tag : zoneTags.getResourceTags(resourceId)) {
+				if (keys.contains(tag.getTagName())) {
+					add(diff.detaches, tag.getTagId(), resourceId);
+				}
+			}
+		}
+		diff.collectTagsToDelete();
+		return diff;
+	}
+	
+	private void collectTagsToDelete() {
+		for (Map.Entry<String, Set<String>> detach : detaches.entrySet()) {
+			String tagId = detach.getKey();
+			if (!attributeChanges.containsKey(tagId) && !reusedTagIds.containsValue(tagId) 
+					&& detach.getValue().containsAll(zoneTags.getTagResources(tagId))) {
+				tagsToDelete.add(tagId);
+			}
+		}
+	}
+	
+	private static void add(Map<String, Set<String>> resourcesByTag, String tagId, String resourceId) {
+		Set<String> resourceIds = resourcesByTag.get(tagId);
+		if (resourceIds == null) {
+			resourceIds = new LinkedHashSet<String>();
+			resourcesByTag.put(tagId, resourceIds);
+		}
+		resourceIds.add(resourceId);
+	}
+	
+	private static String normalize(String description) {
+		return ( description == null ? "" : description );
+	}
+	
+	public boolean isEmpty() {
+		return tagsToCreate.isEmpty() && attributeChanges.isEmpty() && attaches.isEmpty() && detaches.isEmpty();
+	}
+	
+	/**
+	 * @return true if tags are changed in place or deleted, which affects every resource on them and not only the 
+	 * batch, so the diff should only be trusted if the zone tags are fresh
+	 */
+	public boolean isDestructive() {
+		return !attributeChanges.isEmpty() || !tagsToDelete.isEmpty();
+	}
+	
+	/**
+	 * @return key and value pairs without a tag in the zone
+	 */
+	public @Nonnull Set<TagValue> getTagsToCreate() {
+		return tagsToCreate;
+	}
+	
+	/**
+	 * @return existing tag to attach for key and value pairs, the others are in {@link #getTagsToCreate()}
+	 */
+	public @Nonnull Map<TagValue, String> getReusedTagIds() {
+		return reusedTagIds;
+	}
+	
+	/**
+	 * @return new description of tags changed in place, by tag id
+	 */
+	public @Nonnull Map<String, String> getAttributeChanges() {
+		return attributeChanges;
+	}
+	
+	/**
+	 * @return resources to attach to the tag of each key and value pair
+	 */
+	public @Nonnull Map<TagValue, Set<String>> getAttaches() {
+		return attaches;
+	}
+	
+	/**
+	 * @return resources to detach from each tag, by tag id
+	 */
+	public @Nonnull Map<String, Set<String>> getDetaches() {
+		return detaches;
+	}
+	
+	/**
+	 * @return ids of tags without resources once the detaches are done
+	 */
+	public @Nonnull Set<String> getTagsToDelete() {
+		return tagsToDelete;
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+package org.dasein.cloud.qingcloud.network;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.DescribeTag;
+import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel.ResourceTagPair;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
+
+/**
+ * Cache of all tags of a zone, with the resources of each tag and the tags of each resource, so looking up the tags of
+ * a resource doesn't download the whole tag set again. A zone is loaded with one paginated DescribeTags on first use
+ * and dropped when its tags are changed through {@link #invalidate(String)} or when it gets older than the max age.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudTagIndex {
+
+	static public final int DEFAULT_MAX_AGE_SECONDS = 300;
+
+	private QingCloud provider;
+	private final ConcurrentMap<String, ZoneTags> zoneTags = new ConcurrentHashMap<String, ZoneTags>();
+	private final ConcurrentMap<String, AtomicLong> zoneGenerations = new ConcurrentHashMap<String, AtomicLong>();
+	private ExecutorService loader;
+	private boolean shutdown;
+
+	public QingCloudTagIndex(QingCloud provider) {
+		this.provider = provider;
+	}
+
+	/**
+	 * @return tags of the zone, loaded from the cloud if not cached or expired
+	 */
+	public @Nonnull ZoneTags get(@Nonnull String zoneId) throws InternalException, CloudException {
+		ZoneTags tags = peek(zoneId);
+		if (tags != null) {
+			return tags;
+		}
+
+		AtomicLong generation = getGeneration(zoneId);
+		long loadGeneration = generation.get();
+		tags = load(zoneId);
+		synchronized (generation) {
+			//a change during the load may not be in the result, use it for this call only
+			if (generation.get() == loadGeneration) {
+				zoneTags.put(zoneId, tags);
+			}
+		}
+		return tags;
+	}
+
+	/**
+	 * Asynchronous {@link #get(String)}. A zone that must be loaded is loaded on the loader thread of the index, which
+	 * is not one of the provider's parallel executor threads, so it may wait on the pages it fetches there.
+	 */
+	public void getAsync(@Nonnull final String zoneId, @Nonnull final FutureCallback<ZoneTags> callback) {
+		ZoneTags tags = peek(zoneId);
+		if (tags != null) {
+			callback.completed(tags);
+			return;
+		}
+		try {
+			getLoader().submit(new Runnable() {
+				@Override
+				public void run() {
+					ZoneTags loaded;
+					try {
+						loaded = get(zoneId);
+					} catch (Exception exception) {
+						callback.failed(exception);
+						return;
+					}
+					callback.completed(loaded);
+				}
+			});
+		} catch (RejectedExecutionException rejectedExecutionException) {
+			callback.failed(rejectedExecutionException);
+		}
+	}
+
+	/**
+	 * Stop the loader thread, loads still running are interrupted.
+	 */
+	public synchronized void shutdown() {
+		shutdown = true;
+		if (loader != null) {
+			loader.shutdownNow();
+			loader = null;
+		}
+	}
+
+	private synchronized ExecutorService getLoader() {
+		if (shutdown) {
+			throw new RejectedExecutionException("Tag index is shut down");
+		}
+		if (loader == null) {
+			loader = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "QingCloud tag index loader");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return loader;
+	}
+
+	/**
+	 * @return cached tags of the zone, null if not cached or expired
+	 */
+	public @Nullable ZoneTags peek(@Nonnull String zoneId) {
+		ZoneTags tags = zoneTags.get(zoneId);
+		if (tags == null) {
+			return null;
+		}
+		long maxAgeMillis = TimeUnit.SECONDS.toMillis(
+				provider.getIntConfigurationValue(QingCloud.DSN_TAG_INDEX_MAX_AGE, DEFAULT_MAX_AGE_SECONDS));
+		if (System.currentTimeMillis() - tags.getLoadedAt() > maxAgeMillis) {
+			zoneTags.remove(zoneId, tags);
+			return null;
+		}
+		return tags;
+	}
+
+	/**
+	 * Drop the cached tags of the zone, must be called after tags or their resources are changed.
+	 */
+	public void invalidate(@Nonnull String zoneId) {
+		AtomicLong generation = getGeneration(zoneId);
+		synchronized (generation) {
+			generation.incrementAndGet();
+			zoneTags.remove(zoneId);
+		}
+	}
+
+	public void invalidateAll() {
+		for (String zoneId : zoneGenerations.keySet()) {
+			invalidate(zoneId);
+		}
+	}
+
+	private AtomicLong getGeneration(String zoneId) {
+		AtomicLong generation = zoneGenerations.get(zoneId);
+		if (generation == null) {
+			AtomicLong existing = zoneGenerations.putIfAbsent(zoneId, generation = new AtomicLong());
+			if (existing != null) {
+				generation = existing;
+			}
+		}
+		return generation;
+	}
+
+	private ZoneTags load(final String zoneId) throws InternalException, CloudException {
+		QingCloudPaginator<DescribeTagsResponseModel, DescribeTagsResponseItemModel> paginator = 
+				new QingCloudPaginator<DescribeTagsResponseModel, DescribeTagsResponseItemModel>(provider, DescribeTagsResponseModel.class) {
+			@Override
+			protected QingCloudRequestBuilder newRequestBuilder() throws CloudException, InternalException {
+				return QingCloudRequestBuilder.get(provider).action("DescribeTags").parameter("zone", zoneId);
+			}
+
+			@Override
+			protected QingCloudDriverToCoreMapper<DescribeTagsResponseModel, List<DescribeTagsResponseItemModel>> newMapper() {
+				return new QingCloudDriverToCoreMapper<DescribeTagsResponseModel, List<DescribeTagsResponseItemModel>>() {
+					@Override
+					protected List<DescribeTagsResponseItemModel> doMapFrom(DescribeTagsResponseModel responseModel) {
+						if (responseModel != null && responseModel.getTagSet() != null) {
+							return responseModel.getTagSet();
+						}
+						return new ArrayList<DescribeTagsResponseItemModel>();
+					}
+				};
+			}
+		};
+		return new ZoneTags(paginator.withParallelFetch(true).list());
+	}
+
+	/**
+	 * Immutable snapshot of the tags of a zone. The snapshot is shared by every caller, so tags are handed out as
+	 * copies.
+	 */
+	public static class ZoneTags {
+
+		private final long loadedAt;
+		private final Map<String, DescribeTag> tagsById = new HashMap<String, DescribeTag>();
+		private final Map<String, Set<String>> resourcesByTagId = new HashMap<String, Set<String>>();
+		private final Map<String, List<DescribeTag>> tagsByResourceId = new HashMap<String, List<DescribeTag>>();
+
+		ZoneTags(List<DescribeTagsResponseItemModel> items) {
+			this.loadedAt = System.currentTimeMillis();
+			for (DescribeTagsResponseItemModel item : items) {
+				DescribeTag tag = new DescribeTag();
+				tag.setTagId(item.getTagId());
+				tag.setTagName(item.getTagName());
+				tag.setTagDescription(item.getDescription());
+				tagsById.put(tag.getTagId(), tag);
+
+				Set<String> resourceIds = new LinkedHashSet<String>();
+				if (item.getResourceTagPairs() != null) {
+					for (ResourceTagPair pair : item.getResourceTagPairs()) {
+						if (pair.getResourceId() != null && resourceIds.add(pair.getResourceId())) {
+							List<DescribeTag> resourceTags = tagsByResourceId.get(pair.getResourceId());
+							if (resourceTags == null) {
+								resourceTags = new ArrayList<DescribeTag>();
+								tagsByResourceId.put(pair.getResourceId(), resourceTags);
+							}
+							resourceTags.add(tag);
+						}
+					}
+				}
+				resourcesByTagId.put(tag.getTagId(), Collections.unmodifiableSet(resourceIds));
+			}
+		}
+
+		public long getLoadedAt() {
+			return loadedAt;
+		}
+
+		public @Nullable DescribeTag getTag(@Nonnull String tagId) {
+			DescribeTag tag = tagsById.get(tagId);
+			return ( tag == null ? null : copyOf(tag) );
+		}
+
+		public @Nonnull Iterable<DescribeTag> getTags() {
+			return copyOf(tagsById.values());
+		}
+
+		public @Nonnull Set<String> getTagResources(@Nonnull String tagId) {
+			Set<String> resourceIds = resourcesByTagId.get(tagId);
+			return ( resourceIds == null ? Collections.<String>emptySet() : resourceIds );
+		}
+
+		public @Nonnull List<DescribeTag> getResourceTags(@Nonnull String resourceId) {
+			List<DescribeTag> tags = tagsByResourceId.get(resourceId);
+			return ( tags == null ? new ArrayList<DescribeTag>() : copyOf(tags) );
+		}
+
+		private static List<DescribeTag> copyOf(Collection<DescribeTag> tags) {
+			List<DescribeTag> copies = new ArrayList<DescribeTag>(tags.size());
+			for (DescribeTag tag : tags) {
+				copies.add(copyOf(tag));
+			}
+			return copies;
+		}
+
+		private static DescribeTag copyOf(DescribeTag tag) {
+			DescribeTag copy = new DescribeTag();
+			copy.setTagId(tag.getTagId());
+			copy.setTagName(tag.getTagName());
+			copy.setTagDescription(tag.getTagDescription());
+			return copy;
+		}
+	}
+}
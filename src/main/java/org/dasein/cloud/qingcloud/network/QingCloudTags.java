@@ -21,18 +21,28 @@
 package org.dasein.cloud.qingcloud.network;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.Tag;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.network.QingCloudTagDiff.TagValue;
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex.ZoneTags;
 import org.dasein.cloud.qingcloud.network.model.CreateTagResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DeleteTagsResponseModel;
-import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel;
-import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel;
-import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel.ResourceTagPair;
 import org.dasein.cloud.qingcloud.model.ResponseModel;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
@@ -115,6 +125,7 @@ public class QingCloudTags {
 		LOADBALANCER,
 		S2_SERVER,
 		SNAPSHOT,
+		IMAGE,
 		RDB,
 		MONGO,
 		CACHE,
@@ -123,6 +134,8 @@ public class QingCloudTags {
 		SPARK
 	}
 	
+	static public final int MAX_PAIRS_PER_REQUEST = 100;
+	
 	private QingCloud provider;
 	
 	public QingCloudTags(QingCloud provider) {
@@ -131,6 +144,9 @@ public class QingCloudTags {
 	
 	
 	
+	/**
+	 * Attach the tags to the resources, replacing the values of keys the resources already have.
+	 */
 	public void setResourcesTags(TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
 			throws InternalException, CloudException {
 		
@@ -142,156 +158,333 @@ public class QingCloudTags {
 			throw new InternalException("Found same key tags, make sure no same key tags!");
 		}
 		
-		final String providerDataCenterId = getProviderDataCenterId();
+		applyResourcesTags(resourceType, resourceIds, toMap(tags), false);
+	}
+	
+	public void removeResourcesTags (TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
+			throws InternalException, CloudException {
 		
-		removeResourcesTags(resourceType, resourceIds, tags);
+		if (resourceIds == null || resourceIds.length == 0 || tags == null || tags.length == 0) {
+			throw new InternalException("Invalid resource ids or tags!");
+		}
 		
-		List<String> tagIds = new ArrayList<String>();
-		for (Tag tag : tags) {
-			
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("CreateTag");
-			requestBuilder.parameter("tag_name", tag.getKey());
-			requestBuilder.parameter("zone", providerDataCenterId);
-			Requester<String> createTagRequester = new QingCloudRequester<CreateTagResponseModel, String>(
-                    provider, 
-                    requestBuilder.build(), 
-                    new QingCloudDriverToCoreMapper<CreateTagResponseModel, String>(){
-        				@Override
-        				protected String doMapFrom(CreateTagResponseModel responseModel) {
-        					if (responseModel != null && responseModel.getTagId() != null) {
-        						return responseModel.getTagId();
-        					}
-        					return null;
-        				}
-        			}, 
-        			CreateTagResponseModel.class);
-			String tagId = createTagRequester.execute();
-			
-			requestBuilder = QingCloudRequestBuilder.get(provider).action("ModifyTagAttributes");
-			requestBuilder.parameter("tag", tagId);
-			requestBuilder.parameter("description", tag.getValue());
-			requestBuilder.parameter("zone", providerDataCenterId);
-			Requester<ResponseModel> modifyTagAttributesRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
-                    provider, 
-                    requestBuilder.build(), 
-                    ResponseModel.class);
-			modifyTagAttributesRequester.execute();
-			
-			tagIds.add(tagId);
+		final String providerDataCenterId = provider.getProviderDataCenterId();
+		QingCloudTagIndex tagIndex = provider.getTagIndex();
+		long startedAt = System.currentTimeMillis();
+		ZoneTags zoneTags = tagIndex.get(providerDataCenterId);
+		QingCloudTagDiff diff = QingCloudTagDiff.remove(zoneTags, Arrays.asList(resourceIds), toMap(tags).keySet());
+		if (diff.isDestructive() && zoneTags.getLoadedAt() < startedAt) {
+			tagIndex.invalidate(providerDataCenterId);
+			diff = QingCloudTagDiff.remove(tagIndex.get(providerDataCenterId), Arrays.asList(resourceIds), 
+					toMap(tags).keySet());
+		}
+		execute(resourceType, diff, providerDataCenterId);
+	}
+	
+	/**
+	 * Same as {@link #setResourcesTags(TagResourceType, String[], Tag[])}.
+	 */
+	public void updateResourcesTags (TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
+			throws InternalException, CloudException {
+		setResourcesTags(resourceType, resourceIds, tags);
+	}
+	
+	/**
+	 * Make the tags the only tags of the resources.
+	 */
+	public void replaceResourcesTags(TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
+			throws InternalException, CloudException {
+		if (validateSameKeyTags(tags)) {
+			throw new InternalException("Found same key tags, make sure no same key tags!");
 		}
 		
-		if (tagIds.size() > 0) { //attach tags to subnet
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("AttachTags");
-			requestBuilder.parameter("zone", providerDataCenterId);
-			for (int i = 0; i < resourceIds.length; i++) {
-				for (int j = 0; j < tagIds.size(); j++) {
-					requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".tag_id", tagIds.get(j));
-					requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".resource_type", resourceType.name().toLowerCase());
-					requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".resource_id", resourceIds[i]);
-				}
+		applyResourcesTags(resourceType, resourceIds, toMap(tags), true);
+	}
+	
+	/**
+	 * @return tags from the meta data of create or launch options, empty if none
+	 */
+	public static Tag[] toTags(Map<String, Object> metaData) {
+		List<Tag> tags = new ArrayList<Tag>();
+		if (metaData != null) {
+			for (Map.Entry<String, Object> entry : metaData.entrySet()) {
+				tags.add(new Tag(entry.getKey(), ( entry.getValue() == null ? "" : entry.getValue().toString() )));
 			}
-			Requester<ResponseModel> attachTagsRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
-                    provider, 
-                    requestBuilder.build(), 
-                    ResponseModel.class);
-			attachTagsRequester.execute();
 		}
+		return tags.toArray(new Tag[tags.size()]);
 	}
 	
-	public void removeResourcesTags (TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
+	/**
+	 * Bring the resources to the wanted tags with the minimal tag changes, see {@link QingCloudTagDiff}. Tags are 
+	 * attached and detached with at most {@link #MAX_PAIRS_PER_REQUEST} resource tag pairs per request, independent 
+	 * requests are sent in parallel on the provider's executor. A diff changing or deleting tags, which affects every 
+	 * resource on those tags, is computed again on freshly loaded zone tags if the cached ones were used.
+	 * 
+	 * @param tags wanted value of each key
+	 * @param replace true to also remove the tags whose key is not wanted
+	 */
+	public void applyResourcesTags(TagResourceType resourceType, String[] resourceIds, Map<String, String> tags, boolean replace) 
 			throws InternalException, CloudException {
-		
-		if (resourceIds == null || resourceIds.length == 0 || tags == null || tags.length == 0) {
+		if (resourceIds == null || resourceIds.length == 0 || tags == null) {
 			throw new InternalException("Invalid resource ids or tags!");
 		}
 		
-		List<String> deletedTagIds = new ArrayList<String>();
-		QingCloudRequestBuilder requestBuilder = null;
-		for (int i = 0; i < resourceIds.length; i++) {
-			List<DescribeTag> remoteSubnetTags = describeResourceTags(resourceIds[i]);
-			for (int j = 0; j < tags.length; j++) {
-				for (DescribeTag remoteSubnetTag : remoteSubnetTags) {
-					if (remoteSubnetTag.getTagName().equals(tags[j].getKey())) {
-						requestBuilder = QingCloudRequestBuilder.get(provider).action("DetachTags");
-						requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".tag_id", remoteSubnetTag.getTagId());
-						requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".resource_type", resourceType.name().toLowerCase());
-						requestBuilder.parameter("resource_tag_pairs." + (i + j + 1) + ".resource_id", resourceIds[i]);
-						deletedTagIds.add(remoteSubnetTag.getTagId());
-						break;
+		final String providerDataCenterId = provider.getProviderDataCenterId();
+		QingCloudTagIndex tagIndex = provider.getTagIndex();
+		long startedAt = System.currentTimeMillis();
+		ZoneTags zoneTags = tagIndex.get(providerDataCenterId);
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList(resourceIds), tags, replace);
+		if (diff.isDestructive() && zoneTags.getLoadedAt() < startedAt) {
+			tagIndex.invalidate(providerDataCenterId);
+			diff = QingCloudTagDiff.update(tagIndex.get(providerDataCenterId), Arrays.asList(resourceIds), tags, replace);
+		}
+		execute(resourceType, diff, providerDataCenterId);
+	}
+	
+	private void execute(TagResourceType resourceType, QingCloudTagDiff diff, final String providerDataCenterId) 
+			throws InternalException, CloudException {
+		if (diff.isEmpty()) {
+			return;
+		}
+		
+		try {
+			final Map<TagValue, String> tagIds = new HashMap<TagValue, String>(diff.getReusedTagIds());
+			List<Callable<String>> creates = new ArrayList<Callable<String>>();
+			for (final TagValue tagValue : diff.getTagsToCreate()) {
+				creates.add(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						String tagId = createTag(tagValue.getName(), providerDataCenterId);
+						if (!tagValue.getDescription().isEmpty()) {
+							modifyTagAttributes(tagId, tagValue.getDescription(), providerDataCenterId);
+						}
+						return tagId;
+					}
+				});
+			}
+			List<String> createdTagIds = invokeAll(creates);
+			int index = 0;
+			for (TagValue tagValue : diff.getTagsToCreate()) {
+				tagIds.put(tagValue, createdTagIds.get(index++));
+			}
+			
+			List<Callable<String>> modifies = new ArrayList<Callable<String>>();
+			for (final Map.Entry<String, String> change : diff.getAttributeChanges().entrySet()) {
+				modifies.add(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						modifyTagAttributes(change.getKey(), change.getValue(), providerDataCenterId);
+						return change.getKey();
 					}
+				});
+			}
+			invokeAll(modifies);
+			
+			List<String[]> detachPairs = new ArrayList<String[]>();
+			for (Map.Entry<String, Set<String>> detach : diff.getDetaches().entrySet()) {
+				for (String resourceId : detach.getValue()) {
+					detachPairs.add(new String[] {detach.getKey(), resourceId});
+				}
+			}
+			sendResourceTagPairs("DetachTags", resourceType, detachPairs, providerDataCenterId);
+			
+			List<String[]> attachPairs = new ArrayList<String[]>();
+			for (Map.Entry<TagValue, Set<String>> attach : diff.getAttaches().entrySet()) {
+				for (String resourceId : attach.getValue()) {
+					attachPairs.add(new String[] {tagIds.get(attach.getKey()), resourceId});
 				}
 			}
+			sendResourceTagPairs("AttachTags", resourceType, attachPairs, providerDataCenterId);
+			
+			List<Callable<String>> deletes = new ArrayList<Callable<String>>();
+			final List<String> deletedTagIds = new ArrayList<String>(diff.getTagsToDelete());
+			for (int from = 0; from < deletedTagIds.size(); from += MAX_PAIRS_PER_REQUEST) {
+				final List<String> chunk = deletedTagIds.subList(from, Math.min(from + MAX_PAIRS_PER_REQUEST, deletedTagIds.size()));
+				deletes.add(new Callable<String>() {
+					@Override
+					public String call() throws Exception {
+						QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.post(provider).action("DeleteTags");
+						for (int i = 0; i < chunk.size(); i++) {
+							requestBuilder.parameter("tags." + (i + 1), chunk.get(i));
+						}
+						requestBuilder.parameter("zone", providerDataCenterId);
+						Requester<DeleteTagsResponseModel> deleteRequester = new QingCloudRequester<DeleteTagsResponseModel, DeleteTagsResponseModel>(
+				                provider, 
+				                requestBuilder.build(), 
+				                DeleteTagsResponseModel.class);
+						deleteRequester.execute();
+						return null;
+					}
+				});
+			}
+			invokeAll(deletes);
+		} finally {
+			provider.getTagIndex().invalidate(providerDataCenterId);
 		}
-		Requester<ResponseModel> modifyRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
+	}
+	
+	private String createTag(String tagName, String providerDataCenterId) throws InternalException, CloudException {
+		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("CreateTag");
+		requestBuilder.parameter("tag_name", tagName);
+		requestBuilder.parameter("zone", providerDataCenterId);
+		Requester<String> createTagRequester = new QingCloudRequester<CreateTagResponseModel, String>(
                 provider, 
                 requestBuilder.build(), 
-                ResponseModel.class);
-		modifyRequester.execute();
-		
-		for (int i = 0; i < deletedTagIds.size(); i++) {
-			requestBuilder = QingCloudRequestBuilder.get(provider).action("DeleteTags");
-			requestBuilder.parameter("tags." + (i + 1), deletedTagIds.get(i));
-			requestBuilder.parameter("zone", getProviderDataCenterId());
-		}
-		Requester<DeleteTagsResponseModel> deleteRequester = new QingCloudRequester<DeleteTagsResponseModel, DeleteTagsResponseModel>(
+                new QingCloudDriverToCoreMapper<CreateTagResponseModel, String>(){
+    				@Override
+    				protected String doMapFrom(CreateTagResponseModel responseModel) {
+    					if (responseModel != null && responseModel.getTagId() != null) {
+    						return responseModel.getTagId();
+    					}
+    					return null;
+    				}
+    			}, 
+    			CreateTagResponseModel.class);
+		return createTagRequester.execute();
+	}
+	
+	private void modifyTagAttributes(String tagId, String description, String providerDataCenterId) 
+			throws InternalException, CloudException {
+		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("ModifyTagAttributes");
+		requestBuilder.parameter("tag", tagId);
+		requestBuilder.parameter("description", description);
+		requestBuilder.parameter("zone", providerDataCenterId);
+		Requester<ResponseModel> modifyTagAttributesRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
                 provider, 
                 requestBuilder.build(), 
-                DeleteTagsResponseModel.class);
-		deleteRequester.execute();
+                ResponseModel.class);
+		modifyTagAttributesRequester.execute();
 	}
 	
-	public void updateResourcesTags (TagResourceType resourceType, String[] resourceIds, Tag[] tags) 
-			throws InternalException, CloudException {
-		for (String resourceId : resourceIds) {
-			List<DescribeTag> subnetTags = describeResourceTags(resourceId);
-			for (Tag tag : tags) {
-				for (DescribeTag subnetTag: subnetTags) {
-					if (tag.getKey().equals(subnetTag.getTagName())) { //find tag, update it
-						QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("ModifyTagAttributes");
-						requestBuilder.parameter("tag", subnetTag.getTagId());
-						requestBuilder.parameter("description", tag.getValue());
-						requestBuilder.parameter("zone", getProviderDataCenterId());
-						Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
-			                    provider, 
-			                    requestBuilder.build(), 
-			                    ResponseModel.class);
-						requester.execute();
-						break;
+	/**
+	 * Send AttachTags or DetachTags for the (tag id, resource id) pairs, in parallel chunks of resource_tag_pairs.N.
+	 * A chunk has up to three parameters per pair, so it is posted rather than sent in the query string.
+	 */
+	private void sendResourceTagPairs(final String action, final TagResourceType resourceType, final List<String[]> pairs, 
+			final String providerDataCenterId) throws InternalException, CloudException {
+		List<Callable<String>> requests = new ArrayList<Callable<String>>();
+		for (int from = 0; from < pairs.size(); from += MAX_PAIRS_PER_REQUEST) {
+			final List<String[]> chunk = pairs.subList(from, Math.min(from + MAX_PAIRS_PER_REQUEST, pairs.size()));
+			requests.add(new Callable<String>() {
+				@Override
+				public String call() throws Exception {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.post(provider).action(action);
+					requestBuilder.parameter("zone", providerDataCenterId);
+					for (int i = 0; i < chunk.size(); i++) {
+						requestBuilder.parameter("resource_tag_pairs." + (i + 1) + ".tag_id", chunk.get(i)[0]);
+						requestBuilder.parameter("resource_tag_pairs." + (i + 1) + ".resource_type", resourceType.name().toLowerCase());
+						requestBuilder.parameter("resource_tag_pairs." + (i + 1) + ".resource_id", chunk.get(i)[1]);
 					}
+					Requester<ResponseModel> requester = new QingCloudRequester<ResponseModel, ResponseModel>(
+		                    provider, 
+		                    requestBuilder.build(), 
+		                    ResponseModel.class);
+					requester.execute();
+					return null;
 				}
+			});
+		}
+		invokeAll(requests);
+	}
+	
+	/**
+	 * Run the requests on the provider's executor, which bounds how many are sent at once.
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> requests) throws InternalException, CloudException {
+		if (requests.size() == 1) {
+			try {
+				return Collections.singletonList(requests.get(0).call());
+			} catch (InternalException internalException) {
+				throw internalException;
+			} catch (CloudException cloudException) {
+				throw cloudException;
+			} catch (Exception exception) {
+				throw new InternalException(exception);
+			}
+		}
+		
+		ExecutorService executor = provider.getParallelExecutor();
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		try {
+			for (Callable<T> request : requests) {
+				futures.add(executor.submit(request));
+			}
+			List<T> results = new ArrayList<T>();
+			for (Future<T> future : futures) {
+				results.add(getResult(future));
+			}
+			return results;
+		} finally {
+			for (Future<T> future : futures) {
+				future.cancel(true);
 			}
 		}
 	}
 	
+	private <T> T getResult(Future<T> future) throws InternalException, CloudException {
+		try {
+			return future.get();
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			throw new InternalException(interruptedException);
+		} catch (ExecutionException executionException) {
+			Throwable cause = executionException.getCause();
+			if (cause instanceof CloudException) {
+				throw (CloudException) cause;
+			} else if (cause instanceof InternalException) {
+				throw (InternalException) cause;
+			} else {
+				throw new InternalException(cause);
+			}
+		}
+	}
+	
+	private Map<String, String> toMap(Tag[] tags) {
+		Map<String, String> tagMap = new LinkedHashMap<String, String>();
+		for (Tag tag : tags) {
+			tagMap.put(tag.getKey(), tag.getValue());
+		}
+		return tagMap;
+	}
+	
+	/**
+	 * Tags of the resource from the zone {@link QingCloudTagIndex}, the zone tags are only downloaded when not cached.
+	 */
 	public List<DescribeTag> describeResourceTags(final String resourceId) throws InternalException, CloudException {
-		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(provider).action("DescribeTags");
-		requestBuilder.parameter("zone", getProviderDataCenterId());
-		Requester<List<DescribeTag>> requester = new QingCloudRequester<DescribeTagsResponseModel, List<DescribeTag>>(
-                provider, 
-                requestBuilder.build(), 
-                new QingCloudDriverToCoreMapper<DescribeTagsResponseModel, List<DescribeTag>>(){
-    				@Override
-    				protected List<DescribeTag> doMapFrom(DescribeTagsResponseModel responseModel) {
-    					List<DescribeTag> tags = new ArrayList<DescribeTag>();
-    					if (responseModel != null && responseModel.getTagSet() != null && responseModel.getTagSet().size() > 0) {
-    						for (DescribeTagsResponseItemModel item : responseModel.getTagSet()) {
-    							for (ResourceTagPair pair : item.getResourceTagPairs()) {
-    								if (pair.getResourceId().equals(resourceId)) {
-    									DescribeTag tag = new DescribeTag();
-    									tag.setTagId(item.getTagId());
-    									tag.setTagName(item.getTagName());
-    									tag.setTagDescription(item.getDescription());
-    									tags.add(tag);
-    									break;
-    								}
-    							}
-    						}
-    					}
-    					return tags;
-    				}
-    			}, 
-    			DescribeTagsResponseModel.class);
-		return requester.execute();
+		return provider.getTagIndex().get(provider.getProviderDataCenterId()).getResourceTags(resourceId);
+	}
+	
+	/**
+	 * Asynchronous {@link #describeResourceTags(String)}, completes immediately if the zone tags are cached. Otherwise
+	 * the zone is loaded on the loader thread of the tag index, so all pages of DescribeTags are read.
+	 */
+	public Future<List<DescribeTag>> describeResourceTagsAsync(final String resourceId, FutureCallback<List<DescribeTag>> callback) 
+			throws InternalException, CloudException {
+		final BasicFuture<List<DescribeTag>> future = new BasicFuture<List<DescribeTag>>(callback);
+		QingCloudTagIndex tagIndex = provider.getTagIndex();
+		String zoneId = provider.getProviderDataCenterId();
+		ZoneTags zoneTags = tagIndex.peek(zoneId);
+		if (zoneTags != null) {
+			future.completed(zoneTags.getResourceTags(resourceId));
+			return future;
+		}
+		tagIndex.getAsync(zoneId, new FutureCallback<ZoneTags>() {
+			@Override
+			public void completed(ZoneTags result) {
+				future.completed(result.getResourceTags(resourceId));
+			}
+
+			@Override
+			public void failed(Exception exception) {
+				future.failed(exception);
+			}
+
+			@Override
+			public void cancelled() {
+				future.cancel();
+			}
+		});
+		return future;
 	}
 	
 	private boolean validateSameKeyTags(Tag ... tags) {
@@ -307,14 +500,4 @@ public class QingCloudTags {
 		return false;
 	}
 	
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = provider.getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-
-        Iterable<DataCenter> dataCenters = provider.getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
-	}
-	
 }
@@ -36,7 +36,6 @@ import org.dasein.cloud.compute.ComputeServices;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.compute.VirtualMachineSupport;
 import org.dasein.cloud.compute.Volume;
-import org.dasein.cloud.dc.DataCenter;
 import org.dasein.cloud.network.AbstractVLANSupport;
 import org.dasein.cloud.network.IPVersion;
 import org.dasein.cloud.network.NetworkServices;
@@ -61,6 +60,7 @@ import org.dasein.cloud.qingcloud.network.model.CreateRoutersResponseModel;
 import org.dasein.cloud.qingcloud.network.model.CreateVxnetsResponseModel;
 import org.dasein.cloud.qingcloud.network.model.DeleteVxnetsResponseModel;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudDriverToCoreMapper;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudPaginator;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder;
 import org.dasein.cloud.qingcloud.util.requester.QingCloudRequester;
 import org.dasein.cloud.util.APITrace;
@@ -97,7 +97,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			//create subnet
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("CreateVxnets");
 			requestBuilder.parameter("vxnet_type", 1);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			if (options != null && options.getName() != null) {
 				requestBuilder.parameter("vxnet_name", options.getName());
 			}
@@ -130,7 +130,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 	            requestBuilder.parameter("vxnet", subnetId);
 	            requestBuilder.parameter("router", vlan.getProviderVlanId());
 	            requestBuilder.parameter("ip_network", options.getCidr());
-	            requestBuilder.parameter("zone", getProviderDataCenterId());
+	            requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 	            Requester<SimpleJobResponseModel> joinRouterRequester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(getProvider(), request, SimpleJobResponseModel.class);
 	            joinRouterRequester.execute();
 			} catch (CloudException e) {
@@ -164,7 +164,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeVxnets");
 			requestBuilder.parameter("vxnets.1", subnetId);
 			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<List<Subnet>> subnetRequester = new QingCloudRequester<DescribeVxnetsResponseModel, List<Subnet>>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -234,7 +234,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			}
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouterVxnets");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("verbose", 1);
 			requestBuilder.parameter("limit", DefaultResponseDataLimit);
 			requestBuilder.parameter("router", vlanId);
@@ -268,7 +268,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("CreateRouters");
 			requestBuilder.parameter("router_name", options.getName());
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<String> requester = new QingCloudRequester<CreateRoutersResponseModel, String>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -292,7 +292,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 				requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("ModifyRouterAttributes");
 				requestBuilder.parameter("router", routerId);
 				requestBuilder.parameter("description", options.getCidr());
-				requestBuilder.parameter("zone", getProviderDataCenterId());
+				requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 				Requester<ResponseModel> modifyRouterAttributesRequester = new QingCloudRequester<ResponseModel, ResponseModel>(
 	                    getProvider(), requestBuilder.build(), ResponseModel.class);
 				modifyRouterAttributesRequester.execute();
@@ -338,7 +338,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouters");
 			requestBuilder.parameter("routers.1", vlanId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			
 			Requester<List<VLAN>> requester = new QingCloudRequester<DescribeRoutersResponseModel, List<VLAN>>(
                     getProvider(), 
@@ -361,15 +361,20 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 	public Iterable<VLAN> listVlans() throws CloudException, InternalException {
 		APITrace.begin(getProvider(), "QingCloudVlan.listVlans");
 		try {
-			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouters");
-			requestBuilder.parameter("limit", DefaultResponseDataLimit);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
-			Requester<List<VLAN>> requester = new QingCloudRequester<DescribeRoutersResponseModel, List<VLAN>>(
-                    getProvider(), 
-                    requestBuilder.build(), 
-                    new VlansMapper(), 
-        			DescribeRoutersResponseModel.class);
-			return requester.execute();
+			final String zone = getProvider().getProviderDataCenterId();
+			return new QingCloudPaginator<DescribeRoutersResponseModel, VLAN>(getProvider(), DescribeRoutersResponseModel.class) {
+				@Override
+				protected QingCloudRequestBuilder newRequestBuilder() {
+					QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeRouters");
+					requestBuilder.parameter("zone", zone);
+					return requestBuilder;
+				}
+
+				@Override
+				protected QingCloudDriverToCoreMapper<DescribeRoutersResponseModel, List<VLAN>> newMapper() {
+					return new VlansMapper();
+				}
+			}.withParallelFetch(true).iterate();
 		} finally {
 			APITrace.end();
 		}
@@ -388,7 +393,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DescribeVxnets");
 			requestBuilder.parameter("vxnets.1", providerSubnetId);
 			requestBuilder.parameter("verbose", 1);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			SubnetsMapper mapper = new SubnetsMapper();
 			Requester<List<Subnet>> requester = new QingCloudRequester<DescribeVxnetsResponseModel, List<Subnet>>(
                     getProvider(), 
@@ -403,7 +408,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 			
 			requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteVxnets");
 			requestBuilder.parameter("vxnets.1", providerSubnetId);
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			Requester<String> deleteVxnetsRequester = new QingCloudRequester<DeleteVxnetsResponseModel, String>(
                     getProvider(), 
                     requestBuilder.build(), 
@@ -438,7 +443,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 		
 		QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("DeleteRouters");
 		requestBuilder.parameter("routers.1", vlanId);
-		requestBuilder.parameter("zone", getProviderDataCenterId());
+		requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 		Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
                 getProvider(), 
                 requestBuilder.build(), 
@@ -479,21 +484,11 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 		}
 	}
 
-	private String getProviderDataCenterId() throws InternalException, CloudException {
-		String regionId = getContext().getRegionId();
-        if (regionId == null) {
-            throw new InternalException("No region was set for this request");
-        }
-
-        Iterable<DataCenter> dataCenters = getProvider().getDataCenterServices().listDataCenters(regionId);
-        return dataCenters.iterator().next().getProviderDataCenterId();//each account has one DC in each region
-	}
-	
 	private void joinSubnet(List<String> instanceIds, String subnetId) throws InternalException, CloudException {
 		if (instanceIds != null && instanceIds.size() > 0) {
 			//delete failed, join back vxnet
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("JoinVxnet");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("vxnet", subnetId);
 			for (int i = 0; i < instanceIds.size(); i++) {
 				requestBuilder.parameter("instances." + (i + 1), instanceIds.get(i));
@@ -510,7 +505,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 		//disassociated instances from subnet
 		if (instanceIds != null && instanceIds.size() > 0) {
 			QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(getProvider()).action("LeaveVxnet");
-			requestBuilder.parameter("zone", getProviderDataCenterId());
+			requestBuilder.parameter("zone", getProvider().getProviderDataCenterId());
 			requestBuilder.parameter("vxnet", subnetId);
 			for (int i = 0; i < instanceIds.size(); i++) {
 				requestBuilder.parameter("instances." + (i + 1), instanceIds.get(i));
@@ -693,7 +688,7 @@ public class QingCloudVlan extends AbstractVLANSupport<QingCloud> implements
 				        vlan.setCurrentState(mapVLANState(item.getStatus()));
 				        vlan.setName(item.getRouterName());
 				        vlan.setDescription(item.getDescription());
-				        vlan.setProviderDataCenterId(getProviderDataCenterId());
+				        vlan.setProviderDataCenterId(getProvider().getProviderDataCenterId());
 				        vlan.setProviderOwnerId(getContext().getAccountNumber());
 				        vlan.setProviderRegionId(getContext().getRegionId());
 				        vlan.setSupportedTraffic(IPVersion.IPV4);
@@ -53,6 +53,8 @@ public class DescribeLoadBalancerListenersResponseModel extends
 		private String loadBalancerListenerId;
 		@JsonProperty("loadbalancer_listener_name")
 		private String loadbalancerListenerName;
+		@JsonProperty("loadbalancer_id")
+		private String loadbalancerId;
 		@JsonProperty("backends")
 		private List<DescribeLoadBalancerListenerBackends> backends;
 		@JsonProperty("balance_mode")
@@ -88,6 +90,12 @@ public class DescribeLoadBalancerListenersResponseModel extends
 		public void setLoadbalancerListenerName(String loadbalancerListenerName) {
 			this.loadbalancerListenerName = loadbalancerListenerName;
 		}
+		public String getLoadbalancerId() {
+			return loadbalancerId;
+		}
+		public void setLoadbalancerId(String loadbalancerId) {
+			this.loadbalancerId = loadbalancerId;
+		}
 		public List<DescribeLoadBalancerListenerBackends> getBackends() {
 			return backends;
 		}
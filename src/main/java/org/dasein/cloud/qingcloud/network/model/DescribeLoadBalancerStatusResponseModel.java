@@ -0,0 +1,80 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+package org.dasein.cloud.qingcloud.network.model;
+
+import java.util.List;
+
+import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Projection of DescribeLoadBalancers for status listing, only id, status and
+ * transition status of each load balancer are bound.
+ *
+ * @since 2016.02.1
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DescribeLoadBalancerStatusResponseModel extends DescribeResponseModel {
+
+	@JsonProperty("loadbalancer_set")
+	private List<DescribeLoadBalancerStatusResponseItemModel> loadbalancerSet;
+	
+	public List<DescribeLoadBalancerStatusResponseItemModel> getLoadbalancerSet() {
+		return loadbalancerSet;
+	}
+
+	public void setLoadbalancerSet(
+			List<DescribeLoadBalancerStatusResponseItemModel> loadbalancerSet) {
+		this.loadbalancerSet = loadbalancerSet;
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class DescribeLoadBalancerStatusResponseItemModel {
+		
+		@JsonProperty("loadbalancer_id")
+		private String loadbalancerId;
+		@JsonProperty("status")
+		private String status;
+		@JsonProperty("transition_status")
+		private String transitionStatus;
+		
+		public String getLoadbalancerId() {
+			return loadbalancerId;
+		}
+		public void setLoadbalancerId(String loadbalancerId) {
+			this.loadbalancerId = loadbalancerId;
+		}
+		public String getStatus() {
+			return status;
+		}
+		public void setStatus(String status) {
+			this.status = status;
+		}
+		public String getTransitionStatus() {
+			return transitionStatus;
+		}
+		public void setTransitionStatus(String transitionStatus) {
+			this.transitionStatus = transitionStatus;
+		}
+	}
+}
@@ -37,7 +37,7 @@ public class DescribeRoutersResponseModel extends DescribeResponseModel {
 
 	public static class DescribeRoutersResponseItemModel {
 
-		public class Vxnet {
+		public static class Vxnet {
 			
 			@JsonProperty("vxnet_id")
 			private String vxnetId;
@@ -0,0 +1,122 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking HTTP client shared by all asynchronous requests of one {@link QingCloud} provider. A few I/O threads
+ * drive all in-flight requests, and one scheduler thread sends delayed requests (rate limited or retried) and evicts
+ * idle connections.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudAsyncExecutor {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudAsyncExecutor.class);
+
+    static public final int DEFAULT_IO_THREADS = 2;
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final ScheduledExecutorService scheduler;
+
+    public QingCloudAsyncExecutor(QingCloud qingCloud, int ioThreads, int maxConnections, int maxConnectionsPerRoute,
+            final int idleTimeoutSeconds) throws InternalException {
+        try {
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom().setIoThreadCount(ioThreads).build();
+            connectionManager = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(ioReactorConfig, newThreadFactory("QingCloud async I/O")));
+        } catch (IOReactorException ioReactorException) {
+            throw new InternalException(ioReactorException);
+        }
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        HttpAsyncClientBuilder builder = HttpAsyncClients.custom();
+        builder.setUserAgent("Dasein Cloud");
+        builder.setConnectionManager(connectionManager);
+        builder.setProxy(QingCloudHttpClientBuilderFactory.getProxy(qingCloud));
+        httpAsyncClient = builder.build();
+        httpAsyncClient.start();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(newThreadFactory("QingCloud async scheduler"));
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+            }
+        }, idleTimeoutSeconds, idleTimeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    public void execute(HttpUriRequest httpUriRequest, FutureCallback<HttpResponse> callback) {
+        httpAsyncClient.execute(httpUriRequest, callback);
+    }
+
+    /**
+     * Runs the task on the scheduler thread after the delay. Tasks must not block.
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        scheduler.schedule(task, delay, unit);
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            httpAsyncClient.close();
+        } catch (IOException ioException) {
+            logger.warn("Failed to close the async HTTP client: " + ioException.getMessage());
+        }
+    }
+
+    static private ThreadFactory newThreadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + " " + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.ResponseModel;
+import org.dasein.cloud.util.requester.DaseinResponseHandler;
+import org.dasein.cloud.util.requester.DaseinResponseHandlerWithMapper;
+import org.dasein.cloud.util.requester.streamprocessors.JsonStreamToObjectProcessor;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counterpart of {@link QingCloudRequester}: the request is sent by the provider's
+ * {@link QingCloudAsyncExecutor} and the returned future completes when the response is mapped, so no thread waits
+ * while it is in flight. Requests are rate limited and retried like blocking ones, by delaying instead of sleeping.
+ *
+ * Mapping runs on an I/O thread, so the mapper must not issue blocking requests itself.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudAsyncRequester<C extends ResponseModel, T> {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudAsyncRequester.class);
+
+    private final QingCloud qingCloud;
+    private final HttpUriRequest httpUriRequest;
+    private final ResponseHandler<T> responseHandler;
+
+    @SuppressWarnings("unchecked")
+    public QingCloudAsyncRequester(QingCloud qingCloud, HttpUriRequest httpUriRequest, Class<T> classType) {
+        this.qingCloud = qingCloud;
+        this.httpUriRequest = httpUriRequest;
+        this.responseHandler = new DaseinResponseHandler(new JsonStreamToObjectProcessor(), classType);
+    }
+
+    @SuppressWarnings("unchecked")
+    public QingCloudAsyncRequester(QingCloud qingCloud, HttpUriRequest httpUriRequest,
+            QingCloudDriverToCoreMapper<C, T> mapper, Class<C> classType) {
+        this.qingCloud = qingCloud;
+        this.httpUriRequest = httpUriRequest;
+        this.responseHandler = new DaseinResponseHandlerWithMapper(new JsonStreamToObjectProcessor(), mapper, classType);
+    }
+
+    public Future<T> execute() throws InternalException {
+        return execute(null);
+    }
+
+    /**
+     * @param callback notified on the I/O thread when the request completed, failed with a {@link CloudException} or
+     *                 was cancelled; may be null
+     */
+    public Future<T> execute(FutureCallback<T> callback) throws InternalException {
+        BasicFuture<T> future = new BasicFuture<T>(callback);
+        new Attempt(future, qingCloud.getAsyncExecutor(), qingCloud.getRateLimiter(), qingCloud.getRetryPolicy(),
+                QingCloudRequester.getAction(httpUriRequest)).send(1);
+        return future;
+    }
+
+    private class Attempt {
+        private final BasicFuture<T> future;
+        private final QingCloudAsyncExecutor asyncExecutor;
+        private final QingCloudRateLimiter rateLimiter;
+        private final QingCloudRetryPolicy retryPolicy;
+        private final String action;
+
+        Attempt(BasicFuture<T> future, QingCloudAsyncExecutor asyncExecutor, QingCloudRateLimiter rateLimiter,
+                QingCloudRetryPolicy retryPolicy, String action) {
+            this.future = future;
+            this.asyncExecutor = asyncExecutor;
+            this.rateLimiter = rateLimiter;
+            this.retryPolicy = retryPolicy;
+            this.action = action;
+        }
+
+        void send(final int retry) {
+            long waitNanos = rateLimiter.reserve(action);
+            if (waitNanos > 0) {
+                asyncExecutor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(retry);
+                    }
+                }, waitNanos, TimeUnit.NANOSECONDS);
+            } else {
+                execute(retry);
+            }
+        }
+
+        private void execute(final int retry) {
+            if (future.isDone()) {
+                return;
+            }
+            asyncExecutor.execute(httpUriRequest, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse httpResponse) {
+                    T result;
+                    try {
+                        result = responseHandler.handleResponse(httpResponse);
+                    } catch (Exception exception) {
+                        failed(exception);
+                        return;
+                    }
+                    retryPolicy.onSuccess();
+                    future.completed(result);
+                }
+
+                @Override
+                public void failed(Exception exception) {
+                    onFailure(exception, retry);
+                }
+
+                @Override
+                public void cancelled() {
+                    future.cancel();
+                }
+            });
+        }
+
+        private void onFailure(Exception exception, final int retry) {
+            if (exception instanceof QingCloudResponseException
+                    && ((QingCloudResponseException) exception).getRetCode() == QingCloudRetryPolicy.RET_CODE_THROTTLED) {
+                rateLimiter.onThrottled(action);
+            }
+            if (retry > retryPolicy.getMaxRetries() || !retryPolicy.isRetryable(action, exception)
+                    || !retryPolicy.acquireRetry()) {
+                future.failed(translateException(exception));
+                return;
+            }
+
+            long delay = retryPolicy.getDelayMillis(retry);
+            logger.warn("Retry " + retry + " of " + action + " in " + delay + "ms after: " + exception.getMessage());
+            asyncExecutor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    send(retry + 1);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static private CloudException translateException(Exception exception) {
+        if (exception instanceof QingCloudResponseException) {
+            return QingCloudRequester.toCloudException((QingCloudResponseException) exception);
+        } else if (exception instanceof CloudException) {
+            return (CloudException) exception;
+        } else {
+            return new CloudException(exception);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.dasein.cloud.CloudException;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Failure of a chunk of a {@link QingCloudBatchRequester}, with the jobs the chunks sent before it already started and
+ * the resources the failed and later chunks were not sent for. The error of the failed request is the cause, and its
+ * error type and codes are kept.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudBatchException extends CloudException {
+    private final Map<String, String> jobIds;
+    private final List<String> unprocessedIds;
+
+    public QingCloudBatchException(@Nonnull CloudException cause, @Nonnull Map<String, String> jobIds,
+            @Nonnull List<String> unprocessedIds) {
+        super(cause.getErrorType(), cause.getHttpCode(), cause.getProviderCode(), cause.getMessage());
+        initCause(cause);
+        this.jobIds = Collections.unmodifiableMap(jobIds);
+        this.unprocessedIds = Collections.unmodifiableList(unprocessedIds);
+    }
+
+    /**
+     * @return the job started for each resource of the chunks sent before the failure, keyed by resource id
+     */
+    public @Nonnull Map<String, String> getJobIds() {
+        return jobIds;
+    }
+
+    /**
+     * @return ids of the resources of the failed chunk and of the chunks not sent
+     */
+    public @Nonnull List<String> getUnprocessedIds() {
+        return unprocessedIds;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.util.requester.fluent.Requester;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a mutation for many resources with as few requests as the API allows: the ids are packed as
+ * <code>idsParameter.N</code>, at most maxIdsPerRequest per request. Every request starts one job for all resources
+ * of its chunk.
+ *
+ * Subclasses provide a fresh request builder with the action and other parameters for every chunk, like
+ * {@link QingCloudPaginator} does for pages. Chunks are sent one after another, the first failing chunk stops the
+ * batch with a {@link QingCloudBatchException} carrying the jobs the earlier chunks started.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudBatchRequester {
+    static public final int DEFAULT_MAX_IDS_PER_REQUEST = 100;
+
+    protected QingCloud qingCloud;
+    private String idsParameter;
+    private int maxIdsPerRequest = DEFAULT_MAX_IDS_PER_REQUEST;
+
+    public QingCloudBatchRequester(QingCloud qingCloud, String idsParameter) {
+        this.qingCloud = qingCloud;
+        this.idsParameter = idsParameter;
+    }
+
+    public QingCloudBatchRequester withMaxIdsPerRequest(int maxIdsPerRequest) {
+        this.maxIdsPerRequest = Math.max(1, maxIdsPerRequest);
+        return this;
+    }
+
+    protected abstract QingCloudRequestBuilder newRequestBuilder() throws CloudException, InternalException;
+
+    /**
+     * @return the job started for each resource, keyed by resource id in the given order
+     * @throws QingCloudBatchException if a chunk fails, with the jobs started by the chunks before it
+     */
+    public @Nonnull Map<String, String> execute(@Nonnull Collection<String> resourceIds)
+            throws CloudException, InternalException {
+        Map<String, String> jobIds = new LinkedHashMap<String, String>();
+        List<String> distinctIds = new ArrayList<String>(new LinkedHashSet<String>(resourceIds));
+        for (int from = 0; from < distinctIds.size(); from += maxIdsPerRequest) {
+            List<String> chunk = distinctIds.subList(from, Math.min(from + maxIdsPerRequest, distinctIds.size()));
+
+            QingCloudRequestBuilder requestBuilder = newRequestBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                requestBuilder.parameter(idsParameter + "." + (i + 1), chunk.get(i));
+            }
+            HttpUriRequest request = requestBuilder.build();
+
+            Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
+                    qingCloud, request, SimpleJobResponseModel.class);
+            String jobId;
+            try {
+                jobId = requester.execute().getJobId();
+            } catch (CloudException cloudException) {
+                throw new QingCloudBatchException(cloudException, jobIds,
+                        new ArrayList<String>(distinctIds.subList(from, distinctIds.size())));
+            }
+            for (String resourceId : chunk) {
+                jobIds.put(resourceId, jobId);
+            }
+        }
+        return jobIds;
+    }
+}
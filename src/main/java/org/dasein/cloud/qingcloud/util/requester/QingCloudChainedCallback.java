@@ -0,0 +1,62 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+
+/**
+ * Callback of an asynchronous request whose result is used to complete another future, e.g. by issuing a follow-up
+ * request. Failure and cancellation are passed on to that future, as is any exception thrown while handling the result.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudChainedCallback<S, T> implements FutureCallback<S> {
+    protected final BasicFuture<T> future;
+
+    protected QingCloudChainedCallback(BasicFuture<T> future) {
+        this.future = future;
+    }
+
+    @Override
+    public void completed(S result) {
+        try {
+            onCompleted(result);
+        } catch (QingCloudResponseException qingCloudResponseException) {
+            failed(QingCloudRequester.toCloudException(qingCloudResponseException));
+        } catch (Exception exception) {
+            failed(exception);
+        }
+    }
+
+    @Override
+    public void failed(Exception exception) {
+        future.failed(exception);
+    }
+
+    @Override
+    public void cancelled() {
+        future.cancel();
+    }
+
+    protected abstract void onCompleted(S result) throws Exception;
+}
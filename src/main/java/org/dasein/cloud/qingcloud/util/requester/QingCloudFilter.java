@@ -0,0 +1,208 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex;
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex.ZoneTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.DescribeTag;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Criteria of Dasein filter options translated to the parameters of a Describe* action, so the cloud only returns
+ * candidates instead of every resource of the account.
+ *
+ * The parameters must select a superset of the resources matched by the options: a criterion the API can't express
+ * exactly is left out, or pushed as a wider one, and callers keep matching the options on the returned resources. When
+ * a criterion can't match anything, like a tag no resource has, {@link #isMatchingNothing()} tells callers to skip the
+ * request.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudFilter {
+    static private final String REGEX_META_CHARACTERS = "\\[](){}.*+?^$|";
+
+    private final Map<String, Object> parameters = new LinkedHashMap<String, Object>();
+    private boolean matchingNothing = false;
+
+    /**
+     * @param parameter name of the list parameter, like instances, sent as parameter.N
+     */
+    public QingCloudFilter withIds(@Nonnull String parameter, @Nullable Collection<String> ids) {
+        if (ids != null && !ids.isEmpty()) {
+            int index = 1;
+            for (String id : new LinkedHashSet<String>(ids)) {
+                parameters.put(parameter + "." + (index++), id);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param statuses resources in any of the statuses are returned, empty to match nothing
+     */
+    public QingCloudFilter withStatuses(@Nullable Collection<String> statuses) {
+        if (statuses != null) {
+            if (statuses.isEmpty()) {
+                matchingNothing = true;
+            }
+            withIds("status", statuses);
+        }
+        return this;
+    }
+
+    /**
+     * QingCloud matches the search word against the id and the name of resources.
+     */
+    public QingCloudFilter withSearchWord(@Nullable String searchWord) {
+        if (searchWord != null && !searchWord.isEmpty()) {
+            parameters.put("search_word", searchWord);
+        }
+        return this;
+    }
+
+    /**
+     * Push the literal part of a name regex as search word, nothing if the regex needs a regex engine. Only for
+     * criteria matched against nothing but the id or the name: a resource matching the regex on another field, like
+     * the description, wouldn't be returned.
+     */
+    public QingCloudFilter withNameRegex(@Nullable String regex) {
+        return withSearchWord(toSearchWord(regex));
+    }
+
+    /**
+     * Only one tag is pushed as tags.1, the first key with a single tag of that key and value in the zone, and only
+     * when the zone tags were loaded by this call: a cached zone may lack a tag of the same key and value created
+     * since, whose resources tags.1 would exclude. A key no tag has can't match anything, which is only concluded
+     * after reloading a cached zone.
+     *
+     * @param tags wanted value of each key, a null value matches any value
+     */
+    public QingCloudFilter withTags(@Nonnull QingCloudTagIndex tagIndex, @Nonnull String zoneId,
+            @Nullable Map<String, String> tags) throws CloudException, InternalException {
+        if (tags == null || tags.isEmpty()) {
+            return this;
+        }
+        long startedAt = System.currentTimeMillis();
+        ZoneTags zoneTags = tagIndex.get(zoneId);
+        boolean loaded = zoneTags.getLoadedAt() >= startedAt;
+        List<List<String>> tagIds = getTagIds(zoneTags, tags);
+        if (tagIds == null && !loaded) {
+            tagIndex.invalidate(zoneId);
+            tagIds = getTagIds(tagIndex.get(zoneId), tags);
+            loaded = true;
+        }
+        if (tagIds == null) {
+            matchingNothing = true;
+            return this;
+        }
+        if (loaded) {
+            for (List<String> keyTagIds : tagIds) {
+                if (keyTagIds.size() == 1) {
+                    parameters.put("tags.1", keyTagIds.get(0));
+                    break;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return ids of the tags of each key and value, null if a key has none
+     */
+    static private List<List<String>> getTagIds(ZoneTags zoneTags, Map<String, String> tags) {
+        List<List<String>> result = new ArrayList<List<String>>();
+        for (Map.Entry<String, String> entry : tags.entrySet()) {
+            List<String> tagIds = new ArrayList<String>();
+            for (DescribeTag tag : zoneTags.getTags()) {
+                if (entry.getKey().equals(tag.getTagName())
+                        && (entry.getValue() == null || entry.getValue().equals(tag.getTagDescription()))) {
+                    tagIds.add(tag.getTagId());
+                }
+            }
+            if (tagIds.isEmpty()) {
+                return null;
+            }
+            result.add(tagIds);
+        }
+        return result;
+    }
+
+    public QingCloudFilter withParameter(@Nonnull String name, @Nullable Object value) {
+        if (value != null) {
+            parameters.put(name, value);
+        }
+        return this;
+    }
+
+    public @Nullable Object getParameter(@Nonnull String name) {
+        return parameters.get(name);
+    }
+
+    public boolean isMatchingNothing() {
+        return matchingNothing;
+    }
+
+    public @Nonnull QingCloudRequestBuilder applyTo(@Nonnull QingCloudRequestBuilder requestBuilder) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            requestBuilder.parameter(parameter.getKey(), parameter.getValue());
+        }
+        return requestBuilder;
+    }
+
+    /**
+     * @return the literal a regex matches inside a name, like web from ^web.*, null if the regex is more than a literal
+     */
+    static public @Nullable String toSearchWord(@Nullable String regex) {
+        if (regex == null) {
+            return null;
+        }
+        String literal = regex;
+        if (literal.startsWith("^")) {
+            literal = literal.substring(1);
+        }
+        if (literal.startsWith(".*")) {
+            literal = literal.substring(2);
+        }
+        if (literal.endsWith("$") && !literal.endsWith("\\$")) {
+            literal = literal.substring(0, literal.length() - 1);
+        }
+        if (literal.endsWith(".*") && !literal.endsWith("\\.*")) {
+            literal = literal.substring(0, literal.length() - 2);
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(literal.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return ( literal.isEmpty() ? null : literal );
+    }
+}
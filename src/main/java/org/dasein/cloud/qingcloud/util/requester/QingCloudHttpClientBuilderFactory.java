@@ -21,7 +21,9 @@
 
 package org.dasein.cloud.qingcloud.util.requester;
 
+import org.apache.http.HttpHost;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.dasein.cloud.qingcloud.QingCloud;
 
 /**
  * Created by Jeffrey Yan on 11/12/2015.
@@ -36,4 +38,25 @@ public class QingCloudHttpClientBuilderFactory {
         //HttpProtocolParams.setContentCharset(params, Consts.UTF_8.toString());
         return builder;
     }
+
+    static public HttpClientBuilder newHttpClientBuilder(QingCloud qingCloud) {
+        HttpClientBuilder builder = newHttpClientBuilder();
+        QingCloudHttpConnectionPool connectionPool = qingCloud.getConnectionPool();
+        builder.setConnectionManager(connectionPool.getConnectionManager());
+        builder.setConnectionManagerShared(true);//closing the client must not shut down the provider's pool
+        builder.setKeepAliveStrategy(connectionPool.getKeepAliveStrategy());
+        builder.setProxy(getProxy(qingCloud));
+        return builder;
+    }
+
+    /**
+     * @return the proxy configured by proxyHost/proxyPort of the context, or null
+     */
+    static public HttpHost getProxy(QingCloud qingCloud) {
+        String proxyHost = qingCloud.getStringConfigurationValue(QingCloud.DSN_PROXY_HOST);
+        if (proxyHost == null) {
+            return null;
+        }
+        return new HttpHost(proxyHost, qingCloud.getIntConfigurationValue(QingCloud.DSN_PROXY_PORT, -1));
+    }
 }
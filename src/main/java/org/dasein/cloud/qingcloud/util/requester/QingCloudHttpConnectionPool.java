@@ -0,0 +1,124 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.qingcloud.QingCloud;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled connection manager shared by all requests of one {@link QingCloud} provider, so connections (and their TLS
+ * sessions) to the QingCloud API are kept alive and reused instead of being established again for each call.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudHttpConnectionPool {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudHttpConnectionPool.class);
+
+    static public final int DEFAULT_MAX_CONNECTIONS = 50;
+    static public final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static public final int DEFAULT_IDLE_TIMEOUT_SECONDS = 30;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ConnectionKeepAliveStrategy keepAliveStrategy;
+    private final IdleConnectionEvictor idleConnectionEvictor;
+
+    public QingCloudHttpConnectionPool(int maxConnections, int maxConnectionsPerRoute, final int idleTimeoutSeconds) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+        keepAliveStrategy = new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                if (duration > 0) {
+                    return duration;
+                }
+                //server doesn't say, keep it no longer than the idle timeout
+                return idleTimeoutSeconds * 1000L;
+            }
+        };
+
+        idleConnectionEvictor = new IdleConnectionEvictor(connectionManager, idleTimeoutSeconds);
+        idleConnectionEvictor.start();
+    }
+
+    public HttpClientConnectionManager getConnectionManager() {
+        return connectionManager;
+    }
+
+    public ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return keepAliveStrategy;
+    }
+
+    public void shutdown() {
+        idleConnectionEvictor.shutdown();
+        connectionManager.shutdown();
+    }
+
+    private static class IdleConnectionEvictor extends Thread {
+        private final HttpClientConnectionManager connectionManager;
+        private final int idleTimeoutSeconds;
+        private volatile boolean shutdown;
+
+        private IdleConnectionEvictor(HttpClientConnectionManager connectionManager, int idleTimeoutSeconds) {
+            super("QingCloud idle connection evictor");
+            setDaemon(true);
+            this.connectionManager = connectionManager;
+            this.idleTimeoutSeconds = idleTimeoutSeconds;
+        }
+
+        @Override
+        public void run() {
+            long interval = Math.max(1000L, idleTimeoutSeconds * 1000L / 2);
+            try {
+                while (!shutdown) {
+                    synchronized (this) {
+                        wait(interval);
+                    }
+                    connectionManager.closeExpiredConnections();
+                    connectionManager.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException interruptedException) {
+                //terminate
+            } catch (RuntimeException runtimeException) {
+                logger.warn("Idle connection evictor stopped: " + runtimeException.getMessage(), runtimeException);
+            }
+        }
+
+        private void shutdown() {
+            shutdown = true;
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel.Job;
+import org.dasein.cloud.qingcloud.model.SimpleJobResponseModel;
+import org.dasein.cloud.util.requester.fluent.Requester;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completes a future per job once DescribeJobs reports the job finished. Jobs are polled like any other resource by
+ * {@link QingCloudResourceWaiter}, so all outstanding jobs of the provider cost one DescribeJobs request per zone and
+ * {@link #MAX_IDS_PER_REQUEST} jobs per poll interval.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudJobTracker extends QingCloudResourceWaiter<DescribeJobsResponseModel, Job> {
+    static public final String STATUS_SUCCESSFUL = "successful";
+    static public final String STATUS_FAILED = "failed";
+    static public final String STATUS_DONE_WITH_FAILURE = "done with failure";
+
+    static private final Condition<Job> FINISHED = new Condition<Job>() {
+        @Override
+        public boolean isSatisfied(@Nullable Job job) {
+            return job == null || STATUS_SUCCESSFUL.equals(job.getStatus()) || STATUS_FAILED.equals(job.getStatus())
+                    || STATUS_DONE_WITH_FAILURE.equals(job.getStatus());
+        }
+    };
+
+    public QingCloudJobTracker(QingCloud qingCloud) {
+        super(qingCloud, DescribeJobsResponseModel.class);
+    }
+
+    /**
+     * Send a mutation request and track the job it starts. The request itself is sent synchronously, so a rejected
+     * mutation still fails here.
+     *
+     * @param zoneId zone of the request, where the job runs
+     * @return future completed with the finished job, or failed with a {@link CloudException} if the job failed
+     */
+    public @Nonnull Future<Job> submit(@Nonnull String zoneId, @Nonnull HttpUriRequest httpUriRequest,
+            @Nullable FutureCallback<Job> callback) throws InternalException, CloudException {
+        Requester<SimpleJobResponseModel> requester = new QingCloudRequester<SimpleJobResponseModel, SimpleJobResponseModel>(
+                qingCloud, httpUriRequest, SimpleJobResponseModel.class);
+        return track(zoneId, requester.execute().getJobId(), callback);
+    }
+
+    /**
+     * @param zoneId zone the job runs in, DescribeJobs only finds jobs of the zone it's sent to
+     * @param jobId  id of the job, as returned by the mutation
+     * @return future completed with the finished job, or failed with a {@link CloudException} if the job failed
+     */
+    public @Nonnull Future<Job> track(@Nonnull String zoneId, @Nonnull final String jobId,
+            @Nullable FutureCallback<Job> callback) throws InternalException {
+        BasicFuture<Job> future = new BasicFuture<Job>(callback);
+        waitFor(zoneId, jobId, FINISHED, 0, TimeUnit.MILLISECONDS, new QingCloudChainedCallback<Job, Job>(future) {
+            @Override
+            protected void onCompleted(Job job) throws Exception {
+                if (job == null) {
+                    throw new CloudException(CloudErrorType.GENERAL, 200, "404", "Job " + jobId + " not found");
+                } else if (!STATUS_SUCCESSFUL.equals(job.getStatus())) {
+                    throw new CloudException(CloudErrorType.GENERAL, 200, job.getStatus(),
+                            "Job " + jobId + " of " + job.getJobAction() + " " + job.getStatus());
+                }
+                future.completed(job);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> jobIds)
+            throws InternalException, CloudException {
+        QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud).action("DescribeJobs");
+        for (int i = 0; i < jobIds.size(); i++) {
+            requestBuilder.parameter("jobs." + (i + 1), jobIds.get(i));
+        }
+        return requestBuilder;
+    }
+
+    @Override
+    protected Map<String, Job> mapStates(DescribeJobsResponseModel responseModel) {
+        Map<String, Job> jobs = new HashMap<String, Job>();
+        if (responseModel.getJobs() != null) {
+            for (Job job : responseModel.getJobs()) {
+                jobs.put(job.getJobId(), job);
+            }
+        }
+        return jobs;
+    }
+}
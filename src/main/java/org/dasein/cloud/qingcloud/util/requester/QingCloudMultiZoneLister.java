@@ -0,0 +1,188 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
+import org.dasein.cloud.dc.Region;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.util.Jiterator;
+import org.dasein.util.JiteratorPopulator;
+import org.dasein.util.PopulatorThread;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a listing in several zones concurrently and merges the results into one stream, in the order they arrive.
+ *
+ * Every call of the provider is bound to the zone of its context, so each zone other than the context's one is listed
+ * through a provider connected to a copy of the context for that zone, closed when its listing is done. At most
+ * maxParallelRequests zones are listed at a time, on threads of this lister: the zone listings may use their provider's
+ * parallel executor themselves.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudMultiZoneLister<V> {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudMultiZoneLister.class);
+
+    protected QingCloud qingCloud;
+    private Collection<String> zoneIds;
+
+    public QingCloudMultiZoneLister(QingCloud qingCloud) {
+        this.qingCloud = qingCloud;
+    }
+
+    /**
+     * @param zoneIds zones to list, all zones of listRegions() when null
+     */
+    public QingCloudMultiZoneLister<V> withZones(@Nullable Collection<String> zoneIds) {
+        this.zoneIds = zoneIds;
+        return this;
+    }
+
+    /**
+     * List the resources of one zone, with a provider whose context is bound to that zone.
+     */
+    protected abstract Iterable<V> list(QingCloud zoneProvider) throws CloudException, InternalException;
+
+    public @Nonnull Iterable<V> iterate() throws CloudException, InternalException {
+        final List<String> zones = getZones();
+        qingCloud.hold();
+        PopulatorThread<V> populatorThread = new PopulatorThread<V>(new JiteratorPopulator<V>() {
+            @Override
+            public void populate(@Nonnull final Jiterator<V> iterator) throws Exception {
+                try {
+                    listAll(zones, iterator);
+                } finally {
+                    qingCloud.release();
+                }
+            }
+        });
+        populatorThread.populate();
+        return populatorThread.getResult();
+    }
+
+    private List<String> getZones() throws CloudException, InternalException {
+        List<String> zones = new ArrayList<String>();
+        if (zoneIds != null) {
+            zones.addAll(zoneIds);
+        } else {
+            for (Region region : qingCloud.getDataCenterServices().listRegions()) {
+                zones.add(region.getProviderRegionId());
+            }
+        }
+        return zones;
+    }
+
+    private void listAll(List<String> zones, final Jiterator<V> iterator) throws CloudException, InternalException {
+        if (zones.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(zones.size(),
+                qingCloud.getIntConfigurationValue(QingCloud.DSN_MAX_PARALLEL_REQUESTS, QingCloud.DEFAULT_MAX_PARALLEL_REQUESTS));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "QingCloud zone listing " + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final String zone : zones) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        listZone(zone, iterator);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                waitFor(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void listZone(String zone, Jiterator<V> iterator) throws CloudException, InternalException {
+        ProviderContext context = qingCloud.getContext();
+        if (context == null) {
+            throw new InternalException("No context was set for this request");
+        }
+        if (zone.equals(context.getRegionId())) {
+            push(list(qingCloud), iterator);
+            return;
+        }
+
+        QingCloud zoneProvider = (QingCloud) context.copy(zone).connect();
+        try {
+            push(list(zoneProvider), iterator);
+        } finally {
+            zoneProvider.close();
+        }
+    }
+
+    private void push(Iterable<V> items, Jiterator<V> iterator) {
+        for (V item : items) {
+            synchronized (iterator) {
+                iterator.push(item);
+            }
+        }
+    }
+
+    private void waitFor(Future<Void> future) throws CloudException, InternalException {
+        try {
+            future.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            logger.error("Listing of a zone failed: " + cause.getMessage());
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof InternalException) {
+                throw (InternalException) cause;
+            } else {
+                throw new InternalException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+import org.dasein.cloud.util.requester.fluent.Requester;
+import org.dasein.util.Jiterator;
+import org.dasein.util.JiteratorPopulator;
+import org.dasein.util.PopulatorThread;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Walks all pages of a Describe* action with offset/limit, using the total_count of the first page to know when to
+ * stop. Once the total is known the remaining pages can be fetched in parallel on the provider's executor, they are
+ * still delivered in order.
+ *
+ * Each page is a separate signed request, so subclasses provide a fresh request builder (without offset and limit)
+ * and a fresh mapper for every page.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudPaginator<C extends DescribeResponseModel, V> {
+    static public final int DEFAULT_PAGE_SIZE = 100;
+    static public final int MAX_PAGE_SIZE = 100;
+
+    protected QingCloud qingCloud;
+    private Class<C> responseModelType;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private boolean parallel = false;
+    private boolean streaming = false;
+
+    public QingCloudPaginator(QingCloud qingCloud, Class<C> responseModelType) {
+        this.qingCloud = qingCloud;
+        this.responseModelType = responseModelType;
+    }
+
+    public QingCloudPaginator<C, V> withPageSize(int pageSize) {
+        this.pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        return this;
+    }
+
+    public QingCloudPaginator<C, V> withParallelFetch(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Parse pages with a streaming parser when {@link #newStreamingMapper()} provides a mapper, so a page is never held
+     * in memory as a whole. Pages are then fetched one after another, parallel fetch is ignored.
+     */
+    public QingCloudPaginator<C, V> withStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    protected abstract QingCloudRequestBuilder newRequestBuilder() throws CloudException, InternalException;
+
+    protected abstract QingCloudDriverToCoreMapper<C, List<V>> newMapper();
+
+    /**
+     * @return mapper for streaming mode, null if the listing doesn't support it
+     */
+    protected QingCloudStreamingMapper<?, V> newStreamingMapper() {
+        return null;
+    }
+
+    /**
+     * Fetch all pages before returning.
+     */
+    public @Nonnull List<V> list() throws CloudException, InternalException {
+        final List<V> result = new ArrayList<V>();
+        fetchAll(new PageConsumer<V>() {
+            @Override
+            public void consume(List<V> items) {
+                result.addAll(items);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Fetch pages in background, the returned iterable blocks only when the caller is ahead of the fetched pages.
+     */
+    public @Nonnull Iterable<V> iterate() {
+        qingCloud.hold();
+        PopulatorThread<V> populatorThread = new PopulatorThread<V>(new JiteratorPopulator<V>() {
+            @Override
+            public void populate(@Nonnull final Jiterator<V> iterator) throws Exception {
+                try {
+                    fetchAll(new PageConsumer<V>() {
+                        @Override
+                        public void consume(List<V> items) {
+                            for (V item : items) {
+                                iterator.push(item);
+                            }
+                        }
+                    });
+                } finally {
+                    qingCloud.release();
+                }
+            }
+        });
+        populatorThread.populate();
+        return populatorThread.getResult();
+    }
+
+    private void fetchAll(PageConsumer<V> consumer) throws CloudException, InternalException {
+        QingCloudStreamingMapper<?, V> streamingMapper = ( streaming ? newStreamingMapper() : null );
+        if (streamingMapper != null) {
+            streamAll(streamingMapper, consumer);
+            return;
+        }
+
+        Page<V> firstPage = fetchPage(0);
+        consumer.consume(firstPage.getItems());
+
+        int totalCount = firstPage.getTotalCount();
+        if (totalCount <= pageSize) {
+            return;
+        }
+
+        if (parallel) {
+            ExecutorService executor = qingCloud.getParallelExecutor();
+            List<Future<Page<V>>> futures = new ArrayList<Future<Page<V>>>();
+            for (int offset = pageSize; offset < totalCount; offset += pageSize) {
+                final int pageOffset = offset;
+                futures.add(executor.submit(new Callable<Page<V>>() {
+                    @Override
+                    public Page<V> call() throws Exception {
+                        return fetchPage(pageOffset);
+                    }
+                }));
+            }
+            try {
+                for (Future<Page<V>> future : futures) {
+                    consumer.consume(getPage(future).getItems());
+                }
+            } finally {
+                for (Future<Page<V>> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        } else {
+            for (int offset = pageSize; offset < totalCount; offset += pageSize) {
+                Page<V> page = fetchPage(offset);
+                consumer.consume(page.getItems());
+                totalCount = page.getTotalCount();
+            }
+        }
+    }
+
+    private <I> void streamAll(QingCloudStreamingMapper<I, V> streamingMapper, final PageConsumer<V> consumer)
+            throws CloudException, InternalException {
+        int totalCount = Integer.MAX_VALUE;
+        for (int offset = 0; offset < totalCount; offset += pageSize) {
+            HttpUriRequest request = newRequestBuilder()
+                    .parameter("offset", offset)
+                    .parameter("limit", pageSize)
+                    .build();
+
+            Requester<Integer> requester = new QingCloudRequester<C, Integer>(qingCloud, request,
+                    new QingCloudStreamingResponseHandler<I, V>(streamingMapper,
+                            new QingCloudStreamingResponseHandler.Consumer<V>() {
+                                @Override
+                                public void consume(List<V> items) {
+                                    consumer.consume(items);
+                                }
+                            }));
+            totalCount = requester.execute();
+        }
+    }
+
+    private Page<V> fetchPage(int offset) throws CloudException, InternalException {
+        HttpUriRequest request = newRequestBuilder()
+                .parameter("offset", offset)
+                .parameter("limit", pageSize)
+                .build();
+
+        Requester<Page<V>> requester = new QingCloudRequester<C, Page<V>>(qingCloud, request,
+                new PageMapper(newMapper()), responseModelType);
+        return requester.execute();
+    }
+
+    private Page<V> getPage(Future<Page<V>> future) throws CloudException, InternalException {
+        try {
+            return future.get();
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(interruptedException);
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof InternalException) {
+                throw (InternalException) cause;
+            } else {
+                throw new InternalException(cause);
+            }
+        }
+    }
+
+    private interface PageConsumer<V> {
+        void consume(List<V> items);
+    }
+
+    private static class Page<V> {
+        private List<V> items;
+        private int totalCount;
+
+        private Page(List<V> items, int totalCount) {
+            this.items = items;
+            this.totalCount = totalCount;
+        }
+
+        public List<V> getItems() {
+            return items;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+    }
+
+    private class PageMapper extends QingCloudDriverToCoreMapper<C, Page<V>> {
+        private QingCloudDriverToCoreMapper<C, List<V>> itemsMapper;
+
+        private PageMapper(QingCloudDriverToCoreMapper<C, List<V>> itemsMapper) {
+            this.itemsMapper = itemsMapper;
+        }
+
+        @Override
+        protected Page<V> doMapFrom(C responseModel) {
+            return new Page<V>(itemsMapper.mapFrom(responseModel), responseModel.getTotalCount());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.qingcloud.QingCloud;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client side rate limiter of the QingCloud API, shared by all providers and threads using the same access key, as
+ * the API limits requests per account.
+ *
+ * Describe* actions and mutating actions are paced by separate token buckets. Each bucket admits bursts of up to one
+ * second worth of requests and then spaces requests evenly at its rate, so callers stay under the API limit instead
+ * of running into it and backing off. A throttled response (ret_code 2400) empties the bucket, so the requests that
+ * follow are paced from then on.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudRateLimiter {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudRateLimiter.class);
+
+    static public final double DEFAULT_READ_REQUESTS_PER_SECOND = 20;
+    static public final double DEFAULT_MUTATE_REQUESTS_PER_SECOND = 5;
+
+    static private final ConcurrentMap<String, QingCloudRateLimiter> rateLimiters = new ConcurrentHashMap<String, QingCloudRateLimiter>();
+
+    /**
+     * @param readRequestsPerSecond rate of Describe* actions, 0 or less for no limit
+     * @param mutateRequestsPerSecond rate of other actions, 0 or less for no limit
+     * @return the limiter of the access key, with its rates updated to the given ones
+     */
+    static public QingCloudRateLimiter getInstance(byte[] accessKeyId, double readRequestsPerSecond,
+            double mutateRequestsPerSecond) {
+        String key = new String(accessKeyId);
+        QingCloudRateLimiter rateLimiter = rateLimiters.get(key);
+        if (rateLimiter == null) {
+            rateLimiter = new QingCloudRateLimiter();
+            QingCloudRateLimiter existing = rateLimiters.putIfAbsent(key, rateLimiter);
+            if (existing != null) {
+                rateLimiter = existing;
+            }
+        }
+        rateLimiter.read.setRate(readRequestsPerSecond);
+        rateLimiter.mutate.setRate(mutateRequestsPerSecond);
+        return rateLimiter;
+    }
+
+    private final TokenBucket read = new TokenBucket("read");
+    private final TokenBucket mutate = new TokenBucket("mutate");
+
+    private QingCloudRateLimiter() {
+    }
+
+    static private boolean isRead(String action) {
+        return action != null && action.startsWith("Describe");
+    }
+
+    public TokenBucket getBucket(String action) {
+        return isRead(action) ? read : mutate;
+    }
+
+    public TokenBucket getReadBucket() {
+        return read;
+    }
+
+    public TokenBucket getMutateBucket() {
+        return mutate;
+    }
+
+    /**
+     * Blocks until a request of the action is allowed.
+     *
+     * @return milliseconds waited
+     */
+    public long acquire(String action) throws InterruptedException {
+        return getBucket(action).acquire();
+    }
+
+    /**
+     * Reserves a request of the action without blocking, for callers which delay the request themselves.
+     *
+     * @return nanoseconds to wait before sending the request
+     */
+    public long reserve(String action) {
+        return getBucket(action).reserve();
+    }
+
+    public void onThrottled(String action) {
+        getBucket(action).drain();
+    }
+
+    static public class TokenBucket {
+        private final String name;
+
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private final AtomicLong acquireCount = new AtomicLong();
+        private final AtomicLong waitCount = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong throttledCount = new AtomicLong();
+
+        TokenBucket(String name) {
+            this.name = name;
+        }
+
+        synchronized void setRate(double rate) {
+            if (rate != this.rate) {
+                refill(System.nanoTime());
+                boolean wasUnlimited = this.rate <= 0;
+                this.rate = rate;
+                tokens = ( wasUnlimited ? capacity() : Math.min(tokens, capacity()) );
+            }
+        }
+
+        public synchronized double getRate() {
+            return rate;
+        }
+
+        private double capacity() {
+            return Math.max(1, rate);
+        }
+
+        private void refill(long now) {
+            if (rate > 0) {
+                tokens = Math.min(capacity(), tokens + (now - lastRefillNanos) * rate / TimeUnit.SECONDS.toNanos(1));
+            }
+            lastRefillNanos = now;
+        }
+
+        /*
+         * Tokens may go negative: each caller reserves its token and waits until the bucket refilled up to it, so
+         * waiting callers are admitted in order, one every 1/rate seconds.
+         */
+        long reserve() {
+            long waitNanos;
+            synchronized (this) {
+                if (rate <= 0) {
+                    waitNanos = 0;
+                } else {
+                    refill(System.nanoTime());
+                    tokens -= 1;
+                    waitNanos = ( tokens >= 0 ? 0 : (long) (-tokens * TimeUnit.SECONDS.toNanos(1) / rate) );
+                }
+            }
+
+            acquireCount.incrementAndGet();
+            if (waitNanos > 0) {
+                waitCount.incrementAndGet();
+                totalWaitNanos.addAndGet(waitNanos);
+                long max = maxWaitNanos.get();
+                while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+                    max = maxWaitNanos.get();
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Waiting " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + "ms for " + name + " rate limit");
+                }
+            }
+            return waitNanos;
+        }
+
+        synchronized void drain() {
+            throttledCount.incrementAndGet();
+            refill(System.nanoTime());
+            if (tokens > 0) {
+                tokens = 0;
+            }
+        }
+
+        long acquire() throws InterruptedException {
+            long waitNanos = reserve();
+            if (waitNanos <= 0) {
+                return 0;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            return TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        }
+
+        public long getAcquireCount() {
+            return acquireCount.get();
+        }
+
+        /**
+         * @return number of requests that had to wait
+         */
+        public long getWaitCount() {
+            return waitCount.get();
+        }
+
+        public long getTotalWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get());
+        }
+
+        public long getMaxWaitMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+        }
+
+        public double getAverageWaitMillis() {
+            long count = acquireCount.get();
+            return count == 0 ? 0 : (double) totalWaitNanos.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return number of throttled responses received despite the limiter
+         */
+        public long getThrottledCount() {
+            return throttledCount.get();
+        }
+
+        @Override
+        public String toString() {
+            return name + " bucket: rate=" + getRate() + "/s, acquired=" + getAcquireCount() + ", waited="
+                    + getWaitCount() + ", totalWait=" + getTotalWaitMillis() + "ms, maxWait=" + getMaxWaitMillis()
+                    + "ms, throttled=" + getThrottledCount();
+        }
+    }
+}
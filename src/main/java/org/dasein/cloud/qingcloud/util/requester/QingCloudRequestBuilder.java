@@ -21,7 +21,6 @@
 
 package org.dasein.cloud.qingcloud.util.requester;
 
-import org.apache.commons.codec.binary.Base64;
 import org.apache.http.NameValuePair;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.client.methods.HttpUriRequest;
@@ -30,16 +29,7 @@ import org.apache.log4j.Logger;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.qingcloud.QingCloud;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Created by Jeffrey Yan on 11/12/2015.
@@ -51,9 +41,6 @@ public class QingCloudRequestBuilder {
     static private final Logger logger = QingCloud
             .getStdLogger(org.dasein.cloud.qingcloud.util.requester.QingCloudRequestBuilder.class);
 
-    static private final String SIGNATURE_ALGORITHM = "HmacSHA256";
-    static private final String ENCODING = "UTF-8";
-
     protected RequestBuilder requestBuilder;
 
     protected QingCloud qingCloud;
@@ -66,12 +53,12 @@ public class QingCloudRequestBuilder {
 
         requestBuilder.setVersion(new ProtocolVersion("HTTP", 1, 1));
 
-        requestBuilder.setUri("https://api.qingcloud.com/iaas/");
+        requestBuilder.setUri(QingCloud.DEFAULT_ENDPOINT);
 
         parameter("time_stamp", qingCloud.formatIso8601Date(new Date()));
         parameter("access_key_id", new String(accessKey[0]));
         parameter("version", "1");
-        parameter("signature_method", SIGNATURE_ALGORITHM);
+        parameter("signature_method", QingCloudSigner.SIGNATURE_ALGORITHM);
         parameter("signature_version", "1");
     }
 
@@ -122,67 +109,29 @@ public class QingCloudRequestBuilder {
     }
 
     public HttpUriRequest build() throws InternalException {
+        //endpoint is resolved from the zone of the request, and must be set before signing as the path is signed
+        requestBuilder.setUri(qingCloud.getEndpoint(zone()));
         parameter("signature", signature());
         return requestBuilder.build();
     }
 
-    protected String signature() throws InternalException {
-        Map<String, String> requestParameters = new HashMap<String, String>();
-        for (NameValuePair nameValuePair : requestBuilder.getParameters()) {
-            requestParameters.put(nameValuePair.getName(), nameValuePair.getValue());
+    private String zone() {
+        String zone = null;
+        for (NameValuePair parameter : requestBuilder.getParameters()) {
+            if ("zone".equals(parameter.getName())) {
+                zone = parameter.getValue();
+            }
         }
-
-        String[] sortedKeys = requestParameters.keySet().toArray(new String[]{});
-        Arrays.sort(sortedKeys);
-        StringBuilder canonicalStringBuilder = new StringBuilder();
-        for(String key : sortedKeys) {
-            canonicalStringBuilder.append("&").append(urlEncode(key)).append("=")
-                    .append(urlEncode(requestParameters.get(key)));
+        if (zone == null && qingCloud.getContext() != null) {
+            zone = qingCloud.getContext().getRegionId();
         }
-        String canonicalString = canonicalStringBuilder.toString().substring(1);
-
-        StringBuilder stringToSign = new StringBuilder();
-        stringToSign.append(requestBuilder.getMethod()).append("\n").append(requestBuilder.getUri().getPath()).append("\n");
-        stringToSign.append(canonicalString);
-
-        byte[][] accessKey = (byte[][]) qingCloud.getContext().getConfigurationValue(QingCloud.DSN_ACCESS_KEY);
-
-        return doMac(accessKey[1], stringToSign.toString());
+        return zone;
     }
 
-    private String doMac(byte[] accessKeySecret, String stringToSign) throws InternalException {
-        String signature;
-        try {
-            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
-            mac.init(new SecretKeySpec(accessKeySecret, SIGNATURE_ALGORITHM));
-            byte[] signedData = mac.doFinal(stringToSign.getBytes(ENCODING));
-            signature = new String(Base64.encodeBase64(signedData));
-        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-            logger.error("AliyunRequestBuilderStrategy.sign() failed due to algorithm not supported: " + noSuchAlgorithmException
-                    .getMessage());
-            throw new InternalException(noSuchAlgorithmException);
-        } catch (InvalidKeyException invalidKeyException) {
-            logger.error("AliyunRequestBuilderStrategy.sign() failed due to key invalid: " + invalidKeyException.getMessage());
-            throw new InternalException(invalidKeyException);
-        } catch (UnsupportedEncodingException unsupportedEncodingException) {
-            logger.error("AliyunMethod.sign() failed due to encoding not supported: " + unsupportedEncodingException
-                    .getMessage());
-            throw new InternalException(unsupportedEncodingException);
-        }
-        return signature;
-    }
+    protected String signature() throws InternalException {
+        byte[][] accessKey = (byte[][]) qingCloud.getContext().getConfigurationValue(QingCloud.DSN_ACCESS_KEY);
 
-    private String urlEncode(String value) throws InternalException {
-        if (value == null) {
-            return null;
-        }
-        try {
-            return URLEncoder.encode(value, ENCODING).replace("+", "%20").replace("*", "%2A").replace("%7E", "~");
-        } catch (UnsupportedEncodingException unsupportedEncodingException) {
-            logger.error(
-                    "AliyunRequestBuilderStrategy.urlEncode() failed due to encoding not supported: " + unsupportedEncodingException
-                            .getMessage());
-            throw new InternalException(unsupportedEncodingException);
-        }
+        return QingCloudSigner.getInstance(accessKey[0], accessKey[1])
+                .sign(requestBuilder.getMethod(), requestBuilder.getUri().getPath(), requestBuilder.getParameters());
     }
 }
@@ -21,9 +21,16 @@
 
 package org.dasein.cloud.qingcloud.util.requester;
 
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.ResponseHandler;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
 import org.dasein.cloud.qingcloud.QingCloud;
 import org.dasein.cloud.qingcloud.model.ResponseModel;
 import org.dasein.cloud.util.requester.DaseinRequestExecutor;
@@ -31,6 +38,10 @@ import org.dasein.cloud.util.requester.DaseinResponseHandler;
 import org.dasein.cloud.util.requester.DaseinResponseHandlerWithMapper;
 import org.dasein.cloud.util.requester.streamprocessors.JsonStreamToObjectProcessor;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Created by Jeffrey Yan on 11/17/2015.
  *
@@ -38,30 +49,120 @@ import org.dasein.cloud.util.requester.streamprocessors.JsonStreamToObjectProces
  * @since 2016.02.1
  */
 public class QingCloudRequester<C extends ResponseModel, T> extends DaseinRequestExecutor<T> {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudRequester.class);
+
+    private final QingCloud qingCloud;
+    private final HttpUriRequest httpUriRequest;
+    private Exception lastException;
 
     public QingCloudRequester(QingCloud qingCloud, HttpUriRequest httpUriRequest, Class<T> classType) {
-        super(qingCloud, QingCloudHttpClientBuilderFactory.newHttpClientBuilder(), httpUriRequest,
+        super(qingCloud, QingCloudHttpClientBuilderFactory.newHttpClientBuilder(qingCloud), httpUriRequest,
                 new DaseinResponseHandler(new JsonStreamToObjectProcessor(), classType));
+        this.qingCloud = qingCloud;
+        this.httpUriRequest = httpUriRequest;
     }
 
     public QingCloudRequester(QingCloud qingCloud, HttpUriRequest httpUriRequest,
             QingCloudDriverToCoreMapper<C, T> mapper, Class<C> classType) {
-        super(qingCloud, QingCloudHttpClientBuilderFactory.newHttpClientBuilder(), httpUriRequest,
+        super(qingCloud, QingCloudHttpClientBuilderFactory.newHttpClientBuilder(qingCloud), httpUriRequest,
                 new DaseinResponseHandlerWithMapper(new JsonStreamToObjectProcessor(), mapper, classType));
+        this.qingCloud = qingCloud;
+        this.httpUriRequest = httpUriRequest;
+    }
+
+    public QingCloudRequester(QingCloud qingCloud, HttpUriRequest httpUriRequest, ResponseHandler<T> responseHandler) {
+        super(qingCloud, QingCloudHttpClientBuilderFactory.newHttpClientBuilder(qingCloud), httpUriRequest,
+                responseHandler);
+        this.qingCloud = qingCloud;
+        this.httpUriRequest = httpUriRequest;
+    }
+
+    /*
+     * Each attempt waits for the rate limiter of the access key first. Failed requests are retried as
+     * QingCloudRetryPolicy allows, with backoff between attempts.
+     */
+    @Override
+    public T execute() throws CloudException {
+        QingCloudRetryPolicy retryPolicy = qingCloud.getRetryPolicy();
+        QingCloudRateLimiter rateLimiter;
+        try {
+            rateLimiter = qingCloud.getRateLimiter();
+        } catch (InternalException internalException) {
+            throw new CloudException(internalException);
+        }
+        String action = getAction(httpUriRequest);
+        for (int retry = 1; ; retry++) {
+            lastException = null;
+            try {
+                rateLimiter.acquire(action);
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                throw new CloudException(interruptedException);
+            }
+            try {
+                T result = super.execute();
+                retryPolicy.onSuccess();
+                return result;
+            } catch (CloudException cloudException) {
+                if (lastException instanceof QingCloudResponseException
+                        && ((QingCloudResponseException) lastException).getRetCode() == QingCloudRetryPolicy.RET_CODE_THROTTLED) {
+                    rateLimiter.onThrottled(action);
+                }
+                if (retry > retryPolicy.getMaxRetries() || lastException == null
+                        || !retryPolicy.isRetryable(action, lastException) || !retryPolicy.acquireRetry()) {
+                    throw cloudException;
+                }
+
+                long delay = retryPolicy.getDelayMillis(retry);
+                logger.warn("Retry " + retry + " of " + action + " in " + delay + "ms after: "
+                        + cloudException.getMessage());
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw cloudException;
+                }
+            }
+        }
+    }
+
+    static String getAction(HttpUriRequest httpUriRequest) {
+        List<NameValuePair> parameters = new ArrayList<NameValuePair>(
+                URLEncodedUtils.parse(httpUriRequest.getURI(), "UTF-8"));
+        if (httpUriRequest instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) httpUriRequest).getEntity();
+            if (entity != null && entity.isRepeatable()) {
+                try {
+                    parameters.addAll(URLEncodedUtils.parse(entity));
+                } catch (IOException ioException) {
+                    logger.debug("Failed to read the parameters of the request", ioException);
+                }
+            }
+        }
+        for (NameValuePair parameter : parameters) {
+            if ("action".equals(parameter.getName())) {
+                return parameter.getValue();
+            }
+        }
+        return null;
     }
 
     protected CloudException translateException(Exception exception) {
+        lastException = exception;
         if (exception instanceof QingCloudResponseException) {
-            QingCloudResponseException qingCloudResponseException = (QingCloudResponseException) exception;
-            int retCode = qingCloudResponseException.getRetCode();
-            String errorMessage = qingCloudResponseException.getErrorMessage();
-            return new CloudException(mapErrorType(retCode), 200, Integer.toString(retCode), errorMessage);
+            return toCloudException((QingCloudResponseException) exception);
         } else {
             return super.translateException(exception);
         }
     }
 
-    private CloudErrorType mapErrorType(int retCode) {
+    static CloudException toCloudException(QingCloudResponseException qingCloudResponseException) {
+        int retCode = qingCloudResponseException.getRetCode();
+        String errorMessage = qingCloudResponseException.getErrorMessage();
+        return new CloudException(mapErrorType(retCode), 200, Integer.toString(retCode), errorMessage);
+    }
+
+    static private CloudErrorType mapErrorType(int retCode) {
         if (retCode == 1100 || retCode == 2100) {
             return CloudErrorType.COMMUNICATION;
         } else if (retCode == 1200 || retCode == 1300 || retCode == 1400) {
@@ -0,0 +1,400 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.model.DescribeResponseModel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Waits for resources of one type to reach a state. Instead of a thread sleeping per resource, all outstanding waits
+ * are polled together on the scheduler of the {@link QingCloudAsyncExecutor}: one Describe request per zone and
+ * {@link #MAX_IDS_PER_REQUEST} resources, sent without blocking.
+ *
+ * The poll interval starts at {@link #MIN_POLL_INTERVAL_MILLIS} and doubles up to {@link #MAX_POLL_INTERVAL_MILLIS}
+ * while no wait is satisfied; it drops back whenever one is satisfied or a new wait starts. A new wait moves a poll
+ * scheduled further out up to {@link #MIN_POLL_INTERVAL_MILLIS}, or has the next poll follow the one in flight after
+ * {@link #MIN_POLL_INTERVAL_MILLIS}.
+ *
+ * One waiter per resource type is kept by the provider, see {@link QingCloud#getResourceWaiter(Class)}. Subclasses
+ * need a public constructor taking the provider.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudResourceWaiter<C extends DescribeResponseModel, S> {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudResourceWaiter.class);
+
+    static public final long MIN_POLL_INTERVAL_MILLIS = 500;
+    static public final long MAX_POLL_INTERVAL_MILLIS = 10000;
+    static public final int MAX_IDS_PER_REQUEST = 100;
+
+    public interface Condition<S> {
+        /**
+         * @param state current state of the resource, {@link #getAbsentState()} if the resource wasn't found
+         */
+        boolean isSatisfied(@Nullable S state);
+    }
+
+    protected final QingCloud qingCloud;
+    private final Class<C> responseModelType;
+
+    //guarded by this, waits by zone and resource id
+    private final Map<String, Map<String, List<Wait>>> waits = new HashMap<String, Map<String, List<Wait>>>();
+    private long pollInterval = MIN_POLL_INTERVAL_MILLIS;
+    //a poll is either scheduled to run at pollDueAt, or polling
+    private boolean pollScheduled = false;
+    private boolean polling = false;
+    private long pollDueAt;
+    //scheduled polls of an older generation have been moved up and don't run
+    private long pollGeneration = 0;
+    //waits started since the last poll began
+    private boolean unpolledWaits = false;
+    private boolean shutdown = false;
+
+    protected QingCloudResourceWaiter(QingCloud qingCloud, Class<C> responseModelType) {
+        this.qingCloud = qingCloud;
+        this.responseModelType = responseModelType;
+    }
+
+    /**
+     * @return request describing the given resources of the zone, without offset and limit
+     */
+    protected abstract QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> resourceIds)
+            throws InternalException, CloudException;
+
+    /**
+     * @return states of the resources in the response, keyed by resource id
+     */
+    protected abstract Map<String, S> mapStates(C responseModel);
+
+    /**
+     * @return state passed to conditions for resources the Describe call didn't return, e.g. deleted
+     */
+    protected @Nullable S getAbsentState() {
+        return null;
+    }
+
+    /**
+     * @param timeout how long to wait at most, the future fails with a {@link TimeoutException} then; 0 to wait forever
+     * @return future completed with the first state satisfying the condition
+     */
+    public @Nonnull Future<S> waitFor(@Nonnull String zoneId, @Nonnull String resourceId, @Nonnull Condition<S> condition,
+            long timeout, @Nonnull TimeUnit unit, @Nullable FutureCallback<S> callback) throws InternalException {
+        BasicFuture<S> future = new BasicFuture<S>(callback);
+        long deadline = ( timeout > 0 ? System.nanoTime() + unit.toNanos(timeout) : 0 );
+        synchronized (this) {
+            if (shutdown) {
+                throw new InternalException("Waiter has been shut down");
+            }
+            Map<String, List<Wait>> zoneWaits = waits.get(zoneId);
+            if (zoneWaits == null) {
+                zoneWaits = new HashMap<String, List<Wait>>();
+                waits.put(zoneId, zoneWaits);
+            }
+            List<Wait> resourceWaits = zoneWaits.get(resourceId);
+            if (resourceWaits == null) {
+                resourceWaits = new ArrayList<Wait>();
+                zoneWaits.put(resourceId, resourceWaits);
+            }
+            resourceWaits.add(new Wait(condition, future, deadline));
+
+            pollInterval = MIN_POLL_INTERVAL_MILLIS;
+            unpolledWaits = true;
+            if (!pollScheduled) {
+                nextPoll(MIN_POLL_INTERVAL_MILLIS);
+                pollScheduled = true;
+            } else if (!polling && pollDueAt - System.nanoTime() > TimeUnit.MILLISECONDS.toNanos(MIN_POLL_INTERVAL_MILLIS)) {
+                nextPoll(MIN_POLL_INTERVAL_MILLIS);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Block until the future of a wait completes or the timeout elapsed.
+     *
+     * @return the state, null if either this timeout or the timeout of the wait elapsed
+     */
+    static public @Nullable <S> S await(@Nonnull Future<S> future, long timeout, @Nonnull TimeUnit unit)
+            throws InternalException, CloudException {
+        try {
+            return future.get(timeout, unit);
+        } catch (TimeoutException timeoutException) {
+            return null;
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(interruptedException);
+        } catch (CancellationException cancellationException) {
+            throw new InternalException("Wait was cancelled");
+        } catch (ExecutionException executionException) {
+            Throwable cause = executionException.getCause();
+            if (cause instanceof TimeoutException) {
+                return null;
+            } else if (cause instanceof CloudException) {
+                throw (CloudException) cause;
+            } else if (cause instanceof InternalException) {
+                throw (InternalException) cause;
+            } else {
+                throw new InternalException(cause);
+            }
+        }
+    }
+
+    public synchronized int getOutstandingCount() {
+        int count = 0;
+        for (Map<String, List<Wait>> zoneWaits : waits.values()) {
+            for (List<Wait> resourceWaits : zoneWaits.values()) {
+                count += resourceWaits.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Cancel all outstanding waits.
+     */
+    public void shutdown() {
+        List<Wait> cancelled = new ArrayList<Wait>();
+        synchronized (this) {
+            shutdown = true;
+            for (Map<String, List<Wait>> zoneWaits : waits.values()) {
+                for (List<Wait> resourceWaits : zoneWaits.values()) {
+                    cancelled.addAll(resourceWaits);
+                }
+            }
+            waits.clear();
+        }
+        for (Wait wait : cancelled) {
+            wait.future.cancel();
+        }
+    }
+
+    /*
+     * Replaces the scheduled poll, if any, with one after the delay. Called holding the lock.
+     */
+    private void nextPoll(long delayMillis) throws InternalException {
+        pollGeneration++;
+        pollDueAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        schedulePoll(delayMillis);
+    }
+
+    /*
+     * Package-private, like poll(), so tests can drive the polls. Called holding the lock.
+     */
+    void schedulePoll(long delayMillis) throws InternalException {
+        final long generation = pollGeneration;
+        qingCloud.getAsyncExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (QingCloudResourceWaiter.this) {
+                    if (generation != pollGeneration) {
+                        return;
+                    }
+                }
+                poll();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void poll() {
+        List<String> zoneIds = new ArrayList<String>();
+        List<List<String>> requestedIds = new ArrayList<List<String>>();
+        synchronized (this) {
+            polling = true;
+            unpolledWaits = false;
+            for (Map.Entry<String, Map<String, List<Wait>>> entry : waits.entrySet()) {
+                List<String> resourceIds = new ArrayList<String>(entry.getValue().keySet());
+                for (int from = 0; from < resourceIds.size(); from += MAX_IDS_PER_REQUEST) {
+                    zoneIds.add(entry.getKey());
+                    requestedIds.add(resourceIds.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, resourceIds.size())));
+                }
+            }
+        }
+        if (requestedIds.isEmpty()) {
+            onPollDone(false);
+            return;
+        }
+
+        final AtomicInteger pendingRequests = new AtomicInteger(requestedIds.size());
+        final AtomicBoolean progressed = new AtomicBoolean(false);
+        for (int i = 0; i < requestedIds.size(); i++) {
+            final String zoneId = zoneIds.get(i);
+            final List<String> resourceIds = requestedIds.get(i);
+            FutureCallback<C> callback = new FutureCallback<C>() {
+                @Override
+                public void completed(C responseModel) {
+                    try {
+                        Map<String, S> states = mapStates(responseModel);
+                        for (String resourceId : resourceIds) {
+                            S state = ( states.containsKey(resourceId) ? states.get(resourceId) : getAbsentState() );
+                            if (update(zoneId, resourceId, state, true)) {
+                                progressed.set(true);
+                            }
+                        }
+                    } catch (RuntimeException runtimeException) {
+                        logger.warn("Failed to map states: " + runtimeException.getMessage());
+                    }
+                    done();
+                }
+
+                @Override
+                public void failed(Exception exception) {
+                    logger.warn("Failed to poll states: " + exception.getMessage());
+                    for (String resourceId : resourceIds) {
+                        update(zoneId, resourceId, null, false);
+                    }
+                    done();
+                }
+
+                @Override
+                public void cancelled() {
+                    done();
+                }
+
+                private void done() {
+                    if (pendingRequests.decrementAndGet() == 0) {
+                        onPollDone(progressed.get());
+                    }
+                }
+            };
+            try {
+                describe(zoneId, resourceIds, callback);
+            } catch (Exception exception) {
+                callback.failed(exception);
+            }
+        }
+    }
+
+    /*
+     * Sends the Describe request of one poll without blocking. Package-private so tests can answer the polls.
+     */
+    void describe(String zoneId, List<String> resourceIds, FutureCallback<C> callback)
+            throws InternalException, CloudException {
+        HttpUriRequest request = newRequestBuilder(zoneId, resourceIds)
+                .parameter("limit", resourceIds.size())
+                .parameter("zone", zoneId)
+                .build();
+        new QingCloudAsyncRequester<C, C>(qingCloud, request, responseModelType).execute(callback);
+    }
+
+    /*
+     * Completes the waits of the resource whose condition the state satisfies, or whose deadline passed. Without a
+     * known state only deadlines are checked. Returns true if any wait was satisfied.
+     */
+    private boolean update(String zoneId, String resourceId, S state, boolean known) {
+        List<Wait> satisfied = new ArrayList<Wait>();
+        List<Wait> expired = new ArrayList<Wait>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            Map<String, List<Wait>> zoneWaits = waits.get(zoneId);
+            List<Wait> resourceWaits = ( zoneWaits == null ? null : zoneWaits.get(resourceId) );
+            if (resourceWaits == null) {
+                return false;
+            }
+            for (Iterator<Wait> iterator = resourceWaits.iterator(); iterator.hasNext(); ) {
+                Wait wait = iterator.next();
+                if (wait.future.isDone()) {
+                    iterator.remove();
+                } else if (known && isSatisfied(wait.condition, state)) {
+                    satisfied.add(wait);
+                    iterator.remove();
+                } else if (wait.deadline != 0 && now - wait.deadline >= 0) {
+                    expired.add(wait);
+                    iterator.remove();
+                }
+            }
+            if (resourceWaits.isEmpty()) {
+                zoneWaits.remove(resourceId);
+                if (zoneWaits.isEmpty()) {
+                    waits.remove(zoneId);
+                }
+            }
+        }
+        for (Wait wait : satisfied) {
+            wait.future.completed(state);
+        }
+        for (Wait wait : expired) {
+            wait.future.failed(new TimeoutException("Timed out waiting for " + resourceId + ", last state " + state));
+        }
+        return !satisfied.isEmpty();
+    }
+
+    private boolean isSatisfied(Condition<S> condition, S state) {
+        try {
+            return condition.isSatisfied(state);
+        } catch (RuntimeException runtimeException) {
+            logger.warn("Condition failed: " + runtimeException.getMessage());
+            return false;
+        }
+    }
+
+    private synchronized void onPollDone(boolean progressed) {
+        polling = false;
+        if (shutdown || waits.isEmpty()) {
+            pollScheduled = false;
+            return;
+        }
+        if (progressed || unpolledWaits) {
+            pollInterval = MIN_POLL_INTERVAL_MILLIS;
+        } else {
+            pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MILLIS);
+        }
+        try {
+            nextPoll(pollInterval);
+        } catch (InternalException internalException) {
+            logger.error("Failed to schedule poll: " + internalException.getMessage());
+            pollScheduled = false;
+        }
+    }
+
+    private class Wait {
+        private final Condition<S> condition;
+        private final BasicFuture<S> future;
+        private final long deadline;
+
+        private Wait(Condition<S> condition, BasicFuture<S> future, long deadline) {
+            this.condition = condition;
+            this.future = future;
+            this.deadline = deadline;
+        }
+    }
+}
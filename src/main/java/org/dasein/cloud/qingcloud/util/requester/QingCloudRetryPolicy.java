@@ -0,0 +1,143 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.qingcloud.QingCloud;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Random;
+
+/**
+ * Decides whether a failed API request is retried, and how long to wait before doing so.
+ *
+ * Describe* actions have no side effect and are retried on any I/O failure, on throttling and on server errors.
+ * Other actions are retried only when the request never reached the API (connection failures) or was rejected by
+ * throttling before being executed. Delays grow exponentially with full jitter, so throttled callers spread out.
+ *
+ * Retries are paid from a budget shared by all requests of one provider: each retry takes one token and every
+ * successful request returns a tenth of one, so during an outage retries die out instead of multiplying the load.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudRetryPolicy {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudRetryPolicy.class);
+
+    static public final int DEFAULT_MAX_RETRIES = 3;
+    static public final int DEFAULT_RETRY_BUDGET = 20;
+    static public final long DEFAULT_BASE_DELAY_MILLIS = 200;
+    static public final long DEFAULT_MAX_DELAY_MILLIS = 10000;
+
+    static public final int RET_CODE_THROTTLED = 2400;
+    static public final int RET_CODE_INTERNAL_ERROR = 5000;
+    static public final int RET_CODE_SERVER_BUSY = 5100;
+
+    //budget is kept in thousandths of a retry
+    static private final int RETRY_COST = 1000;
+    static private final int SUCCESS_REFUND = 100;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int budgetCapacity;
+    private final Random random = new Random();
+    private int budget;
+
+    public QingCloudRetryPolicy(int maxRetries, int retryBudget) {
+        this(maxRetries, retryBudget, DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    public QingCloudRetryPolicy(int maxRetries, int retryBudget, long baseDelayMillis, long maxDelayMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+        this.budgetCapacity = Math.max(0, retryBudget) * RETRY_COST;
+        this.budget = budgetCapacity;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public boolean isRetryable(String action, Exception exception) {
+        if (isConnectFailure(exception) || isRetCode(exception, RET_CODE_THROTTLED)) {
+            return true;
+        }
+        if (action == null || !action.startsWith("Describe")) {
+            return false;
+        }
+        if (exception instanceof HttpResponseException) {
+            return ((HttpResponseException) exception).getStatusCode() >= 500;
+        }
+        return exception instanceof IOException || isRetCode(exception, RET_CODE_INTERNAL_ERROR)
+                || isRetCode(exception, RET_CODE_SERVER_BUSY);
+    }
+
+    /**
+     * Takes one retry from the budget.
+     *
+     * @return false if the budget is exhausted and the request must not be retried
+     */
+    public synchronized boolean acquireRetry() {
+        if (budget < RETRY_COST) {
+            logger.warn("Retry budget exhausted, failing request without retry");
+            return false;
+        }
+        budget -= RETRY_COST;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        budget = Math.min(budgetCapacity, budget + SUCCESS_REFUND);
+    }
+
+    public synchronized int getRemainingBudget() {
+        return budget / RETRY_COST;
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     * @return random delay between 0 and base * 2^(retry - 1), capped at the maximum delay
+     */
+    public long getDelayMillis(int retry) {
+        long ceiling = baseDelayMillis << Math.min(Math.max(retry - 1, 0), 20);
+        ceiling = Math.min(ceiling, maxDelayMillis);
+        synchronized (random) {
+            return (long) (random.nextDouble() * ceiling);
+        }
+    }
+
+    static private boolean isConnectFailure(Exception exception) {
+        return exception instanceof ConnectException || exception instanceof ConnectTimeoutException
+                || exception instanceof NoRouteToHostException || exception instanceof UnknownHostException;
+    }
+
+    static private boolean isRetCode(Exception exception, int retCode) {
+        return exception instanceof QingCloudResponseException
+                && ((QingCloudResponseException) exception).getRetCode() == retCode;
+    }
+}
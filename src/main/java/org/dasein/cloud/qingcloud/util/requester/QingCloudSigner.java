@@ -0,0 +1,263 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.NameValuePair;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.QingCloud;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Signs QingCloud API requests (signature version 1, HmacSHA256).
+ *
+ * One signer is kept per access key. Each thread gets its own initialized {@link Mac} and canonical string buffer,
+ * so signing a request doesn't look up the algorithm, re-init the key or build intermediate strings again.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudSigner {
+    static private final Logger logger = QingCloud.getStdLogger(QingCloudSigner.class);
+
+    static public final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    static private final ConcurrentMap<String, QingCloudSigner> signers = new ConcurrentHashMap<String, QingCloudSigner>();
+
+    static private final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    static private final Comparator<NameValuePair> NAME_COMPARATOR = new Comparator<NameValuePair>() {
+        @Override
+        public int compare(NameValuePair first, NameValuePair second) {
+            return first.getName().compareTo(second.getName());
+        }
+    };
+
+    /**
+     * @param accessKeyId access key id
+     * @param accessKeySecret access key secret
+     * @return the signer shared by all requests signed with this access key
+     */
+    static public QingCloudSigner getInstance(byte[] accessKeyId, byte[] accessKeySecret) {
+        String key = new String(accessKeyId);
+        QingCloudSigner signer = signers.get(key);
+        if (signer == null || !Arrays.equals(signer.accessKeySecret, accessKeySecret)) {
+            signer = new QingCloudSigner(accessKeySecret);
+            signers.put(key, signer);
+        }
+        return signer;
+    }
+
+    private final byte[] accessKeySecret;
+    private final SecretKeySpec secretKeySpec;
+
+    private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>();
+    private final ThreadLocal<AsciiBuffer> buffers = new ThreadLocal<AsciiBuffer>() {
+        @Override
+        protected AsciiBuffer initialValue() {
+            return new AsciiBuffer(1024);
+        }
+    };
+
+    private QingCloudSigner(byte[] accessKeySecret) {
+        this.accessKeySecret = accessKeySecret.clone();
+        this.secretKeySpec = new SecretKeySpec(this.accessKeySecret, SIGNATURE_ALGORITHM);
+    }
+
+    /**
+     * Sign a request. Parameters are sorted by name, when a name appears more than once the last value is signed.
+     *
+     * @param method HTTP method
+     * @param path path of the request URI
+     * @param parameters request parameters, without the signature
+     * @return Base64 encoded signature
+     */
+    public String sign(String method, String path, List<NameValuePair> parameters) throws InternalException {
+        NameValuePair[] sortedParameters = parameters.toArray(new NameValuePair[parameters.size()]);
+        Arrays.sort(sortedParameters, NAME_COMPARATOR); //stable, so duplicated names keep their order
+
+        AsciiBuffer buffer = buffers.get();
+        buffer.reset();
+        buffer.append(method).append('\n').append(path).append('\n');
+
+        boolean first = true;
+        for (int i = 0; i < sortedParameters.length; i++) {
+            NameValuePair parameter = sortedParameters[i];
+            if (i + 1 < sortedParameters.length && parameter.getName().equals(sortedParameters[i + 1].getName())) {
+                continue;
+            }
+            if (!first) {
+                buffer.append('&');
+            }
+            first = false;
+            buffer.appendEncoded(parameter.getName()).append('=');
+            if (parameter.getValue() == null) {
+                buffer.append("null");
+            } else {
+                buffer.appendEncoded(parameter.getValue());
+            }
+        }
+
+        Mac mac = getMac();
+        mac.update(buffer.bytes(), 0, buffer.length());
+        return new String(Base64.encodeBase64(mac.doFinal()));
+    }
+
+    private Mac getMac() throws InternalException {
+        Mac mac = macs.get();
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+                mac.init(secretKeySpec);
+            } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+                logger.error("QingCloudSigner.getMac() failed due to algorithm not supported: " + noSuchAlgorithmException
+                        .getMessage());
+                throw new InternalException(noSuchAlgorithmException);
+            } catch (InvalidKeyException invalidKeyException) {
+                logger.error("QingCloudSigner.getMac() failed due to key invalid: " + invalidKeyException.getMessage());
+                throw new InternalException(invalidKeyException);
+            }
+            macs.set(mac);
+        }
+        return mac;
+    }
+
+    /**
+     * Growable byte buffer for the string to sign, which is plain ASCII once the parameters are encoded.
+     */
+    private static class AsciiBuffer {
+        private byte[] bytes;
+        private int length;
+
+        private AsciiBuffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void reset() {
+            length = 0;
+        }
+
+        private byte[] bytes() {
+            return bytes;
+        }
+
+        private int length() {
+            return length;
+        }
+
+        private AsciiBuffer append(char c) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        private AsciiBuffer append(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else {
+                    appendUtf8(value, i, false);
+                    i += Character.charCount(value.codePointAt(i)) - 1;
+                }
+            }
+            return this;
+        }
+
+        /*
+         * RFC 3986 percent-encoding: only ALPHA / DIGIT / "-" / "." / "_" / "~" are kept, everything else is written as
+         * %XX of its UTF-8 bytes.
+         */
+        private AsciiBuffer appendEncoded(String value) {
+            ensureCapacity(value.length() * 3);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                        || c == '-' || c == '.' || c == '_' || c == '~') {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x80) {
+                    appendPercentEncoded(c);
+                } else {
+                    appendUtf8(value, i, true);
+                    i += Character.charCount(value.codePointAt(i)) - 1;
+                }
+            }
+            return this;
+        }
+
+        private void appendUtf8(String value, int index, boolean percentEncoded) {
+            char c = value.charAt(index);
+            int codePoint = value.codePointAt(index);
+            if ((Character.isHighSurrogate(c) || Character.isLowSurrogate(c))
+                    && !Character.isSupplementaryCodePoint(codePoint)) {
+                codePoint = '?'; //unpaired surrogate, same replacement as String.getBytes
+            }
+            if (codePoint < 0x80) {
+                appendByte(codePoint, percentEncoded);
+            } else if (codePoint < 0x800) {
+                appendByte(0xC0 | (codePoint >> 6), percentEncoded);
+                appendByte(0x80 | (codePoint & 0x3F), percentEncoded);
+            } else if (codePoint < 0x10000) {
+                appendByte(0xE0 | (codePoint >> 12), percentEncoded);
+                appendByte(0x80 | ((codePoint >> 6) & 0x3F), percentEncoded);
+                appendByte(0x80 | (codePoint & 0x3F), percentEncoded);
+            } else {
+                appendByte(0xF0 | (codePoint >> 18), percentEncoded);
+                appendByte(0x80 | ((codePoint >> 12) & 0x3F), percentEncoded);
+                appendByte(0x80 | ((codePoint >> 6) & 0x3F), percentEncoded);
+                appendByte(0x80 | (codePoint & 0x3F), percentEncoded);
+            }
+        }
+
+        private void appendByte(int b, boolean percentEncoded) {
+            if (percentEncoded) {
+                appendPercentEncoded(b);
+            } else {
+                ensureCapacity(1);
+                bytes[length++] = (byte) b;
+            }
+        }
+
+        private void appendPercentEncoded(int b) {
+            ensureCapacity(3);
+            bytes[length++] = '%';
+            bytes[length++] = (byte) HEX_DIGITS[b >> 4];
+            bytes[length++] = (byte) HEX_DIGITS[b & 0x0F];
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import java.util.List;
+
+/**
+ * Maps the items of a Describe* response to core objects a batch at a time, for
+ * {@link QingCloudStreamingResponseHandler}, which binds the elements of the items array one by one instead of the
+ * whole response.
+ *
+ * @since 2016.02.1
+ */
+public abstract class QingCloudStreamingMapper<I, V> {
+    static public final int DEFAULT_BATCH_SIZE = 20;
+
+    private final String setName;
+    private final Class<I> itemType;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * @param setName name of the items array in the response, e.g. instance_set
+     * @param itemType type each element of the array is bound to
+     */
+    public QingCloudStreamingMapper(String setName, Class<I> itemType) {
+        this.setName = setName;
+        this.itemType = itemType;
+    }
+
+    /**
+     * Items are mapped in batches of this size, so mappers which look up related resources can do it per batch.
+     */
+    public QingCloudStreamingMapper<I, V> withBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public String getSetName() {
+        return setName;
+    }
+
+    public Class<I> getItemType() {
+        return itemType;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    protected abstract List<V> mapItems(List<I> items);
+}
@@ -0,0 +1,138 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a Describe* response with a streaming parser: each element of the items array is bound and collected into a
+ * small batch, which is mapped and handed to the consumer before the next elements are read. Memory use is bounded by
+ * the batch size instead of the response size. The response handled yields the total_count.
+ *
+ * The handler can be executed again for the same request when it is retried: items already delivered by a failed
+ * attempt are skipped, so the consumer sees every item once.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudStreamingResponseHandler<I, V> implements ResponseHandler<Integer> {
+    static private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public interface Consumer<V> {
+        void consume(List<V> items);
+    }
+
+    private final QingCloudStreamingMapper<I, V> mapper;
+    private final Consumer<V> consumer;
+    private int delivered;
+
+    public QingCloudStreamingResponseHandler(QingCloudStreamingMapper<I, V> mapper, Consumer<V> consumer) {
+        this.mapper = mapper;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public Integer handleResponse(HttpResponse httpResponse) throws IOException {
+        StatusLine statusLine = httpResponse.getStatusLine();
+        HttpEntity entity = httpResponse.getEntity();
+        if (statusLine.getStatusCode() >= 300) {
+            EntityUtils.consume(entity);
+            throw new HttpResponseException(statusLine.getStatusCode(), statusLine.getReasonPhrase());
+        }
+        if (entity == null) {
+            throw new IOException("Response has no content");
+        }
+
+        InputStream inputStream = entity.getContent();
+        try {
+            return parse(objectMapper.getFactory().createParser(inputStream));
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private int parse(JsonParser parser) throws IOException {
+        int retCode = 0;
+        String message = null;
+        int totalCount = 0;
+        int skip = delivered;
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Response is not a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("ret_code".equals(field)) {
+                retCode = parser.getIntValue();
+            } else if ("message".equals(field)) {
+                message = parser.getValueAsString();
+            } else if ("total_count".equals(field)) {
+                totalCount = parser.getIntValue();
+            } else if (mapper.getSetName().equals(field) && value == JsonToken.START_ARRAY) {
+                List<I> batch = new ArrayList<I>(mapper.getBatchSize());
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    I item = objectMapper.readValue(parser, mapper.getItemType());
+                    if (skip > 0) {
+                        skip--;
+                        continue;
+                    }
+                    batch.add(item);
+                    if (batch.size() == mapper.getBatchSize()) {
+                        deliver(batch);
+                        batch = new ArrayList<I>(mapper.getBatchSize());
+                    }
+                }
+                deliver(batch);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (retCode != 0) {
+            throw new QingCloudResponseException(retCode, message);
+        }
+        return totalCount;
+    }
+
+    private void deliver(List<I> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        consumer.consume(mapper.mapItems(batch));
+        delivered += batch.size();
+    }
+}
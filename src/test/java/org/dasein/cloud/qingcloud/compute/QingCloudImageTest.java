@@ -0,0 +1,54 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.compute.Architecture;
+import org.dasein.cloud.compute.ImageClass;
+import org.dasein.cloud.compute.ImageFilterOptions;
+import org.dasein.cloud.compute.MachineImage;
+import org.dasein.cloud.compute.MachineImageState;
+import org.dasein.cloud.compute.Platform;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QingCloudImageTest {
+
+    @Test
+    public void regexMatchingDescriptionShouldNotBePushed() throws CloudException, InternalException {
+        MachineImage image = MachineImage.getInstance("usr-QCKlPe3t", "pek2", "img-b2tlj3cr", ImageClass.MACHINE,
+                MachineImageState.ACTIVE, "web-base", "centos 6.6 with nginx", Architecture.I64, Platform.CENT_OS);
+
+        ImageFilterOptions options = ImageFilterOptions.getInstance().matchingRegex("^centos.*");
+        assertTrue(options.matches(image));
+
+        QingCloudFilter filter = new QingCloudImage(new QingCloud()).newImageFilter("pek2", options);
+        assertNull(filter.getParameter("search_word"));
+        assertFalse(filter.isMatchingNothing());
+    }
+}
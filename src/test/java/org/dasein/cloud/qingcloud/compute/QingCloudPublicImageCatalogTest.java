@@ -0,0 +1,159 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute;
+
+import org.dasein.cloud.compute.Architecture;
+import org.dasein.cloud.compute.ImageClass;
+import org.dasein.cloud.compute.ImageFilterOptions;
+import org.dasein.cloud.compute.MachineImage;
+import org.dasein.cloud.compute.MachineImageState;
+import org.dasein.cloud.compute.Platform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudPublicImageCatalogTest {
+
+    private List<MachineImage> images;
+    private QingCloudPublicImageCatalog.ZoneImages zoneImages;
+
+    @Before
+    public void setUp() {
+        images = new ArrayList<MachineImage>();
+        images.add(newImage("img-centos65", "centos65x64", "CentOS 6.5 64bit", Architecture.I64, Platform.CENT_OS));
+        images.add(newImage("img-centos66", "centos66x64", "CentOS 6.6 64bit", Architecture.I64, Platform.CENT_OS));
+        images.add(newImage("img-ubuntu14", "trustysrvx64", "Ubuntu Server 14.04 LTS 64bit", Architecture.I64,
+                Platform.UBUNTU));
+        images.add(newImage("img-ubuntu14-32", "trustysrvx86", "Ubuntu Server 14.04 LTS 32bit", Architecture.I32,
+                Platform.UBUNTU));
+        images.add(newImage("img-win2008", "win2008r2chsx64", "Windows Server 2008 R2 Chinese", Architecture.I64,
+                Platform.WINDOWS));
+        images.add(newImage("img-toolbox", "toolbox", "centos 6.6 with ops tools", Architecture.I64,
+                Platform.CENT_OS));
+        zoneImages = new QingCloudPublicImageCatalog.ZoneImages(images);
+    }
+
+    private MachineImage newImage(String imageId, String name, String description, Architecture architecture,
+            Platform platform) {
+        MachineImage image = MachineImage.getInstance("system", "pek2", imageId, ImageClass.MACHINE,
+                MachineImageState.ACTIVE, name, description, architecture, platform);
+        image.constrainedTo("pek2");
+        return image;
+    }
+
+    private List<String> toImageIds(Collection<MachineImage> images) {
+        List<String> imageIds = new ArrayList<String>();
+        for (MachineImage image : images) {
+            imageIds.add(image.getProviderMachineImageId());
+        }
+        return imageIds;
+    }
+
+    @Test
+    public void anchoredRegexShouldHaveNamePrefix() {
+        assertEquals("centos", QingCloudPublicImageCatalog.toPrefix("^centos.*"));
+        assertEquals("web-", QingCloudPublicImageCatalog.toPrefix("^web-[0-9]+"));
+        assertEquals("centos6", QingCloudPublicImageCatalog.toPrefix("^centos65?"));
+        assertEquals("centos", QingCloudPublicImageCatalog.toPrefix("^centos6{2}"));
+    }
+
+    @Test
+    public void regexShouldNotHaveNamePrefix() {
+        assertNull(QingCloudPublicImageCatalog.toPrefix(null));
+        assertNull(QingCloudPublicImageCatalog.toPrefix("centos.*"));
+        assertNull(QingCloudPublicImageCatalog.toPrefix("^centos|^ubuntu"));
+        assertNull(QingCloudPublicImageCatalog.toPrefix("^.*x64"));
+        assertNull(QingCloudPublicImageCatalog.toPrefix("^c?entos"));
+    }
+
+    @Test
+    public void searchShouldSelectSmallestIndex() {
+        ImageFilterOptions options = ImageFilterOptions.getInstance().withArchitecture(Architecture.I64)
+                .onPlatform(Platform.WINDOWS);
+        assertEquals(Arrays.asList("img-win2008"), toImageIds(zoneImages.select(options)));
+
+        options = ImageFilterOptions.getInstance().withArchitecture(Architecture.I32);
+        assertEquals(Arrays.asList("img-ubuntu14-32"), toImageIds(zoneImages.select(options)));
+
+        options = ImageFilterOptions.getInstance().onPlatform(Platform.UBUNTU).matchingRegex("^centos.*");
+        assertEquals(Arrays.asList("img-ubuntu14", "img-ubuntu14-32"), toImageIds(zoneImages.select(options)));
+    }
+
+    @Test
+    public void regexShouldSelectDescriptionAndIdMatches() {
+        ImageFilterOptions options = ImageFilterOptions.getInstance().matchingRegex("^centos.*");
+        assertEquals(Arrays.asList("img-toolbox", "img-centos65", "img-centos66"),
+                toImageIds(zoneImages.select(options)));
+        assertEquals(Arrays.asList("img-toolbox", "img-centos65", "img-centos66"),
+                toImageIds(zoneImages.search(options)));
+
+        options = ImageFilterOptions.getInstance().matchingRegex("^img-win.*");
+        assertEquals(Arrays.asList("img-win2008"), toImageIds(zoneImages.select(options)));
+    }
+
+    @Test
+    public void unixPlatformShouldSelectAllImages() {
+        ImageFilterOptions options = ImageFilterOptions.getInstance().onPlatform(Platform.UNIX);
+        assertSame(zoneImages.getImages(), zoneImages.select(options));
+        assertSame(zoneImages.getImages(), zoneImages.select(null));
+    }
+
+    @Test
+    public void searchShouldMatchOptions() {
+        ImageFilterOptions options = ImageFilterOptions.getInstance().withArchitecture(Architecture.I64)
+                .matchingRegex("^centos6.*");
+        assertEquals(Arrays.asList("img-centos65", "img-centos66"), toImageIds(zoneImages.search(options)));
+
+        options = ImageFilterOptions.getInstance().onPlatform(Platform.UBUNTU).withArchitecture(Architecture.I64);
+        assertEquals(Arrays.asList("img-ubuntu14"), toImageIds(zoneImages.search(options)));
+
+        options = ImageFilterOptions.getInstance().matchingRegex("^debian.*");
+        assertTrue(zoneImages.search(options).isEmpty());
+
+        assertEquals(toImageIds(images), toImageIds(zoneImages.search(null)));
+    }
+
+    @Test
+    public void searchShouldReturnCopies() {
+        ImageFilterOptions options = ImageFilterOptions.getInstance().onPlatform(Platform.WINDOWS);
+        MachineImage found = zoneImages.search(options).get(0);
+        assertNotSame(images.get(4), found);
+        assertEquals("win2008r2chsx64", found.getName());
+        assertEquals("pek2", found.getProviderDataCenterId());
+
+        found.setTag("owner", "web");
+        assertTrue(zoneImages.search(options).get(0).getTags().isEmpty());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.compute;
+
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.compute.VMFilterOptions;
+import org.dasein.cloud.compute.VirtualMachine;
+import org.dasein.cloud.network.RawAddress;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.util.requester.QingCloudFilter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QingCloudVirtualMachineTest {
+
+    @Test
+    public void regexMatchingDescriptionShouldNotBePushed() throws CloudException, InternalException {
+        VirtualMachine virtualMachine = new VirtualMachine();
+        virtualMachine.setProviderVirtualMachineId("i-tb4j4bjb");
+        virtualMachine.setName("web-01");
+        virtualMachine.setDescription("backend of the shop");
+        virtualMachine.setPrivateAddresses(new RawAddress("10.50.28.68"));
+        virtualMachine.setPublicAddresses(new RawAddress("121.201.7.12"));
+
+        VMFilterOptions options = VMFilterOptions.getInstance().matchingRegex("^backend.*");
+        assertTrue(options.matches(virtualMachine));
+
+        QingCloudFilter filter = new QingCloudVirtualMachine(new QingCloud()).newVMFilter("pek2", options);
+        assertNull(filter.getParameter("search_word"));
+        assertFalse(filter.isMatchingNothing());
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+package org.dasein.cloud.qingcloud.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dasein.cloud.qingcloud.network.QingCloudTagDiff.TagValue;
+import org.dasein.cloud.qingcloud.network.QingCloudTagIndex.ZoneTags;
+import org.dasein.cloud.qingcloud.network.QingCloudTags.DescribeTag;
+import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel;
+import org.dasein.cloud.qingcloud.network.model.DescribeTagsResponseModel.DescribeTagsResponseItemModel.ResourceTagPair;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudTagDiffTest {
+
+	private ZoneTags zoneTags;
+
+	@Before
+	public void setUp() {
+		List<DescribeTagsResponseItemModel> items = new ArrayList<DescribeTagsResponseItemModel>();
+		items.add(newTag("tag-web", "role", "web", "i-1", "i-2"));
+		items.add(newTag("tag-db", "role", "db", "i-3"));
+		items.add(newTag("tag-prod", "env", "prod", "i-1", "i-4"));
+		items.add(newTag("tag-alice", "owner", "alice", "i-2"));
+		zoneTags = new ZoneTags(items);
+	}
+
+	private DescribeTagsResponseItemModel newTag(String tagId, String name, String description, String ... resourceIds) {
+		DescribeTagsResponseItemModel item = new DescribeTagsResponseItemModel();
+		item.setTagId(tagId);
+		item.setTagName(name);
+		item.setDescription(description);
+		List<ResourceTagPair> pairs = new ArrayList<ResourceTagPair>();
+		for (String resourceId : resourceIds) {
+			ResourceTagPair pair = new ResourceTagPair();
+			pair.setTagId(tagId);
+			pair.setResourceType("instance");
+			pair.setResourceId(resourceId);
+			pairs.add(pair);
+		}
+		item.setResourceTagPairs(pairs);
+		return item;
+	}
+
+	private Map<String, String> tags(String ... keyValues) {
+		Map<String, String> tags = new LinkedHashMap<String, String>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			tags.put(keyValues[i], keyValues[i + 1]);
+		}
+		return tags;
+	}
+
+	private Set<String> set(String ... values) {
+		return new LinkedHashSet<String>(Arrays.asList(values));
+	}
+
+	@Test
+	public void wantedTagsShouldBeEmptyDiff() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-1", "i-2"), tags("role", "web"), false);
+		assertTrue(diff.isEmpty());
+	}
+
+	@Test
+	public void existingKeyAndValueShouldBeReused() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-4"), tags("role", "web"), false);
+
+		TagValue web = new TagValue("role", "web");
+		assertTrue(diff.getTagsToCreate().isEmpty());
+		assertEquals(Collections.singletonMap(web, "tag-web"), diff.getReusedTagIds());
+		assertEquals(Collections.singletonMap(web, set("i-4")), diff.getAttaches());
+		assertTrue(diff.getDetaches().isEmpty());
+		assertTrue(diff.getTagsToDelete().isEmpty());
+	}
+
+	@Test
+	public void tagOnlyUsedByBatchShouldChangeInPlace() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-2"), tags("owner", "bob"), false);
+
+		assertEquals(Collections.singletonMap("tag-alice", "bob"), diff.getAttributeChanges());
+		assertTrue(diff.getTagsToCreate().isEmpty());
+		assertTrue(diff.getAttaches().isEmpty());
+		assertTrue(diff.getDetaches().isEmpty());
+		assertTrue(diff.getTagsToDelete().isEmpty());
+	}
+
+	@Test
+	public void newKeyAndValueShouldBeCreatedOnceForBatch() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-3", "i-4"), tags("team", "ops"), false);
+
+		TagValue ops = new TagValue("team", "ops");
+		assertTrue(diff.getReusedTagIds().isEmpty());
+		assertEquals(Collections.singleton(ops), diff.getTagsToCreate());
+		assertEquals(Collections.singletonMap(ops, set("i-3", "i-4")), diff.getAttaches());
+	}
+
+	@Test
+	public void sharedTagShouldBeDetachedNotChanged() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-1"), tags("env", "dev"), false);
+
+		TagValue dev = new TagValue("env", "dev");
+		assertTrue(diff.getAttributeChanges().isEmpty());
+		assertEquals(Collections.singletonMap("tag-prod", set("i-1")), diff.getDetaches());
+		assertEquals(Collections.singleton(dev), diff.getTagsToCreate());
+		assertEquals(Collections.singletonMap(dev, set("i-1")), diff.getAttaches());
+		assertTrue(diff.getTagsToDelete().isEmpty());
+	}
+
+	@Test
+	public void orphanedTagShouldBeDeleted() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-3"), tags("role", "web"), false);
+
+		assertEquals(Collections.singletonMap(new TagValue("role", "web"), "tag-web"), diff.getReusedTagIds());
+		assertEquals(Collections.singletonMap("tag-db", set("i-3")), diff.getDetaches());
+		assertEquals(set("tag-db"), diff.getTagsToDelete());
+	}
+
+	@Test
+	public void removeShouldDeleteOrphanedTagsOnly() {
+		QingCloudTagDiff diff = QingCloudTagDiff.remove(zoneTags, Arrays.asList("i-1", "i-3"), Arrays.asList("role", "env"));
+
+		Map<String, Set<String>> detaches = new LinkedHashMap<String, Set<String>>();
+		detaches.put("tag-web", set("i-1"));
+		detaches.put("tag-prod", set("i-1"));
+		detaches.put("tag-db", set("i-3"));
+		assertEquals(detaches, diff.getDetaches());
+		assertEquals(set("tag-db"), diff.getTagsToDelete());
+	}
+
+	@Test
+	public void tagWithResourceOutsideBatchShouldNotBeChangedOrDeleted() {
+		QingCloudTagDiff stale = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-2"), tags("owner", "bob"), false);
+		assertTrue(stale.isDestructive());
+
+		List<DescribeTagsResponseItemModel> items = new ArrayList<DescribeTagsResponseItemModel>();
+		items.add(newTag("tag-alice", "owner", "alice", "i-2", "i-5"));
+		items.add(newTag("tag-db", "role", "db", "i-3", "i-6"));
+		ZoneTags fresh = new ZoneTags(items);
+
+		QingCloudTagDiff diff = QingCloudTagDiff.update(fresh, Arrays.asList("i-2"), tags("owner", "bob"), false);
+		TagValue bob = new TagValue("owner", "bob");
+		assertFalse(diff.isDestructive());
+		assertTrue(diff.getAttributeChanges().isEmpty());
+		assertEquals(Collections.singletonMap("tag-alice", set("i-2")), diff.getDetaches());
+		assertEquals(Collections.singleton(bob), diff.getTagsToCreate());
+		assertEquals(Collections.singletonMap(bob, set("i-2")), diff.getAttaches());
+		assertTrue(diff.getTagsToDelete().isEmpty());
+
+		diff = QingCloudTagDiff.remove(fresh, Arrays.asList("i-3"), Arrays.asList("role"));
+		assertFalse(diff.isDestructive());
+		assertEquals(Collections.singletonMap("tag-db", set("i-3")), diff.getDetaches());
+		assertTrue(diff.getTagsToDelete().isEmpty());
+	}
+
+	@Test
+	public void changingHandedOutTagShouldNotChangeZoneTags() {
+		zoneTags.getResourceTags("i-1").get(0).setTagDescription("db");
+		zoneTags.getTag("tag-prod").setTagName("stage");
+		for (DescribeTag tag : zoneTags.getTags()) {
+			tag.setTagDescription("");
+		}
+
+		assertEquals("web", zoneTags.getTag("tag-web").getTagDescription());
+		assertEquals("env", zoneTags.getTag("tag-prod").getTagName());
+		assertTrue(QingCloudTagDiff.update(zoneTags, Arrays.asList("i-1", "i-2"), tags("role", "web"), false).isEmpty());
+	}
+
+	@Test
+	public void replaceShouldDetachUnwantedKeys() {
+		QingCloudTagDiff diff = QingCloudTagDiff.update(zoneTags, Arrays.asList("i-2"), tags("role", "web"), true);
+
+		assertTrue(diff.getAttaches().isEmpty());
+		assertEquals(Collections.singletonMap("tag-alice", set("i-2")), diff.getDetaches());
+		assertEquals(set("tag-alice"), diff.getTagsToDelete());
+	}
+}
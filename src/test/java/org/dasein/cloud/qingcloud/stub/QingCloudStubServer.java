@@ -0,0 +1,881 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SimpleTimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the QingCloud IaaS API, for offline integration and load testing of the driver.
+ *
+ * It keeps instances, volumes, snapshots, images, load balancers, listeners, tags and jobs in memory and answers the
+ * actions the driver uses, with offset/limit pagination and total_count like the real API. Latency and ret_code 2400
+ * throttling can be configured. Point a driver at it by registering the cloud with {@link #getEndpoint()}.
+ *
+ * Signatures are not verified.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudStubServer {
+    static public final String ZONE = "pek2";
+
+    static public final int DEFAULT_LIMIT = 20;
+    static public final int MAX_LIMIT = 100;
+
+    static public final int RET_CODE_OK = 0;
+    static public final int RET_CODE_MESSAGE_FORMAT_ERROR = 1100;
+    static public final int RET_CODE_RESOURCE_NOT_FOUND = 2100;
+    static public final int RET_CODE_THROTTLED = 2400;
+
+    static private final String ISO8601_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    private final Map<String, Map<String, JSONObject>> resources = new HashMap<String, Map<String, JSONObject>>();
+    private final Map<String, Long> transitionsEnd = new HashMap<String, Long>();
+    private final Map<String, AtomicInteger> actionCounts = new HashMap<String, AtomicInteger>();
+    private final AtomicInteger idSequence = new AtomicInteger();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicInteger throttleNext = new AtomicInteger();
+
+    private volatile long latencyMillis;
+    private volatile long transitionMillis;
+    private volatile int maxRequestsPerSecond;
+    private long currentSecond;
+    private int requestsInCurrentSecond;
+
+    private HttpServer httpServer;
+    private ExecutorService executor;
+
+    public QingCloudStubServer start() throws IOException {
+        return start(0);
+    }
+
+    public QingCloudStubServer start(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        httpServer.createContext("/iaas/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                QingCloudStubServer.this.handle(exchange);
+            }
+        });
+        executor = Executors.newCachedThreadPool();
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return this;
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdownNow();
+            httpServer = null;
+        }
+    }
+
+    /**
+     * @return endpoint to register the cloud with, e.g. http://127.0.0.1:8080/iaas/
+     */
+    public String getEndpoint() {
+        return "http://127.0.0.1:" + httpServer.getAddress().getPort() + "/iaas/";
+    }
+
+    /**
+     * Delay every response, to emulate the round trip to the real API.
+     */
+    public QingCloudStubServer withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * Answer with ret_code 2400 once more than maxRequestsPerSecond requests arrive within one second, 0 to disable.
+     */
+    public QingCloudStubServer withMaxRequestsPerSecond(int maxRequestsPerSecond) {
+        this.maxRequestsPerSecond = maxRequestsPerSecond;
+        return this;
+    }
+
+    /**
+     * How long created or changed resources stay in transition, and jobs stay working. 0, the default, completes
+     * everything immediately.
+     */
+    public QingCloudStubServer withTransitionTime(long transitionMillis) {
+        this.transitionMillis = transitionMillis;
+        return this;
+    }
+
+    /**
+     * Answer the next count requests with ret_code 2400, whatever the rate.
+     */
+    public void throttleNext(int count) {
+        throttleNext.set(count);
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getActionCount(String action) {
+        synchronized (actionCounts) {
+            AtomicInteger count = actionCounts.get(action);
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    public void resetCounters() {
+        requestCount.set(0);
+        synchronized (actionCounts) {
+            actionCounts.clear();
+        }
+    }
+
+    public String addInstance(String instanceName, String status) {
+        return addInstance(instanceName, status, new ArrayList<String>());
+    }
+
+    public String addInstance(String instanceName, String status, List<String> volumeIds) {
+        try {
+            String instanceId = nextId("i");
+            JSONObject instance = new JSONObject();
+            instance.put("instance_id", instanceId);
+            instance.put("instance_name", instanceName);
+            instance.put("instance_type", "c1m1");
+            instance.put("vcpus_current", 1);
+            instance.put("memory_current", 1024);
+            instance.put("status", status);
+            instance.put("transition_status", "");
+            instance.put("sub_code", 0);
+            instance.put("description", "");
+            instance.put("create_time", now());
+            instance.put("status_time", now());
+            instance.put("volume_ids", new JSONArray(volumeIds));
+            instance.put("keypair_ids", new JSONArray());
+            JSONObject vxnet = new JSONObject();
+            vxnet.put("vxnet_id", "vxnet-0");
+            vxnet.put("vxnet_name", "primary vxnet");
+            vxnet.put("vxnet_type", 1);
+            vxnet.put("nic_id", "52:54:00:00:" + instanceId.substring(2, 4) + ":" + instanceId.substring(4, 6));
+            vxnet.put("private_ip", "10.0.0." + (idSequence.get() % 250 + 2));
+            instance.put("vxnets", new JSONArray().put(vxnet));
+            JSONObject eip = new JSONObject();
+            eip.put("eip_id", "");
+            eip.put("eip_addr", "");
+            eip.put("bandwidth", "");
+            instance.put("eip", eip);
+            JSONObject securityGroup = new JSONObject();
+            securityGroup.put("security_group_id", "sg-default");
+            securityGroup.put("is_default", 1);
+            instance.put("security_group", securityGroup);
+            JSONObject image = new JSONObject();
+            image.put("image_id", "centos66x64b");
+            image.put("image_name", "CentOS 6.6 64bit");
+            image.put("image_size", 20);
+            image.put("os_family", "centos");
+            image.put("platform", "linux");
+            image.put("processor_type", "64bit");
+            image.put("provider", "system");
+            instance.put("image", image);
+            for (String volumeId : volumeIds) {
+                JSONObject volume = get("volume", volumeId);
+                if (volume != null) {
+                    volume.put("instance", new JSONObject().put("instance_id", instanceId).put("instance_name", instanceName));
+                    volume.put("status", "in-use");
+                }
+            }
+            put("instance", instanceId, instance);
+            return instanceId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addVolume(String volumeName, int size) {
+        try {
+            String volumeId = nextId("vol");
+            JSONObject volume = new JSONObject();
+            volume.put("volume_id", volumeId);
+            volume.put("volume_name", volumeName);
+            volume.put("size", size);
+            volume.put("status", "available");
+            volume.put("transition_status", "");
+            volume.put("sub_code", 0);
+            volume.put("description", "");
+            volume.put("create_time", now());
+            volume.put("status_time", now());
+            volume.put("instance", new JSONObject().put("instance_id", "").put("instance_name", ""));
+            put("volume", volumeId, volume);
+            return volumeId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addSnapshot(String snapshotName, String volumeId) {
+        try {
+            String snapshotId = nextId("ss");
+            JSONObject snapshot = new JSONObject();
+            snapshot.put("snapshot_id", snapshotId);
+            snapshot.put("snapshot_name", snapshotName);
+            snapshot.put("snapshot_type", 1);
+            snapshot.put("status", "available");
+            snapshot.put("transition_status", "");
+            snapshot.put("sub_code", 0);
+            snapshot.put("description", "");
+            snapshot.put("create_time", now());
+            snapshot.put("status_time", now());
+            snapshot.put("snapshot_time", now());
+            snapshot.put("size", 10);
+            snapshot.put("total_size", 10);
+            snapshot.put("is_taken", 1);
+            snapshot.put("is_head", 1);
+            snapshot.put("root_id", snapshotId);
+            snapshot.put("parent_id", "self");
+            snapshot.put("resource", new JSONObject().put("resource_id", volumeId).put("resource_type", "volume")
+                    .put("resource_name", ""));
+            put("snapshot", snapshotId, snapshot);
+            return snapshotId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addImage(String imageName, String visibility, String osFamily, String platform, String processorType) {
+        try {
+            String imageId = nextId("img");
+            JSONObject image = new JSONObject();
+            image.put("image_id", imageId);
+            image.put("image_name", imageName);
+            image.put("visibility", visibility);
+            image.put("os_family", osFamily);
+            image.put("platform", platform);
+            image.put("processor_type", processorType);
+            image.put("provider", "public".equals(visibility) ? "system" : "self");
+            image.put("owner", "public".equals(visibility) ? "system" : "usr-stub");
+            image.put("recommended_type", "c1m1");
+            image.put("status", "available");
+            image.put("transition_status", "");
+            image.put("sub_code", 0);
+            image.put("size", 20);
+            image.put("description", "");
+            image.put("create_time", now());
+            image.put("status_time", now());
+            put("image", imageId, image);
+            return imageId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addLoadBalancer(String loadBalancerName) {
+        try {
+            String loadBalancerId = nextId("lb");
+            JSONObject loadBalancer = new JSONObject();
+            loadBalancer.put("loadbalancer_id", loadBalancerId);
+            loadBalancer.put("loadbalancer_name", loadBalancerName);
+            loadBalancer.put("description", "");
+            loadBalancer.put("status", "active");
+            loadBalancer.put("transition_status", "");
+            loadBalancer.put("is_applied", 1);
+            loadBalancer.put("security_group_id", "sg-default");
+            loadBalancer.put("create_time", now());
+            loadBalancer.put("status_time", now());
+            loadBalancer.put("eips", new JSONArray());
+            loadBalancer.put("listeners", new JSONArray());
+            put("loadbalancer", loadBalancerId, loadBalancer);
+            return loadBalancerId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addLoadBalancerListener(String loadBalancerId, int port) {
+        try {
+            String listenerId = nextId("lbl");
+            JSONObject listener = new JSONObject();
+            listener.put("loadbalancer_listener_id", listenerId);
+            listener.put("loadbalancer_listener_name", "listener-" + port);
+            listener.put("loadbalancer_id", loadBalancerId);
+            listener.put("listener_port", port);
+            listener.put("listener_protocol", "http");
+            listener.put("backend_protocol", "http");
+            listener.put("balance_mode", "roundrobin");
+            listener.put("session_sticky", "");
+            listener.put("forwardfor", 0);
+            listener.put("listener_option", 0);
+            listener.put("healthy_check_method", "tcp");
+            listener.put("healthy_check_option", "10|5|2|5");
+            listener.put("create_time", now());
+            listener.put("backends", new JSONArray());
+            put("loadbalancer_listener", listenerId, listener);
+            return listenerId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    public String addTag(String tagName, String description) {
+        try {
+            String tagId = nextId("tag");
+            JSONObject tag = new JSONObject();
+            tag.put("tag_id", tagId);
+            tag.put("tag_name", tagName);
+            tag.put("description", description);
+            tag.put("color", "#9f9bb7");
+            tag.put("create_time", now());
+            tag.put("resource_tag_pairs", new JSONArray());
+            put("tag", tagId, tag);
+            return tagId;
+        } catch (JSONException jsonException) {
+            throw new IllegalStateException(jsonException);
+        }
+    }
+
+    /**
+     * @return a copy of the stored resource, or null
+     */
+    public JSONObject getResource(String type, String id) {
+        synchronized (resources) {
+            JSONObject resource = get(type, id);
+            try {
+                return resource == null ? null : new JSONObject(resource.toString());
+            } catch (JSONException jsonException) {
+                throw new IllegalStateException(jsonException);
+            }
+        }
+    }
+
+    public int countResources(String type) {
+        synchronized (resources) {
+            Map<String, JSONObject> ofType = resources.get(type);
+            return ofType == null ? 0 : ofType.size();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            Map<String, String> parameters = parseParameters(exchange);
+            String action = parameters.get("action");
+            count(action);
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            JSONObject response;
+            if (isThrottled()) {
+                response = error(action, RET_CODE_THROTTLED, "Request too frequently");
+            } else {
+                response = dispatch(action, parameters);
+            }
+            reply(exchange, 200, response.toString());
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            reply(exchange, 503, "");
+        } catch (JSONException jsonException) {
+            reply(exchange, 500, jsonException.getMessage());
+        } catch (RuntimeException runtimeException) {
+            reply(exchange, 500, String.valueOf(runtimeException.getMessage()));
+        }
+    }
+
+    private boolean isThrottled() {
+        if (throttleNext.get() > 0 && throttleNext.getAndDecrement() > 0) {
+            return true;
+        }
+        int max = maxRequestsPerSecond;
+        if (max <= 0) {
+            return false;
+        }
+        synchronized (this) {
+            long second = System.currentTimeMillis() / 1000;
+            if (second != currentSecond) {
+                currentSecond = second;
+                requestsInCurrentSecond = 0;
+            }
+            requestsInCurrentSecond++;
+            return requestsInCurrentSecond > max;
+        }
+    }
+
+    private JSONObject dispatch(String action, Map<String, String> parameters) throws JSONException {
+        if (action == null) {
+            return error(null, RET_CODE_MESSAGE_FORMAT_ERROR, "Missing action");
+        }
+        synchronized (resources) {
+            completeTransitions();
+
+            if ("DescribeZones".equals(action)) {
+                return describeZones();
+            } else if ("DescribeInstances".equals(action)) {
+                return describe(action, parameters, "instance", "instances", "instance_set", "instance_name");
+            } else if ("DescribeVolumes".equals(action)) {
+                return describe(action, parameters, "volume", "volumes", "volume_set", "volume_name");
+            } else if ("DescribeSnapshots".equals(action)) {
+                return describe(action, parameters, "snapshot", "snapshots", "snapshot_set", "snapshot_name");
+            } else if ("DescribeImages".equals(action)) {
+                return describe(action, parameters, "image", "images", "image_set", "image_name");
+            } else if ("DescribeLoadBalancers".equals(action)) {
+                return describe(action, parameters, "loadbalancer", "loadbalancers", "loadbalancer_set", "loadbalancer_name");
+            } else if ("DescribeLoadBalancerListeners".equals(action)) {
+                return describe(action, parameters, "loadbalancer_listener", "loadbalancer_listeners",
+                        "loadbalancer_listener_set", "loadbalancer_listener_name");
+            } else if ("DescribeTags".equals(action)) {
+                return describe(action, parameters, "tag", "tags", "tag_set", "tag_name");
+            } else if ("DescribeJobs".equals(action)) {
+                return describe(action, parameters, "job", "jobs", "job_set", "job_action");
+            } else if ("RunInstances".equals(action)) {
+                return runInstances(action, parameters);
+            } else if ("StartInstances".equals(action)) {
+                return changeStatus(action, parameters, "instance", "instances", "running", "starting");
+            } else if ("StopInstances".equals(action)) {
+                return changeStatus(action, parameters, "instance", "instances", "stopped", "stopping");
+            } else if ("RestartInstances".equals(action)) {
+                return changeStatus(action, parameters, "instance", "instances", "running", "restarting");
+            } else if ("TerminateInstances".equals(action)) {
+                return changeStatus(action, parameters, "instance", "instances", "terminated", "terminating");
+            } else if ("CreateVolumes".equals(action)) {
+                return createVolumes(action, parameters);
+            } else if ("DeleteVolumes".equals(action)) {
+                return changeStatus(action, parameters, "volume", "volumes", "deleted", "deleting");
+            } else if ("DeleteSnapshots".equals(action)) {
+                return changeStatus(action, parameters, "snapshot", "snapshots", "deleted", "deleting");
+            } else if ("DeleteImages".equals(action)) {
+                return changeStatus(action, parameters, "image", "images", "deleted", "deleting");
+            } else if ("CreateTag".equals(action)) {
+                JSONObject response = ok(action);
+                response.put("tag_id", addTag(parameters.get("tag_name"), parameters.get("description")));
+                return response;
+            } else if ("DeleteTags".equals(action)) {
+                for (String tagId : indexed(parameters, "tags")) {
+                    remove("tag", tagId);
+                }
+                return ok(action);
+            } else if ("ModifyTagAttributes".equals(action)) {
+                JSONObject tag = get("tag", parameters.get("tag"));
+                if (tag == null) {
+                    return error(action, RET_CODE_RESOURCE_NOT_FOUND, "Resource [" + parameters.get("tag") + "] not found");
+                }
+                if (parameters.containsKey("tag_name")) {
+                    tag.put("tag_name", parameters.get("tag_name"));
+                }
+                if (parameters.containsKey("description")) {
+                    tag.put("description", parameters.get("description"));
+                }
+                return ok(action);
+            } else if ("AttachTags".equals(action)) {
+                return attachTags(action, parameters, true);
+            } else if ("DetachTags".equals(action)) {
+                return attachTags(action, parameters, false);
+            } else {
+                return error(action, RET_CODE_MESSAGE_FORMAT_ERROR, "Action [" + action + "] is not supported by the stub");
+            }
+        }
+    }
+
+    private JSONObject describeZones() throws JSONException {
+        JSONObject response = ok("DescribeZones");
+        JSONObject zone = new JSONObject();
+        zone.put("zone_id", ZONE);
+        zone.put("status", "active");
+        response.put("zone_set", new JSONArray().put(zone));
+        response.put("total_count", 1);
+        return response;
+    }
+
+    private JSONObject describe(String action, Map<String, String> parameters, String type, String idsParameter,
+            String setName, String nameField) throws JSONException {
+        List<String> ids = indexed(parameters, idsParameter);
+        List<String> statuses = indexed(parameters, "status");
+        List<String> tagIds = indexed(parameters, "tags");
+        String searchWord = parameters.get("search_word");
+        String visibility = parameters.get("visibility");
+        String loadBalancerId = parameters.get("loadbalancer");
+
+        List<JSONObject> matched = new ArrayList<JSONObject>();
+        for (JSONObject resource : all(type)) {
+            if (!ids.isEmpty() && !ids.contains(resource.optString(type + "_id"))) {
+                continue;
+            }
+            if (!statuses.isEmpty() && !statuses.contains(resource.optString("status"))) {
+                continue;
+            }
+            if (searchWord != null && !resource.optString(nameField).contains(searchWord)
+                    && !resource.optString(type + "_id").contains(searchWord)) {
+                continue;
+            }
+            if (visibility != null && resource.has("visibility") && !visibility.equals(resource.optString("visibility"))) {
+                continue;
+            }
+            if (loadBalancerId != null && resource.has("loadbalancer_id") && !type.equals("loadbalancer")
+                    && !loadBalancerId.equals(resource.optString("loadbalancer_id"))) {
+                continue;
+            }
+            if (!tagIds.isEmpty() && !hasAnyTag(type, resource.optString(type + "_id"), tagIds)) {
+                continue;
+            }
+            if (ids.isEmpty() && ("deleted".equals(resource.optString("status"))
+                    || "ceased".equals(resource.optString("status")))) {
+                continue;
+            }
+            matched.add(resource);
+        }
+
+        int offset = parseInt(parameters.get("offset"), 0);
+        int limit = Math.min(parseInt(parameters.get("limit"), DEFAULT_LIMIT), MAX_LIMIT);
+
+        JSONArray set = new JSONArray();
+        for (int i = offset; i < matched.size() && i < offset + limit; i++) {
+            set.put(new JSONObject(matched.get(i).toString()));
+        }
+        JSONObject response = ok(action);
+        response.put(setName, set);
+        response.put("total_count", matched.size());
+        return response;
+    }
+
+    private JSONObject runInstances(String action, Map<String, String> parameters) throws JSONException {
+        int count = parseInt(parameters.get("count"), 1);
+        String instanceName = parameters.containsKey("instance_name") ? parameters.get("instance_name") : "";
+        JSONArray instanceIds = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            String instanceId = addInstance(instanceName, "running");
+            JSONObject instance = get("instance", instanceId);
+            if (parameters.containsKey("image_id")) {
+                instance.getJSONObject("image").put("image_id", parameters.get("image_id"));
+            }
+            if (parameters.containsKey("instance_type")) {
+                instance.put("instance_type", parameters.get("instance_type"));
+            }
+            startTransition("instance", instanceId, "pending", "creating", "running");
+            instanceIds.put(instanceId);
+        }
+        JSONObject response = ok(action);
+        response.put("instances", instanceIds);
+        response.put("job_id", addJob(action, instanceIds));
+        return response;
+    }
+
+    private JSONObject createVolumes(String action, Map<String, String> parameters) throws JSONException {
+        int count = parseInt(parameters.get("count"), 1);
+        JSONArray volumeIds = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            String volumeId = addVolume(parameters.get("volume_name"), parseInt(parameters.get("size"), 10));
+            startTransition("volume", volumeId, "pending", "creating", "available");
+            volumeIds.put(volumeId);
+        }
+        JSONObject response = ok(action);
+        response.put("volumes", volumeIds);
+        response.put("job_id", addJob(action, volumeIds));
+        return response;
+    }
+
+    private JSONObject changeStatus(String action, Map<String, String> parameters, String type, String idsParameter,
+            String status, String transitionStatus) throws JSONException {
+        List<String> ids = indexed(parameters, idsParameter);
+        if (ids.isEmpty()) {
+            return error(action, RET_CODE_MESSAGE_FORMAT_ERROR, "Missing " + idsParameter);
+        }
+        for (String id : ids) {
+            if (get(type, id) == null) {
+                return error(action, RET_CODE_RESOURCE_NOT_FOUND, "Resource [" + id + "] not found");
+            }
+        }
+        JSONArray changed = new JSONArray();
+        for (String id : ids) {
+            JSONObject resource = get(type, id);
+            startTransition(type, id, resource.optString("status"), transitionStatus, status);
+            changed.put(id);
+        }
+        JSONObject response = ok(action);
+        response.put("job_id", addJob(action, changed));
+        return response;
+    }
+
+    private JSONObject attachTags(String action, Map<String, String> parameters, boolean attach) throws JSONException {
+        for (int i = 1; parameters.containsKey("resource_tag_pairs." + i + ".tag_id"); i++) {
+            String tagId = parameters.get("resource_tag_pairs." + i + ".tag_id");
+            String resourceType = parameters.get("resource_tag_pairs." + i + ".resource_type");
+            String resourceId = parameters.get("resource_tag_pairs." + i + ".resource_id");
+            JSONObject tag = get("tag", tagId);
+            if (tag == null) {
+                return error(action, RET_CODE_RESOURCE_NOT_FOUND, "Resource [" + tagId + "] not found");
+            }
+            JSONArray pairs = tag.getJSONArray("resource_tag_pairs");
+            JSONArray updated = new JSONArray();
+            for (int j = 0; j < pairs.length(); j++) {
+                JSONObject pair = pairs.getJSONObject(j);
+                if (!resourceId.equals(pair.optString("resource_id"))) {
+                    updated.put(pair);
+                }
+            }
+            if (attach) {
+                JSONObject pair = new JSONObject();
+                pair.put("tag_id", tagId);
+                pair.put("resource_type", resourceType);
+                pair.put("resource_id", resourceId);
+                updated.put(pair);
+            }
+            tag.put("resource_tag_pairs", updated);
+            tag.put("resource_count", updated.length());
+        }
+        return ok(action);
+    }
+
+    private boolean hasAnyTag(String type, String resourceId, List<String> tagIds) throws JSONException {
+        if ("tag".equals(type)) {
+            return tagIds.contains(resourceId);
+        }
+        for (String tagId : tagIds) {
+            JSONObject tag = get("tag", tagId);
+            if (tag == null) {
+                continue;
+            }
+            JSONArray pairs = tag.getJSONArray("resource_tag_pairs");
+            for (int i = 0; i < pairs.length(); i++) {
+                if (resourceId.equals(pairs.getJSONObject(i).optString("resource_id"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String addJob(String action, JSONArray resourceIds) throws JSONException {
+        String jobId = nextId("j");
+        JSONObject job = new JSONObject();
+        job.put("job_id", jobId);
+        job.put("job_action", action);
+        job.put("status", "successful");
+        job.put("resource_ids", join(resourceIds));
+        job.put("create_time", now());
+        job.put("status_time", now());
+        put("job", jobId, job);
+        startTransition("job", jobId, "working", "", "successful");
+        return jobId;
+    }
+
+    /*
+     * Resource goes to transitionalStatus now and to finalStatus after the transition time.
+     */
+    private void startTransition(String type, String id, String status, String transitionStatus, String finalStatus)
+            throws JSONException {
+        JSONObject resource = get(type, id);
+        long transition = transitionMillis;
+        if (transition <= 0) {
+            resource.put("status", finalStatus);
+            resource.put("transition_status", "");
+            return;
+        }
+        resource.put("status", status);
+        resource.put("transition_status", transitionStatus);
+        resource.put("stub_final_status", finalStatus);
+        transitionsEnd.put(type + "/" + id, System.currentTimeMillis() + transition);
+    }
+
+    private void completeTransitions() throws JSONException {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = transitionsEnd.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getValue() <= now) {
+                String[] key = entry.getKey().split("/", 2);
+                JSONObject resource = get(key[0], key[1]);
+                if (resource != null) {
+                    resource.put("status", resource.remove("stub_final_status"));
+                    resource.put("transition_status", "");
+                    resource.put("status_time", now());
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private JSONObject ok(String action) throws JSONException {
+        JSONObject response = new JSONObject();
+        response.put("action", action + "Response");
+        response.put("ret_code", RET_CODE_OK);
+        return response;
+    }
+
+    private JSONObject error(String action, int retCode, String message) throws JSONException {
+        JSONObject response = new JSONObject();
+        response.put("action", action == null ? "" : action + "Response");
+        response.put("ret_code", retCode);
+        response.put("message", message);
+        return response;
+    }
+
+    private void put(String type, String id, JSONObject resource) {
+        synchronized (resources) {
+            Map<String, JSONObject> ofType = resources.get(type);
+            if (ofType == null) {
+                ofType = new LinkedHashMap<String, JSONObject>();
+                resources.put(type, ofType);
+            }
+            ofType.put(id, resource);
+        }
+    }
+
+    private JSONObject get(String type, String id) {
+        synchronized (resources) {
+            Map<String, JSONObject> ofType = resources.get(type);
+            return ofType == null ? null : ofType.get(id);
+        }
+    }
+
+    private void remove(String type, String id) {
+        synchronized (resources) {
+            Map<String, JSONObject> ofType = resources.get(type);
+            if (ofType != null) {
+                ofType.remove(id);
+            }
+        }
+    }
+
+    private List<JSONObject> all(String type) {
+        synchronized (resources) {
+            Map<String, JSONObject> ofType = resources.get(type);
+            return ofType == null ? new ArrayList<JSONObject>() : new ArrayList<JSONObject>(ofType.values());
+        }
+    }
+
+    private void count(String action) {
+        synchronized (actionCounts) {
+            AtomicInteger count = actionCounts.get(action);
+            if (count == null) {
+                count = new AtomicInteger();
+                actionCounts.put(action, count);
+            }
+            count.incrementAndGet();
+        }
+    }
+
+    private String nextId(String prefix) {
+        return prefix + "-" + String.format("%08x", idSequence.incrementAndGet());
+    }
+
+    private String now() {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(ISO8601_DATE_FORMAT);
+        dateFormat.setTimeZone(new SimpleTimeZone(0, "GMT"));
+        return dateFormat.format(new Date());
+    }
+
+    static private List<String> indexed(Map<String, String> parameters, String name) {
+        List<String> values = new ArrayList<String>();
+        for (int i = 1; parameters.containsKey(name + "." + i); i++) {
+            values.add(parameters.get(name + "." + i));
+        }
+        return values;
+    }
+
+    static private String join(JSONArray values) throws JSONException {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.length(); i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(values.getString(i));
+        }
+        return result.toString();
+    }
+
+    static private int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException numberFormatException) {
+            return defaultValue;
+        }
+    }
+
+    static private Map<String, String> parseParameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new LinkedHashMap<String, String>();
+        parseQuery(exchange.getRequestURI().getRawQuery(), parameters);
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            parseQuery(readBody(exchange.getRequestBody()), parameters);
+        }
+        return parameters;
+    }
+
+    static private void parseQuery(String query, Map<String, String> parameters) throws IOException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int index = pair.indexOf('=');
+            if (index < 0) {
+                parameters.put(URLDecoder.decode(pair, "UTF-8"), "");
+            } else {
+                parameters.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+                        URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+            }
+        }
+    }
+
+    static private String readBody(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) > 0) {
+            body.write(buffer, 0, read);
+        }
+        return body.toString("UTF-8");
+    }
+
+    static private void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream outputStream = exchange.getResponseBody();
+        try {
+            outputStream.write(bytes);
+        } finally {
+            outputStream.close();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudFilterTest {
+
+    @Test
+    public void literalRegexShouldBeSearchWord() {
+        assertEquals("web", QingCloudFilter.toSearchWord("web"));
+        assertEquals("web", QingCloudFilter.toSearchWord("^web.*"));
+        assertEquals("web-01", QingCloudFilter.toSearchWord(".*web-01$"));
+    }
+
+    @Test
+    public void regexShouldNotBeSearchWord() {
+        assertNull(QingCloudFilter.toSearchWord(null));
+        assertNull(QingCloudFilter.toSearchWord(".*"));
+        assertNull(QingCloudFilter.toSearchWord("web-[0-9]+"));
+        assertNull(QingCloudFilter.toSearchWord("(?i)web"));
+        assertNull(QingCloudFilter.toSearchWord("web|db"));
+    }
+
+    @Test
+    public void emptyStatusesShouldMatchNothing() {
+        assertTrue(new QingCloudFilter().withStatuses(Collections.<String>emptyList()).isMatchingNothing());
+        assertFalse(new QingCloudFilter().withStatuses(Collections.singletonList("running")).isMatchingNothing());
+        assertFalse(new QingCloudFilter().withStatuses(null).isMatchingNothing());
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudJobTrackerTest {
+    static private final String ZONE = "pek2";
+
+    /**
+     * Job tracker whose polls are run by the test and answered with the jobs it is given.
+     */
+    static class ScriptedJobTracker extends QingCloudJobTracker {
+        final List<List<String>> describedIds = new ArrayList<List<String>>();
+        private final List<FutureCallback<DescribeJobsResponseModel>> describeCallbacks = new ArrayList<FutureCallback<DescribeJobsResponseModel>>();
+
+        ScriptedJobTracker() {
+            super(null);
+        }
+
+        @Override
+        void schedulePoll(long delayMillis) {
+        }
+
+        @Override
+        void describe(String zoneId, List<String> resourceIds, FutureCallback<DescribeJobsResponseModel> callback) {
+            describedIds.add(new ArrayList<String>(resourceIds));
+            describeCallbacks.add(callback);
+        }
+
+        void answerPoll(Job ... jobs) {
+            int described = describeCallbacks.size();
+            poll();
+            DescribeJobsResponseModel responseModel = new DescribeJobsResponseModel();
+            responseModel.setJobs(Arrays.asList(jobs));
+            for (FutureCallback<DescribeJobsResponseModel> callback : describeCallbacks.subList(described, describeCallbacks.size())) {
+                callback.completed(responseModel);
+            }
+        }
+    }
+
+    private ScriptedJobTracker jobTracker;
+
+    @Before
+    public void setUp() {
+        jobTracker = new ScriptedJobTracker();
+    }
+
+    private Job newJob(String jobId, String status) {
+        Job job = new Job();
+        job.setJobId(jobId);
+        job.setJobAction("StartInstances");
+        job.setStatus(status);
+        return job;
+    }
+
+    private CloudException getCloudException(Future<Job> future) throws InterruptedException {
+        try {
+            future.get();
+            fail("Job should have failed");
+            return null;
+        } catch (ExecutionException executionException) {
+            assertTrue(executionException.getCause() instanceof CloudException);
+            return (CloudException) executionException.getCause();
+        }
+    }
+
+    @Test
+    public void successfulJobShouldComplete() throws Exception {
+        Future<Job> future = jobTracker.track(ZONE, "j-1", null);
+        jobTracker.answerPoll(newJob("j-1", "pending"));
+        assertFalse(future.isDone());
+
+        jobTracker.answerPoll(newJob("j-1", "working"));
+        assertFalse(future.isDone());
+
+        jobTracker.answerPoll(newJob("j-1", QingCloudJobTracker.STATUS_SUCCESSFUL));
+        assertEquals("j-1", future.get().getJobId());
+        assertEquals(0, jobTracker.getOutstandingCount());
+    }
+
+    @Test
+    public void jobsShouldBePolledTogether() throws Exception {
+        Future<Job> first = jobTracker.track(ZONE, "j-1", null);
+        Future<Job> second = jobTracker.track(ZONE, "j-2", null);
+        jobTracker.answerPoll(newJob("j-1", QingCloudJobTracker.STATUS_SUCCESSFUL), newJob("j-2", "working"));
+
+        assertEquals(1, jobTracker.describedIds.size());
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    public void missingJobShouldFailAsNotFound() throws Exception {
+        Future<Job> future = jobTracker.track(ZONE, "j-1", null);
+        jobTracker.answerPoll();
+
+        assertEquals("404", getCloudException(future).getProviderCode());
+    }
+
+    @Test
+    public void failedJobShouldFail() throws Exception {
+        Future<Job> failed = jobTracker.track(ZONE, "j-1", null);
+        Future<Job> partlyFailed = jobTracker.track(ZONE, "j-2", null);
+        jobTracker.answerPoll(newJob("j-1", QingCloudJobTracker.STATUS_FAILED),
+                newJob("j-2", QingCloudJobTracker.STATUS_DONE_WITH_FAILURE));
+
+        assertEquals(QingCloudJobTracker.STATUS_FAILED, getCloudException(failed).getProviderCode());
+        assertEquals(QingCloudJobTracker.STATUS_DONE_WITH_FAILURE, getCloudException(partlyFailed).getProviderCode());
+    }
+
+    @Test
+    public void shutdownShouldCancelTrackedJobs() throws InternalException {
+        Future<Job> future = jobTracker.track(ZONE, "j-1", null);
+        jobTracker.shutdown();
+
+        assertTrue(future.isCancelled());
+    }
+}
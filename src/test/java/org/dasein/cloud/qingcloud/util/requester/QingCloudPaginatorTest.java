@@ -0,0 +1,179 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import mockit.Mocked;
+import mockit.NonStrictExpectations;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
+import org.dasein.cloud.qingcloud.QingCloud;
+import org.dasein.cloud.qingcloud.compute.model.DescribeInstancesResponseModel;
+import org.dasein.cloud.qingcloud.stub.QingCloudStubServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Lists instances of a {@link QingCloudStubServer} through a provider pointed at the stub's endpoint.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudPaginatorTest {
+
+    protected final String ACCESS_KEY_ID = "QYACCESSKEYIDEXAMPLE";
+    protected final String ACCESS_KEY_SECRET = "SECRETACCESSKEY";
+
+    @Mocked protected ProviderContext providerContext;
+
+    private QingCloudStubServer stub;
+    private QingCloud qingCloud;
+    private Set<String> instanceIds;
+
+    @Before
+    public void setUp() throws IOException {
+        stub = new QingCloudStubServer().start();
+        qingCloud = new QingCloud();
+
+        new NonStrictExpectations(qingCloud) {{
+            qingCloud.getContext(); result = providerContext;
+        }};
+        new NonStrictExpectations() {{
+            byte[][] accessKey = new byte[][]{ACCESS_KEY_ID.getBytes(), ACCESS_KEY_SECRET.getBytes()};
+            providerContext.getConfigurationValue(QingCloud.DSN_ACCESS_KEY); result = accessKey;
+            providerContext.getConfigurationValue(QingCloud.DSN_ENDPOINT); result = stub.getEndpoint();
+            providerContext.getRegionId(); result = QingCloudStubServer.ZONE;
+        }};
+
+        instanceIds = new HashSet<String>();
+        for (int i = 0; i < 250; i++) {
+            instanceIds.add(stub.addInstance("web-" + i, ( i % 5 == 0 ? "stopped" : "running" )));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        qingCloud.close();
+        stub.stop();
+    }
+
+    private QingCloudPaginator<DescribeInstancesResponseModel, String> newInstancesPaginator(
+            final QingCloudFilter filter) {
+        return new QingCloudPaginator<DescribeInstancesResponseModel, String>(qingCloud,
+                DescribeInstancesResponseModel.class) {
+            @Override
+            protected QingCloudRequestBuilder newRequestBuilder() {
+                QingCloudRequestBuilder requestBuilder = QingCloudRequestBuilder.get(qingCloud)
+                        .action("DescribeInstances")
+                        .parameter("zone", QingCloudStubServer.ZONE);
+                filter.applyTo(requestBuilder);
+                return requestBuilder;
+            }
+
+            @Override
+            protected QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<String>> newMapper() {
+                return new QingCloudDriverToCoreMapper<DescribeInstancesResponseModel, List<String>>() {
+                    @Override
+                    protected List<String> doMapFrom(DescribeInstancesResponseModel responseModel) {
+                        List<String> result = new ArrayList<String>();
+                        for (DescribeInstancesResponseModel.Instance instance : responseModel.getInstances()) {
+                            result.add(instance.getInstanceId());
+                        }
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    @Test
+    public void listShouldFetchAllPages() throws CloudException, InternalException {
+        List<String> listed = newInstancesPaginator(new QingCloudFilter()).list();
+
+        assertEquals(250, listed.size());
+        assertEquals(instanceIds, new HashSet<String>(listed));
+        assertEquals(3, stub.getActionCount("DescribeInstances"));
+    }
+
+    @Test
+    public void parallelListShouldFetchAllPages() throws CloudException, InternalException {
+        List<String> listed = newInstancesPaginator(new QingCloudFilter()).withPageSize(40).withParallelFetch(true)
+                .list();
+
+        assertEquals(250, listed.size());
+        assertEquals(instanceIds, new HashSet<String>(listed));
+        assertEquals(7, stub.getActionCount("DescribeInstances"));
+    }
+
+    @Test
+    public void iterateShouldFetchAllPages() {
+        Set<String> iterated = new HashSet<String>();
+        for (String instanceId : newInstancesPaginator(new QingCloudFilter()).iterate()) {
+            iterated.add(instanceId);
+        }
+
+        assertEquals(instanceIds, iterated);
+    }
+
+    @Test
+    public void listShouldApplyFilter() throws CloudException, InternalException {
+        QingCloudFilter filter = new QingCloudFilter().withStatuses(Arrays.asList("stopped"));
+        List<String> listed = newInstancesPaginator(filter).list();
+
+        assertEquals(50, listed.size());
+        assertEquals(1, stub.getActionCount("DescribeInstances"));
+    }
+
+    @Test
+    public void throttledPageShouldBeRetried() throws CloudException, InternalException {
+        stub.throttleNext(2);
+
+        List<String> listed = newInstancesPaginator(new QingCloudFilter()).list();
+
+        assertEquals(250, listed.size());
+        assertEquals(3 + 2, stub.getActionCount("DescribeInstances"));
+    }
+
+    @Test
+    public void throttledPageShouldFailAfterMaxRetries() throws CloudException, InternalException {
+        stub.throttleNext(QingCloudRetryPolicy.DEFAULT_MAX_RETRIES + 1);
+
+        try {
+            newInstancesPaginator(new QingCloudFilter()).list();
+            fail("Throttled listing should fail once the retries are used up");
+        } catch (CloudException cloudException) {
+            assertEquals(CloudErrorType.THROTTLING, cloudException.getErrorType());
+        }
+        assertEquals(QingCloudRetryPolicy.DEFAULT_MAX_RETRIES + 1, stub.getActionCount("DescribeInstances"));
+    }
+}
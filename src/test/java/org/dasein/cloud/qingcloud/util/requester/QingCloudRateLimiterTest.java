@@ -0,0 +1,81 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudRateLimiterTest {
+
+    @Test
+    public void getInstanceShouldShareLimiterOfSameAccessKey() {
+        QingCloudRateLimiter rateLimiter = QingCloudRateLimiter.getInstance("RATELIMITERSHARED".getBytes(), 10, 5);
+
+        assertSame(rateLimiter, QingCloudRateLimiter.getInstance("RATELIMITERSHARED".getBytes(), 10, 5));
+        assertNotSame(rateLimiter, QingCloudRateLimiter.getInstance("RATELIMITEROTHER".getBytes(), 10, 5));
+    }
+
+    @Test
+    public void readAndMutateShouldBeLimitedSeparately() throws InterruptedException {
+        QingCloudRateLimiter rateLimiter = QingCloudRateLimiter.getInstance("RATELIMITERSEPARATE".getBytes(), 2, 1);
+
+        assertEquals(0, rateLimiter.acquire("DescribeInstances"));
+        assertEquals(0, rateLimiter.acquire("DescribeVolumes"));
+        assertEquals(0, rateLimiter.acquire("RunInstances"));
+        assertEquals(3, rateLimiter.getReadBucket().getAcquireCount() + rateLimiter.getMutateBucket().getAcquireCount());
+        assertEquals(0, rateLimiter.getReadBucket().getWaitCount());
+    }
+
+    @Test
+    public void requestsOverBurstShouldBePacedAtRate() throws InterruptedException {
+        QingCloudRateLimiter rateLimiter = QingCloudRateLimiter.getInstance("RATELIMITERPACED".getBytes(), 50, 50);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 60; i++) {
+            rateLimiter.acquire("DescribeInstances");
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        //50 admitted as a burst, the next 10 spaced 20ms apart
+        assertTrue("elapsed " + elapsed, elapsed >= 150);
+        assertEquals(10, rateLimiter.getReadBucket().getWaitCount());
+        assertTrue(rateLimiter.getReadBucket().getTotalWaitMillis() >= 150);
+    }
+
+    @Test
+    public void throttledResponseShouldDrainBucket() throws InterruptedException {
+        QingCloudRateLimiter rateLimiter = QingCloudRateLimiter.getInstance("RATELIMITERDRAINED".getBytes(), 10, 10);
+
+        rateLimiter.onThrottled("RunInstances");
+
+        assertTrue(rateLimiter.acquire("RunInstances") > 0);
+        assertEquals(1, rateLimiter.getMutateBucket().getThrottledCount());
+        assertEquals(0, rateLimiter.acquire("DescribeInstances"));
+    }
+}
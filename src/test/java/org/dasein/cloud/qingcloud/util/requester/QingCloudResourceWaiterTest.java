@@ -0,0 +1,289 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.concurrent.FutureCallback;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel;
+import org.dasein.cloud.qingcloud.model.DescribeJobsResponseModel.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Polls of the waiter are run by the test, and answered with DescribeJobs responses instead of requests.
+ *
+ * @since 2016.02.1
+ */
+public class QingCloudResourceWaiterTest {
+    static private final String ZONE = "pek2";
+
+    static private final QingCloudResourceWaiter.Condition<String> SUCCESSFUL = new QingCloudResourceWaiter.Condition<String>() {
+        @Override
+        public boolean isSatisfied(String state) {
+            return "successful".equals(state);
+        }
+    };
+
+    static private final QingCloudResourceWaiter.Condition<String> DELETED = new QingCloudResourceWaiter.Condition<String>() {
+        @Override
+        public boolean isSatisfied(String state) {
+            return "deleted".equals(state);
+        }
+    };
+
+    /**
+     * Waits for the status of jobs, jobs DescribeJobs doesn't return are deleted.
+     */
+    static class StatusWaiter extends QingCloudResourceWaiter<DescribeJobsResponseModel, String> {
+        final List<Long> pollDelays = new ArrayList<Long>();
+        final List<List<String>> describedIds = new ArrayList<List<String>>();
+        final List<FutureCallback<DescribeJobsResponseModel>> describeCallbacks = new ArrayList<FutureCallback<DescribeJobsResponseModel>>();
+
+        StatusWaiter() {
+            super(null, DescribeJobsResponseModel.class);
+        }
+
+        @Override
+        protected QingCloudRequestBuilder newRequestBuilder(String zoneId, List<String> resourceIds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected Map<String, String> mapStates(DescribeJobsResponseModel responseModel) {
+            Map<String, String> states = new HashMap<String, String>();
+            for (Job job : responseModel.getJobs()) {
+                states.put(job.getJobId(), job.getStatus());
+            }
+            return states;
+        }
+
+        @Override
+        protected String getAbsentState() {
+            return "deleted";
+        }
+
+        @Override
+        void schedulePoll(long delayMillis) {
+            pollDelays.add(delayMillis);
+        }
+
+        @Override
+        void describe(String zoneId, List<String> resourceIds, FutureCallback<DescribeJobsResponseModel> callback) {
+            describedIds.add(new ArrayList<String>(resourceIds));
+            describeCallbacks.add(callback);
+        }
+
+        long getLastPollDelay() {
+            return pollDelays.get(pollDelays.size() - 1);
+        }
+
+        /**
+         * Run a poll and answer it with the given status of each job.
+         */
+        void answerPoll(String ... jobStatuses) {
+            int described = describeCallbacks.size();
+            poll();
+            List<Job> jobs = new ArrayList<Job>();
+            for (int i = 0; i < jobStatuses.length; i += 2) {
+                Job job = new Job();
+                job.setJobId(jobStatuses[i]);
+                job.setStatus(jobStatuses[i + 1]);
+                jobs.add(job);
+            }
+            DescribeJobsResponseModel responseModel = new DescribeJobsResponseModel();
+            responseModel.setJobs(jobs);
+            for (FutureCallback<DescribeJobsResponseModel> callback : describeCallbacks.subList(described, describeCallbacks.size())) {
+                callback.completed(responseModel);
+            }
+        }
+
+        void failPoll() {
+            int described = describeCallbacks.size();
+            poll();
+            for (FutureCallback<DescribeJobsResponseModel> callback : describeCallbacks.subList(described, describeCallbacks.size())) {
+                callback.failed(new Exception("Connection refused"));
+            }
+        }
+    }
+
+    private StatusWaiter waiter;
+
+    @Before
+    public void setUp() {
+        waiter = new StatusWaiter();
+    }
+
+    @Test
+    public void pollIntervalShouldDoubleUntilProgress() throws InternalException {
+        Future<String> first = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        Future<String> second = waiter.waitFor(ZONE, "j-2", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        assertEquals(Arrays.asList(QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS), waiter.pollDelays);
+
+        waiter.answerPoll("j-1", "working", "j-2", "working");
+        assertEquals(2 * QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+        waiter.answerPoll("j-1", "working", "j-2", "working");
+        assertEquals(4 * QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+        for (int i = 0; i < 10; i++) {
+            waiter.answerPoll("j-1", "working", "j-2", "working");
+        }
+        assertEquals(QingCloudResourceWaiter.MAX_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+
+        waiter.answerPoll("j-1", "successful", "j-2", "working");
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+        assertEquals(QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+    }
+
+    @Test
+    public void newWaitShouldResetPollInterval() throws InternalException {
+        waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.answerPoll("j-1", "working");
+        waiter.answerPoll("j-1", "working");
+        assertEquals(4 * QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+
+        //the poll scheduled further out is moved up
+        waiter.waitFor(ZONE, "j-2", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        assertEquals(4, waiter.pollDelays.size());
+        assertEquals(QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+        waiter.answerPoll("j-1", "working", "j-2", "working");
+        assertEquals(2 * QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+    }
+
+    @Test
+    public void newWaitDuringPollShouldBePolledNext() throws InternalException {
+        waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.answerPoll("j-1", "working");
+        assertEquals(2, waiter.pollDelays.size());
+
+        waiter.poll();
+        waiter.waitFor(ZONE, "j-2", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        assertEquals(2, waiter.pollDelays.size());
+
+        Job job = new Job();
+        job.setJobId("j-1");
+        job.setStatus("working");
+        DescribeJobsResponseModel responseModel = new DescribeJobsResponseModel();
+        responseModel.setJobs(Arrays.asList(job));
+        waiter.describeCallbacks.get(1).completed(responseModel);
+        assertEquals(QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+    }
+
+    @Test
+    public void satisfiedWaitsShouldStopPolling() throws InternalException, ExecutionException, InterruptedException {
+        Future<String> future = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.answerPoll("j-1", "successful");
+
+        assertEquals("successful", future.get());
+        assertEquals(0, waiter.getOutstandingCount());
+        assertEquals(1, waiter.pollDelays.size());
+    }
+
+    @Test
+    public void waitsOfSameZoneShouldSharePoll() throws InternalException {
+        waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.waitFor(ZONE, "j-2", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.waitFor(ZONE, "j-2", DELETED, 0, TimeUnit.SECONDS, null);
+        waiter.answerPoll("j-1", "working", "j-2", "working");
+
+        assertEquals(1, waiter.describedIds.size());
+        assertEquals(2, waiter.describedIds.get(0).size());
+        assertEquals(3, waiter.getOutstandingCount());
+    }
+
+    @Test
+    public void deadlineShouldExpireOnFailedPoll() throws Exception {
+        Future<String> expiring = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 1, TimeUnit.MILLISECONDS, null);
+        Future<String> forever = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        Thread.sleep(10);
+
+        waiter.failPoll();
+
+        try {
+            expiring.get();
+            fail("Wait past its deadline should fail");
+        } catch (ExecutionException executionException) {
+            assertTrue(executionException.getCause() instanceof TimeoutException);
+        }
+        assertNull(QingCloudResourceWaiter.await(expiring, 1, TimeUnit.SECONDS));
+        assertFalse(forever.isDone());
+        assertEquals(1, waiter.getOutstandingCount());
+        assertEquals(2 * QingCloudResourceWaiter.MIN_POLL_INTERVAL_MILLIS, waiter.getLastPollDelay());
+    }
+
+    @Test
+    public void failedPollShouldNotSatisfyConditions() throws InternalException {
+        Future<String> future = waiter.waitFor(ZONE, "j-1", DELETED, 0, TimeUnit.SECONDS, null);
+        waiter.failPoll();
+
+        assertFalse(future.isDone());
+    }
+
+    @Test
+    public void absentResourceShouldHaveAbsentState() throws Exception {
+        Future<String> deleted = waiter.waitFor(ZONE, "j-1", DELETED, 0, TimeUnit.SECONDS, null);
+        Future<String> successful = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.answerPoll();
+
+        assertEquals("deleted", deleted.get());
+        assertFalse(successful.isDone());
+    }
+
+    @Test
+    public void shutdownShouldCancelWaits() throws InternalException {
+        Future<String> future = waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.shutdown();
+
+        assertTrue(future.isCancelled());
+        assertEquals(0, waiter.getOutstandingCount());
+        try {
+            waiter.waitFor(ZONE, "j-2", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+            fail("Waiter should reject waits after shutdown");
+        } catch (InternalException expected) {
+        }
+    }
+
+    @Test
+    public void shutdownShouldStopPolling() throws InternalException {
+        waiter.waitFor(ZONE, "j-1", SUCCESSFUL, 0, TimeUnit.SECONDS, null);
+        waiter.shutdown();
+        waiter.poll();
+
+        assertTrue(waiter.describedIds.isEmpty());
+        assertEquals(1, waiter.pollDelays.size());
+    }
+}
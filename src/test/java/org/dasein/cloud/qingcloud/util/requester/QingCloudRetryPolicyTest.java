@@ -0,0 +1,83 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.NoHttpResponseException;
+import org.junit.Test;
+
+import java.net.ConnectException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudRetryPolicyTest {
+
+    @Test
+    public void describeShouldBeRetriedOnAnyTransientFailure() {
+        QingCloudRetryPolicy retryPolicy = new QingCloudRetryPolicy(3, 10);
+
+        assertTrue(retryPolicy.isRetryable("DescribeInstances", new QingCloudResponseException(2400, "throttled")));
+        assertTrue(retryPolicy.isRetryable("DescribeInstances", new QingCloudResponseException(5100, "busy")));
+        assertTrue(retryPolicy.isRetryable("DescribeInstances", new NoHttpResponseException("no response")));
+        assertFalse(retryPolicy.isRetryable("DescribeInstances", new QingCloudResponseException(1200, "auth")));
+    }
+
+    @Test
+    public void mutationShouldBeRetriedOnlyWhenNotExecuted() {
+        QingCloudRetryPolicy retryPolicy = new QingCloudRetryPolicy(3, 10);
+
+        assertTrue(retryPolicy.isRetryable("RunInstances", new ConnectException("refused")));
+        assertTrue(retryPolicy.isRetryable("RunInstances", new QingCloudResponseException(2400, "throttled")));
+        assertFalse(retryPolicy.isRetryable("RunInstances", new NoHttpResponseException("no response")));
+        assertFalse(retryPolicy.isRetryable("RunInstances", new QingCloudResponseException(5100, "busy")));
+    }
+
+    @Test
+    public void budgetShouldBeConsumedByRetriesAndRefilledBySuccesses() {
+        QingCloudRetryPolicy retryPolicy = new QingCloudRetryPolicy(3, 2);
+
+        assertTrue(retryPolicy.acquireRetry());
+        assertTrue(retryPolicy.acquireRetry());
+        assertFalse(retryPolicy.acquireRetry());
+
+        for (int i = 0; i < 10; i++) {
+            retryPolicy.onSuccess();
+        }
+        assertEquals(1, retryPolicy.getRemainingBudget());
+        assertTrue(retryPolicy.acquireRetry());
+    }
+
+    @Test
+    public void delayShouldBeJitteredBelowExponentialCeiling() {
+        QingCloudRetryPolicy retryPolicy = new QingCloudRetryPolicy(10, 10, 100, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(retryPolicy.getDelayMillis(1) < 100);
+            assertTrue(retryPolicy.getDelayMillis(3) < 400);
+            assertTrue(retryPolicy.getDelayMillis(10) < 1000);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import org.dasein.cloud.InternalException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudSignerTest {
+
+    protected final byte[] ACCESS_KEY_ID = "QYACCESSKEYIDEXAMPLE".getBytes();
+    protected final byte[] ACCESS_KEY_SECRET = "SECRETACCESSKEY".getBytes();
+
+    @Test
+    public void signShouldEncodeRfc3986AndKeepLastDuplicatedParameter() throws InternalException {
+        List<NameValuePair> parameters = new ArrayList<NameValuePair>();
+        parameters.add(new BasicNameValuePair("action", "ModifyInstanceAttributes"));
+        parameters.add(new BasicNameValuePair("instance_name", "web server*1 ~ \u4e2d\u6587"));
+        parameters.add(new BasicNameValuePair("zone", "pek1"));
+        parameters.add(new BasicNameValuePair("zone", "pek2"));
+
+        String signature = QingCloudSigner.getInstance(ACCESS_KEY_ID, ACCESS_KEY_SECRET).sign("GET", "/iaas/", parameters);
+
+        assertEquals("Oi7VabRuATOdgP7kuKfxn9qhioN//EPqsrxbH8hWxXw=", signature);
+    }
+
+    @Test
+    public void getInstanceShouldReuseSignerOfSameAccessKey() {
+        QingCloudSigner signer = QingCloudSigner.getInstance(ACCESS_KEY_ID, ACCESS_KEY_SECRET);
+        assertSame(signer, QingCloudSigner.getInstance(ACCESS_KEY_ID, ACCESS_KEY_SECRET.clone()));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  *
+ *  Copyright (C) 2009-2015 Dell, Inc.
+ *  See annotations for authorship information
+ *
+ *  ====================================================================
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  ====================================================================
+ *
+ */
+
+package org.dasein.cloud.qingcloud.util.requester;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.dasein.cloud.qingcloud.compute.model.DescribeVolumesResponseModel;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @since 2016.02.1
+ */
+public class QingCloudStreamingResponseHandlerTest {
+
+    private final List<Integer> batchSizes = new ArrayList<Integer>();
+    private final List<String> volumeIds = new ArrayList<String>();
+
+    private QingCloudStreamingResponseHandler<DescribeVolumesResponseModel.Volume, String> newHandler(int batchSize) {
+        QingCloudStreamingMapper<DescribeVolumesResponseModel.Volume, String> mapper =
+                new QingCloudStreamingMapper<DescribeVolumesResponseModel.Volume, String>("volume_set",
+                        DescribeVolumesResponseModel.Volume.class) {
+                    @Override
+                    protected List<String> mapItems(List<DescribeVolumesResponseModel.Volume> volumes) {
+                        batchSizes.add(volumes.size());
+                        List<String> result = new ArrayList<String>();
+                        for (DescribeVolumesResponseModel.Volume volume : volumes) {
+                            result.add(volume.getVolumeId());
+                        }
+                        return result;
+                    }
+                }.withBatchSize(batchSize);
+        return new QingCloudStreamingResponseHandler<DescribeVolumesResponseModel.Volume, String>(mapper,
+                new QingCloudStreamingResponseHandler.Consumer<String>() {
+                    @Override
+                    public void consume(List<String> items) {
+                        volumeIds.addAll(items);
+                    }
+                });
+    }
+
+    private HttpResponse newResponse(String json) {
+        HttpResponse httpResponse = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        httpResponse.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+        return httpResponse;
+    }
+
+    private String volumesResponse(int count, int totalCount) {
+        StringBuilder json = new StringBuilder("{\"action\":\"DescribeVolumesResponse\",\"volume_set\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"volume_id\":\"vol-").append(i).append("\",\"size\":10,\"status\":\"available\",")
+                    .append("\"instance\":{\"instance_id\":\"\"},\"unknown_field\":[1,2]}");
+        }
+        return json.append("],\"total_count\":").append(totalCount).append(",\"ret_code\":0}").toString();
+    }
+
+    @Test
+    public void itemsShouldBeMappedInBatches() throws IOException {
+        int totalCount = newHandler(2).handleResponse(newResponse(volumesResponse(5, 105)));
+
+        assertEquals(105, totalCount);
+        assertEquals(5, volumeIds.size());
+        assertEquals("vol-4", volumeIds.get(4));
+        assertEquals(3, batchSizes.size());
+        assertEquals(Integer.valueOf(1), batchSizes.get(2));
+    }
+
+    @Test
+    public void errorRetCodeShouldBeThrown() throws IOException {
+        try {
+            newHandler(2).handleResponse(newResponse("{\"ret_code\":2400,\"message\":\"throttled\"}"));
+            fail("QingCloudResponseException expected");
+        } catch (QingCloudResponseException qingCloudResponseException) {
+            assertEquals(2400, qingCloudResponseException.getRetCode());
+            assertEquals("throttled", qingCloudResponseException.getErrorMessage());
+        }
+    }
+
+    @Test
+    public void retryShouldSkipDeliveredItems() throws IOException {
+        QingCloudStreamingResponseHandler<DescribeVolumesResponseModel.Volume, String> handler = newHandler(2);
+        String complete = volumesResponse(5, 5);
+        try {
+            handler.handleResponse(newResponse(complete.substring(0, complete.indexOf("vol-3"))));
+            fail("IOException expected");
+        } catch (IOException ioException) {
+            //truncated response
+        }
+        assertEquals(2, volumeIds.size());
+
+        handler.handleResponse(newResponse(complete));
+        assertEquals(5, volumeIds.size());
+        assertEquals("vol-2", volumeIds.get(2));
+    }
+}